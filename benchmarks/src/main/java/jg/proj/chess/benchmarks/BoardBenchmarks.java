@@ -0,0 +1,54 @@
+package jg.proj.chess.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.TeamInformation;
+
+/**
+ * Benchmarks of Board and DefaultBoardPreparer
+ *
+ * @author Jose
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmarks {
+
+  /**
+   * Queries every square of the board, including a few off the board
+   */
+  @Benchmark
+  public void querySquare(BoardState state, Blackhole blackhole){
+    Board board = state.board;
+    for(int file = 0; file <= 9; file++){
+      for(char rank = '@'; rank <= 'I'; rank++){
+        blackhole.consume(board.querySquare(file, rank));
+      }
+    }
+  }
+
+  @Benchmark
+  public String parsableToString(BoardState state){
+    return state.board.parsableToString();
+  }
+
+  @Benchmark
+  public TeamInformation prepareBoard(){
+    Board board = new Board(8, 8);
+    return new DefaultBoardPreparer().prepareBoard(board, 8, 8);
+  }
+}
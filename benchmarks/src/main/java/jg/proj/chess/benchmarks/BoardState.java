@@ -0,0 +1,89 @@
+package jg.proj.chess.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.Square;
+import jg.proj.chess.core.units.InvalidMove;
+import jg.proj.chess.core.units.Unit;
+import jg.proj.chess.core.units.Unit.UnitType;
+
+/**
+ * A board prepared by DefaultBoardPreparer, for benchmarks to run against.
+ *
+ * The "opening" setup is the board as prepared. The "midgame" setup then plays
+ * a scripted opening in which both teams develop their minor pieces, so
+ * that sliding units have open lines and units are spread across the board.
+ *
+ * @author Jose
+ *
+ */
+@State(Scope.Thread)
+public class BoardState {
+
+  /**
+   * The moves of the "midgame" setup, in the same format as votes
+   */
+  private static final String [] MIDGAME_MOVES = {"2E>4E", "7E>5E", "1G>3F", "8B>6C",
+                                                  "1F>4C", "8F>5C", "2D>3D", "7D>6D",
+                                                  "1B>3C", "8G>6F", "1C>5G", "8C>4G"};
+
+  @Param({"opening", "midgame"})
+  public String setup;
+
+  public Board board;
+
+  /**
+   * A legal Knight move for the prepared board, for benchmarking Unit.moveTo()
+   */
+  public Square moveOrigin;
+  public Square moveDestination;
+
+  @Setup(Level.Trial)
+  public void prepare() throws InvalidMove{
+    board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+
+    if (setup.equals("midgame")) {
+      for(String move : MIDGAME_MOVES){
+        Square origin = parseSquare(move.substring(0, 2));
+        origin.getUnit().moveTo(parseSquare(move.substring(3)));
+      }
+      moveOrigin = parseSquare("3C");
+      moveDestination = parseSquare("5B");
+    }
+    else {
+      moveOrigin = parseSquare("1G");
+      moveDestination = parseSquare("3F");
+    }
+  }
+
+  /**
+   * Returns all units of a given type on the board
+   * @param type - the UnitType of the units to return
+   * @return all units of that type, of both teams
+   */
+  public List<Unit> unitsOf(UnitType type){
+    List<Unit> units = new ArrayList<>();
+    for(Square [] row : board.getSquares()){
+      for(Square square : row){
+        if (square.getUnit() != null && square.getUnit().getType() == type) {
+          units.add(square.getUnit());
+        }
+      }
+    }
+    return units;
+  }
+
+  private Square parseSquare(String square){
+    return board.querySquare(square.charAt(0) - '0', square.charAt(1));
+  }
+}
@@ -0,0 +1,76 @@
+package jg.proj.chess.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import jg.proj.chess.core.Square;
+import jg.proj.chess.core.units.InvalidMove;
+import jg.proj.chess.core.units.Unit;
+import jg.proj.chess.core.units.Unit.UnitType;
+
+/**
+ * Benchmarks of the Unit classes
+ *
+ * @author Jose
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnitBenchmarks {
+
+  /**
+   * The units of a single UnitType on a BoardState
+   */
+  @State(Scope.Thread)
+  public static class UnitsState{
+
+    @Param({"KING", "QUEEN", "ROOK", "BISHOP", "KNIGHT", "PAWN"})
+    public UnitType type;
+
+    public Unit [] units;
+
+    @Setup(Level.Trial)
+    public void collect(BoardState state){
+      List<Unit> found = state.unitsOf(type);
+      units = found.toArray(new Unit[found.size()]);
+    }
+  }
+
+  /**
+   * Computes the destinations of every unit of a UnitType, of both teams
+   */
+  @Benchmark
+  public void possibleDestinations(UnitsState state, Blackhole blackhole){
+    for(Unit unit : state.units){
+      blackhole.consume(unit.possibleDestinations());
+    }
+  }
+
+  /**
+   * Moves a Knight and takes the move back, so that every invocation starts
+   * from the same board. The time measured includes Board.unmakeMove()
+   */
+  @Benchmark
+  public Square moveTo(BoardState state) throws InvalidMove{
+    Square origin = state.moveOrigin.getUnit().moveTo(state.moveDestination);
+    state.board.unmakeMove();
+    return origin;
+  }
+}
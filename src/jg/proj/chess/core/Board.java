@@ -1,26 +1,95 @@
 package jg.proj.chess.core;
 
+import java.util.Arrays;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
 import jg.proj.chess.core.units.Unit;
 
 /**
  * Represents a game board
+ * 
+ * An 8 x 8 Board is backed by a bitboard Position which is kept in 
+ * sync with every unit placed on its Squares. The Squares of a Board
+ * remain available as an object view of the same units.
+ * 
  * @author Jose
  *
  */
 public class Board {
+  private static final int INITIAL_UNDO_CAPACITY = 128;
+  
+  /**
+   * Published snapshots kept for diffing against. Enough for a client to fall a few turns behind
+   */
+  public static final int SNAPSHOT_HISTORY = 64;
+  
   private final int fileWidth;
   private final int rankWidth;
 
   private final Square [][] squares;
+  
+  /**
+   * The shape of this board: how squares are indexed, and which squares neighbor each other
+   */
+  private final BoardGeometry geometry;
+  
+  /**
+   * The bitboard backend of this board. Null if this board isn't 8 x 8
+   */
+  private final Position position;
+  
+  /**
+   * The Units captured by each move made through makeMove(), so they 
+   * can be put back by unmakeMove(). Null entries mean nothing was captured.
+   */
+  private Unit [] capturedUnits;
+  private int moveCount;
+  
+  /**
+   * Incremented on every change to this board: a unit placed, 
+   * a move made or taken back, or a change of turn
+   */
+  private int version;
+  
+  /**
+   * The last encodings of this board, reused until this board changes
+   */
+  private volatile Encoding parsableEncoding;
+  private volatile Encoding fenEncoding;
+  
+  /**
+   * The last published snapshot of this board, for threads that 
+   * read this board while another thread moves its units
+   */
+  private volatile BoardSnapshot snapshot;
+  
+  /**
+   * The last SNAPSHOT_HISTORY published snapshots, as a ring, for diffing against (see diffSince()).
+   * Each slot is written before the snapshot is published, so readers of the volatile 
+   * snapshot field see slots at least that recent
+   */
+  private final BoardSnapshot [] publishedSnapshots;
+  private int publishCount;
 
   public Board(int fileWidth, int rankWidth){
     squares = new Square[fileWidth][rankWidth];
     this.fileWidth = fileWidth;
     this.rankWidth = rankWidth;
+    this.geometry = BoardGeometry.of(fileWidth, rankWidth);
+    this.position = (fileWidth == Bitboards.FILES && rankWidth == Bitboards.RANKS) ? new Position() : null;
+    this.capturedUnits = new Unit[INITIAL_UNDO_CAPACITY];
+    this.publishedSnapshots = new BoardSnapshot[SNAPSHOT_HISTORY];
   }
 
   public TeamInformation initialize(BoardPreparer preparer){
-    return preparer.prepareBoard(this, fileWidth, rankWidth);
+    TeamInformation info = preparer.prepareBoard(this, fileWidth, rankWidth);
+    publishSnapshot();
+    return info;
   }
   
   public Square[][] getSquares(){
@@ -28,21 +97,303 @@ public class Board {
   }
   
   public Square querySquare(int file, char rank){
-    int row = file - 1;
-    int col = Character.toUpperCase(rank) - 'A';
+    int square = geometry.square(file, rank);
+    return square < 0 ? null : squareAt(square);
+  }
+  
+  /**
+   * Returns the shape of this board
+   * @return the BoardGeometry of this board
+   */
+  public BoardGeometry getGeometry(){
+    return geometry;
+  }
+  
+  /**
+   * Returns the bitboard Position backing this board
+   * @return the bitboard Position backing this board, 
+   *         or null if this board's dimensions can't be represented by bitboards
+   */
+  public Position getPosition(){
+    return position;
+  }
+  
+  /**
+   * Makes a move on this board, updating both its Position and its Squares.
+   * 
+   * The move isn't checked for legality, and can be taken back with unmakeMove()
+   * @param move - the int-encoded move (see jg.proj.chess.core.bitboard.Move)
+   * @throws IllegalStateException if this board isn't backed by a bitboard Position
+   */
+  public void makeMove(int move){
+    if (position == null) {
+      throw new IllegalStateException("Only boards backed by a Position can make int-encoded moves");
+    }
+    
+    Square from = squareAt(Move.from(move));
+    Square to = squareAt(Move.to(move));
+    Unit mover = from.getUnit();
+    Unit captured = to.getUnit();
     
-    //System.out.println("files: "+row+" | ranks: "+col);
-    if ((0 <= row && row < rankWidth) && (0 <= col && col < fileWidth)) {
-      return squares[row][col];
+    if (moveCount == capturedUnits.length) {
+      capturedUnits = Arrays.copyOf(capturedUnits, moveCount * 2);
     }
+    capturedUnits[moveCount++] = captured;
     
-    return null;
+    position.makeMove(move);
+    version++;
+    
+    if (captured != null) {
+      captured.updateSquare(null);
+    }
+    from.attachUnit(null);
+    to.attachUnit(mover);
+    mover.updateSquare(to);
+    publishSnapshot();
+  }
+  
+  /**
+   * Takes back the last move made by makeMove(), restoring any captured unit
+   * @throws IllegalStateException if there are no moves to take back
+   */
+  public void unmakeMove(){
+    if (position == null || moveCount == 0) {
+      throw new IllegalStateException("There are no moves to take back");
+    }
+    
+    int move = position.unmakeMove();
+    version++;
+    Unit captured = capturedUnits[--moveCount];
+    capturedUnits[moveCount] = null;
+    
+    Square from = squareAt(Move.from(move));
+    Square to = squareAt(Move.to(move));
+    Unit mover = to.getUnit();
+    
+    from.attachUnit(mover);
+    mover.updateSquare(from);
+    to.attachUnit(captured);
+    if (captured != null) {
+      captured.updateSquare(to);
+    }
+    publishSnapshot();
+  }
+  
+  /**
+   * Checks if moving the unit on one Square to another is legal: the unit can
+   * land on the destination, and the move doesn't leave its team's King in check.
+   * 
+   * Boards that aren't backed by a Position can't detect checks, so only
+   * the unit's destinations are checked.
+   * @param origin - the Square of the unit to move
+   * @param destination - the Square to land on
+   * @return true if the move is legal, false if else (or if there's no unit on the origin)
+   */
+  public boolean isLegalMove(Square origin, Square destination){
+    if (origin == null || destination == null || origin.getUnit() == null) {
+      return false;
+    }
+    
+    if (position == null) {
+      return origin.getUnit().canMoveTo(destination);
+    }
+    
+    long destinations = MoveGenerator.legalDestinations(position, origin.getIndex());
+    return Bitboards.isSet(destinations, destination.getIndex());
+  }
+  
+  /**
+   * Checks if a team's King is under attack
+   * @param teamID - the ID of the team (1 or 2)
+   * @return true if the team's King is under attack, false if else 
+   *         (always false if this board isn't backed by a Position)
+   */
+  public boolean isInCheck(int teamID){
+    return position != null && MoveGenerator.isInCheck(position, Pieces.teamIndex(teamID));
+  }
+
+  /**
+   * Counts how many of a team's units attack a Square, as for hints ("this square is attacked")
+   * @param square - the Square to check
+   * @param teamID - the ID of the attacking team (1 or 2)
+   * @return the amount of the team's units attacking the Square
+   *         (always 0 if this board isn't backed by a Position)
+   */
+  public int attackersOf(Square square, int teamID){
+    return position == null ? 0 : position.getAttackMap().count(Pieces.teamIndex(teamID), square.getIndex());
+  }
+
+  /**
+   * Determines whether the team whose turn it is has been checkmated or stalemated, or whether the game is drawn
+   * @return the outcome for the team whose turn it is 
+   *         (always IN_PROGRESS if this board isn't backed by a Position)
+   */
+  public GameOutcome getOutcome(){
+    return position == null ? GameOutcome.IN_PROGRESS : MoveGenerator.outcome(position);
+  }
+  
+  /**
+   * Sets whose turn it is. 
+   * 
+   * Moves already hand the turn to the other team. This is for 
+   * when a team passes their turn without moving
+   * @param teamID - the ID of the team (1 or 2)
+   */
+  public void setTurn(int teamID){
+    if (position != null && position.getSideToMove() != Pieces.teamIndex(teamID)) {
+      position.setSideToMove(Pieces.teamIndex(teamID));
+      version++;
+      publishSnapshot();
+    }
+  }
+  
+  /**
+   * Returns whose turn it is
+   * @return the ID of the team (1 or 2) whose turn it is
+   */
+  public int getTurn(){
+    return position == null ? 1 : Pieces.teamID(position.getSideToMove());
+  }
+  
+  /**
+   * Returns the last published snapshot of this board.
+   * 
+   * A snapshot is published once this board is initialized, and after every move made, 
+   * move taken back and change of turn. This never blocks, and can be called from any thread.
+   * @return the last published snapshot of this board, or null if this board hasn't been initialized
+   */
+  public BoardSnapshot getSnapshot(){
+    return snapshot;
+  }
+  
+  /**
+   * Publishes a snapshot of this board as it is now, unless the last published
+   * snapshot is already up to date.
+   * 
+   * Only the thread moving units should call this. It's needed only after 
+   * arranging units directly through Square.placeUnit()
+   * @return the published snapshot
+   */
+  public BoardSnapshot publishSnapshot(){
+    BoardSnapshot current = snapshot;
+    if (current != null && current.getVersion() == version) {
+      return current;
+    }
+    
+    byte [] codes = new byte[fileWidth * rankWidth];
+    if (position != null) {
+      for(int square = 0; square < codes.length; square++){
+        codes[square] = (byte) position.pieceAt(square);
+      }
+    }
+    else {
+      for(int row = 0; row < fileWidth; row++){
+        for(int col = 0; col < rankWidth; col++){
+          Unit unit = squares[row][col] == null ? null : squares[row][col].getUnit();
+          if (unit != null) {
+            codes[row * rankWidth + col] = (byte) Pieces.code(Pieces.teamIndex(unit.getTeamID()), unit.getType().ordinal());
+          }
+        }
+      }
+    }
+    
+    current = new BoardSnapshot(version, getTurn(), fileWidth, rankWidth, codes);
+    publishedSnapshots[publishCount++ % SNAPSHOT_HISTORY] = current;
+    snapshot = current;
+    return current;
+  }
+  
+  /**
+   * Finds the changes made to this board since a version of it was published, 
+   * up to its last published snapshot. Safe to call from any thread.
+   * 
+   * Only the last SNAPSHOT_HISTORY snapshots are kept. For older (or unknown) versions, 
+   * a full diff is returned instead (see BoardDiff.isFull())
+   * @param version - the version of this board to diff from (see BoardSnapshot.getVersion()), or -1 for a full diff
+   * @return the changes since the version, or null if this board hasn't been initialized
+   */
+  public BoardDiff diffSince(int version){
+    BoardSnapshot current = snapshot;
+    if (current == null) {
+      return null;
+    }
+    
+    BoardSnapshot base = null;
+    for(int i = 0; i < publishedSnapshots.length && base == null; i++){
+      BoardSnapshot published = publishedSnapshots[i];
+      if (published != null && published.getVersion() == version && version != BoardDiff.FULL) {
+        base = published;
+      }
+    }
+    return BoardDiff.between(base, current);
+  }
+  
+  /**
+   * Returns the version of this board, which changes every time a unit is 
+   * placed, a move is made or taken back, or the turn changes.
+   * 
+   * Anything derived from this board can be reused for as long as the version stays the same
+   * @return the version of this board
+   */
+  public int getVersion(){
+    return version;
+  }
+  
+  /**
+   * Returns the Square of a square index (see BoardGeometry). On 8 x 8 
+   * boards, this is the same as a bitboard square index
+   * @param square - the square index
+   * @return the Square of the square index
+   */
+  public Square squareAt(int square){
+    return squares[square / rankWidth][square % rankWidth];
+  }
+  
+  /**
+   * Updates the bitboard Position with the current unit of a Square.
+   * 
+   * Called by a Square whenever a unit is placed on it
+   * @param square - the Square whose unit has changed
+   */
+  void squareChanged(Square square){
+    version++;
+    if (position != null) {
+      int index = square.getIndex();
+      Unit unit = square.getUnit();
+      if (unit == null) {
+        position.remove(index);
+      }
+      else {
+        position.place(index, Pieces.teamIndex(unit.getTeamID()), unit.getType().ordinal());
+      }
+    }
   }
   
   public String toString(){
     return parsableToString().replace("|", System.lineSeparator());
   }
   
+  /**
+   * Returns the FEN record of this board (see jg.proj.chess.core.bitboard.Fen).
+   * 
+   * The record is encoded once per change to this board, and reused until the next change
+   * @return the FEN record of this board
+   * @throws IllegalStateException if this board isn't backed by a Position
+   */
+  public String toFen(){
+    if (position == null) {
+      throw new IllegalStateException("Only boards backed by a Position have a FEN record");
+    }
+    
+    int currentVersion = version;
+    Encoding encoding = fenEncoding;
+    if (encoding == null || encoding.version != currentVersion) {
+      encoding = new Encoding(currentVersion, Fen.encode(position));
+      fenEncoding = encoding;
+    }
+    return encoding.text;
+  }
+  
   /**
    * Returns a string representation of the board that can be easily parsed
    * 
@@ -51,34 +402,57 @@ public class Board {
    * 
    * Rows are then concatenated with each other, separated by the '|' character
    * 
+   * The representation is built once per change to this board, and reused until the next change
+   * 
    * @return a string representation of the board that can be easily parsed
    */
   public String parsableToString(){
-    String text = "";
+    int currentVersion = version;
+    Encoding encoding = parsableEncoding;
+    if (encoding == null || encoding.version != currentVersion) {
+      encoding = new Encoding(currentVersion, buildParsableString());
+      parsableEncoding = encoding;
+    }
+    return encoding.text;
+  }
+  
+  private String buildParsableString(){
+    //"K1," per square, and a '|' per row
+    StringBuilder text = new StringBuilder(squares.length * (rankWidth * 3 + 1));
     
     for(Square [] row : squares) {
-      String rowRep = "";
-      for(Square square : row) {
-        if (square.getUnit() == null) {
-          rowRep += "~";
+      if (text.length() > 0) {
+        text.append('|');
+      }
+      
+      for(int i = 0; i < row.length; i++) {
+        if (i > 0) {
+          text.append(',');
+        }
+        
+        Unit unit = row[i].getUnit();
+        if (unit == null) {
+          text.append('~');
         }
         else {
-          Unit unit = square.getUnit();
-          rowRep += String.valueOf(unit.getType().shortName)+unit.getTeamID();
+          text.append(unit.getType().shortName).append(unit.getTeamID());
         }
-        rowRep += ",";
       }
-      
-      //cutout last ","
-      rowRep = rowRep.substring(0, rowRep.length() - 1);
-      
-      rowRep += "|";
-      text += rowRep;
     }
     
-    //cutout last '|'
-    text = text.substring(0, text.length() - 1);
+    return text.toString();
+  }
+  
+  /**
+   * A text encoding of this board, and the version of this board it was made for
+   */
+  private static class Encoding{
+    private final int version;
+    private final String text;
     
-    return text;
+    public Encoding(int version, String text){
+      this.version = version;
+      this.text = text;
+    }
   }
 }
@@ -0,0 +1,246 @@
+package jg.proj.chess.core;
+
+import java.util.Arrays;
+
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.units.Unit;
+
+/**
+ * The squares that changed between two snapshots of a Board, and what's on them now.
+ *
+ * A client that already has one version of a board only needs the squares that
+ * changed since: usually two after a move. A client with no version at all gets a
+ * full diff, which lists the occupied squares of the board on top of an empty one.
+ *
+ * A diff is written in a compact form, for the network:
+ *
+ *   FROM_VERSION,TO_VERSION,TURN|SQUARE|SQUARE|....
+ *
+ * where each changed SQUARE is its file and rank followed by the FEN letter of its
+ * new unit (see Fen.letter()), or '~' if it's empty now. For example, "7,9,2|2B~|4BP"
+ * is Team 1's Pawn moving from 2B to 4B. A full diff has a FROM_VERSION of -1.
+ *
+ * @author Jose
+ *
+ */
+public final class BoardDiff {
+
+  /**
+   * The "from" version of a full diff: one made on top of an empty board
+   */
+  public static final int FULL = -1;
+
+  private final BoardGeometry geometry;
+  private final int fromVersion;
+  private final int toVersion;
+  private final int turn;
+
+  /**
+   * The changed squares (see BoardGeometry), and the piece code now on each
+   */
+  private final int [] squares;
+  private final byte [] codes;
+
+  private BoardDiff(BoardGeometry geometry, int fromVersion, int toVersion, int turn, int [] squares, byte [] codes){
+    this.geometry = geometry;
+    this.fromVersion = fromVersion;
+    this.toVersion = toVersion;
+    this.turn = turn;
+    this.squares = squares;
+    this.codes = codes;
+  }
+
+  /**
+   * Finds the changes between two snapshots of a Board
+   * @param from - the older snapshot, or null for a full diff
+   * @param to - the newer snapshot
+   * @return the changes from the older snapshot to the newer one
+   * @throws IllegalArgumentException if the snapshots are of boards of different sizes
+   */
+  public static BoardDiff between(BoardSnapshot from, BoardSnapshot to){
+    if (from != null && (from.getRowCount() != to.getRowCount() || from.getRowLength() != to.getRowLength())) {
+      throw new IllegalArgumentException("Snapshots of boards of different sizes can't be diffed");
+    }
+
+    int squareCount = to.getRowCount() * to.getRowLength();
+    int [] squares = new int[squareCount];
+    byte [] codes = new byte[squareCount];
+    int count = 0;
+    for(int square = 0; square < squareCount; square++){
+      int code = to.pieceAt(square);
+      int old = from == null ? Pieces.EMPTY : from.pieceAt(square);
+      if (code != old) {
+        squares[count] = square;
+        codes[count++] = (byte) code;
+      }
+    }
+
+    int fromVersion = from == null ? FULL : from.getVersion();
+    return new BoardDiff(BoardGeometry.of(to.getRowCount(), to.getRowLength()), fromVersion, to.getVersion(), to.getTurn(), Arrays.copyOf(squares, count), Arrays.copyOf(codes, count));
+  }
+
+  /**
+   * Parses a diff from its compact form
+   * @param text - the compact form of a diff (see toString())
+   * @param geometry - the shape of the board the diff is of
+   * @return the parsed BoardDiff
+   * @throws IllegalArgumentException if the text is malformed, or has squares outside of the board
+   */
+  public static BoardDiff parse(String text, BoardGeometry geometry){
+    String [] parts = text.split("\\|");
+    String [] header = parts[0].split(",");
+    if (header.length != 3) {
+      throw new IllegalArgumentException("A diff needs a version to diff from, a version to diff to and a turn: "+text);
+    }
+
+    try {
+      int fromVersion = Integer.parseInt(header[0]);
+      int toVersion = Integer.parseInt(header[1]);
+      int turn = Integer.parseInt(header[2]);
+
+      int [] squares = new int[parts.length - 1];
+      byte [] codes = new byte[parts.length - 1];
+      for(int i = 1; i < parts.length; i++){
+        String change = parts[i];
+        if (change.length() < 3) {
+          throw new IllegalArgumentException("Bad square change '"+change+"': "+text);
+        }
+
+        char letter = change.charAt(change.length() - 1);
+        int file = Integer.parseInt(change.substring(0, change.length() - 2));
+        int square = geometry.square(file, change.charAt(change.length() - 2));
+        int code = letter == '~' ? Pieces.EMPTY : Fen.code(letter);
+        if (square < 0 || (code == Pieces.EMPTY && letter != '~')) {
+          throw new IllegalArgumentException("Bad square change '"+change+"': "+text);
+        }
+        squares[i - 1] = square;
+        codes[i - 1] = (byte) code;
+      }
+      return new BoardDiff(geometry, fromVersion, toVersion, turn, squares, codes);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Bad number in diff: "+text);
+    }
+  }
+
+  /**
+   * Applies this diff to an initialized Board, which should be at this diff's "from"
+   * version (or anything, for a full diff). Units are replaced on the changed squares only, and it's
+   * then the turn of this diff's team.
+   *
+   * Only the thread moving the Board's units should call this
+   * @param board - the Board to apply this diff to
+   * @throws IllegalArgumentException if the Board isn't the size of this diff's board
+   */
+  public void applyTo(Board board){
+    if (board.getGeometry() != geometry) {
+      throw new IllegalArgumentException("A diff of a "+geometry.getFiles()+" x "+geometry.getRanks()+" board can't be applied to this board");
+    }
+    if (isFull()) {
+      for(int square = 0; square < board.getGeometry().getSquareCount(); square++){
+        place(board.squareAt(square), Pieces.EMPTY);
+      }
+    }
+    for(int i = 0; i < squares.length; i++){
+      place(board.squareAt(squares[i]), codes[i]);
+    }
+    board.setTurn(turn);
+    board.publishSnapshot();
+  }
+
+  private static void place(Square square, int code){
+    Unit old = square.getUnit();
+    if (old == null && code == Pieces.EMPTY) {
+      return;
+    }
+    if (old != null) {
+      old.updateSquare(null);
+    }
+
+    Unit unit = null;
+    if (code != Pieces.EMPTY) {
+      unit = PositionBoardPreparer.createUnit(Pieces.unitType(Pieces.type(code)), Pieces.teamID(Pieces.team(code)), square);
+    }
+    square.placeUnit(unit);
+  }
+
+  /**
+   * Checks if this diff is a full diff, made on top of an empty board
+   * @return true if this diff is a full diff, false if else
+   */
+  public boolean isFull(){
+    return fromVersion == FULL;
+  }
+
+  /**
+   * Checks if nothing changed (not even whose turn it is)
+   * @return true if the versions are the same, false if else
+   */
+  public boolean isEmpty(){
+    return fromVersion == toVersion;
+  }
+
+  /**
+   * Returns the shape of the board this diff is of
+   * @return the shape of the board this diff is of
+   */
+  public BoardGeometry getGeometry(){
+    return geometry;
+  }
+
+  public int getFromVersion(){
+    return fromVersion;
+  }
+
+  public int getToVersion(){
+    return toVersion;
+  }
+
+  /**
+   * Returns whose turn it is at the "to" version
+   * @return the ID of the team (1 or 2) whose turn it is
+   */
+  public int getTurn(){
+    return turn;
+  }
+
+  /**
+   * Returns the amount of changed squares
+   * @return the amount of changed squares
+   */
+  public int size(){
+    return squares.length;
+  }
+
+  /**
+   * Returns a changed square
+   * @param index - the index of the change (0 to size() - 1)
+   * @return the square index of the change (see BoardGeometry)
+   */
+  public int getSquare(int index){
+    return squares[index];
+  }
+
+  /**
+   * Returns the piece code now on a changed square
+   * @param index - the index of the change (0 to size() - 1)
+   * @return the piece code now on the square, or Pieces.EMPTY if it's empty now
+   */
+  public int getCode(int index){
+    return codes[index];
+  }
+
+  /**
+   * Returns the compact form of this diff, as described above
+   * @return the compact form of this diff
+   */
+  public String toString(){
+    StringBuilder text = new StringBuilder(16 + squares.length * 5);
+    text.append(fromVersion).append(',').append(toVersion).append(',').append(turn);
+    for(int i = 0; i < squares.length; i++){
+      text.append('|').append(geometry.file(squares[i])).append(geometry.rank(squares[i]));
+      text.append(codes[i] == Pieces.EMPTY ? '~' : Fen.letter(codes[i]));
+    }
+    return text.toString();
+  }
+}
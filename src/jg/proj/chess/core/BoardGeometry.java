@@ -0,0 +1,237 @@
+package jg.proj.chess.core;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The shape of a Board of any size: how its squares are indexed, and which
+ * squares neighbor each other.
+ *
+ * Squares are indexed row by row: index = (file - 1) * ranks + (rank - 'A').
+ * On 8 x 8 boards, this is the same as a bitboard square index.
+ *
+ * Neighbors, sliding rays and Knight/King targets are precomputed once per
+ * shape from a mailbox: the board surrounded by a border of sentinel squares,
+ * two squares thick. Walking off the board then always lands on a sentinel,
+ * so the tables are built without bounds checks, and units walking the
+ * precomputed tables never need to check bounds at all.
+ *
+ * Directions follow the Square class: UP is towards file 1, DOWN is towards
+ * the last file, LEFT is towards rank 'A' and RIGHT is towards the last rank.
+ *
+ * @author Jose
+ *
+ */
+public final class BoardGeometry {
+
+  public static final int UP = 0;
+  public static final int DOWN = 1;
+  public static final int LEFT = 2;
+  public static final int RIGHT = 3;
+  public static final int UP_LEFT = 4;
+  public static final int UP_RIGHT = 5;
+  public static final int DOWN_LEFT = 6;
+  public static final int DOWN_RIGHT = 7;
+  public static final int DIRECTION_COUNT = 8;
+
+  public static final int [] ORTHOGONALS = {UP, DOWN, LEFT, RIGHT};
+  public static final int [] DIAGONALS = {UP_LEFT, UP_RIGHT, DOWN_LEFT, DOWN_RIGHT};
+  public static final int [] ALL_DIRECTIONS = {UP, DOWN, LEFT, RIGHT, UP_LEFT, UP_RIGHT, DOWN_LEFT, DOWN_RIGHT};
+
+  /**
+   * Thickness of the sentinel border. Two squares, so that a Knight's jump from an edge square stays in the mailbox
+   */
+  private static final int PADDING = 2;
+  private static final int SENTINEL = -1;
+
+  /**
+   * Geometries already built, by shape
+   */
+  private static final Map<Long, BoardGeometry> SHAPES = new ConcurrentHashMap<>();
+
+  private final int files;
+  private final int ranks;
+
+  /**
+   * Neighbor square indexes, by direction then by square (-1 if off the board)
+   */
+  private final int [][] neighbors;
+
+  /**
+   * The squares along each direction from each square, nearest first, by direction then by square
+   */
+  private final int [][][] rays;
+
+  private final int [][] knightTargets;
+  private final int [][] kingTargets;
+
+  private BoardGeometry(int files, int ranks){
+    this.files = files;
+    this.ranks = ranks;
+
+    //the mailbox: every square of the board, surrounded by sentinels
+    int width = ranks + 2 * PADDING;
+    int [] mailbox = new int[width * (files + 2 * PADDING)];
+    int [] toMailbox = new int[files * ranks];
+    Arrays.fill(mailbox, SENTINEL);
+    for(int square = 0; square < toMailbox.length; square++){
+      int slot = (square / ranks + PADDING) * width + (square % ranks + PADDING);
+      mailbox[slot] = square;
+      toMailbox[square] = slot;
+    }
+
+    int [] offsets = new int[DIRECTION_COUNT];
+    offsets[UP] = -width;
+    offsets[DOWN] = width;
+    offsets[LEFT] = -1;
+    offsets[RIGHT] = 1;
+    offsets[UP_LEFT] = -width - 1;
+    offsets[UP_RIGHT] = -width + 1;
+    offsets[DOWN_LEFT] = width - 1;
+    offsets[DOWN_RIGHT] = width + 1;
+
+    int [] knightOffsets = {-2 * width - 1, -2 * width + 1, -width - 2, -width + 2,
+                             width - 2, width + 2, 2 * width - 1, 2 * width + 1};
+
+    neighbors = new int[DIRECTION_COUNT][toMailbox.length];
+    rays = new int[DIRECTION_COUNT][toMailbox.length][];
+    knightTargets = new int[toMailbox.length][];
+    kingTargets = new int[toMailbox.length][];
+
+    int [] buffer = new int[Math.max(files, ranks) + DIRECTION_COUNT];
+    int [] steps = new int[DIRECTION_COUNT];
+    for(int square = 0; square < toMailbox.length; square++){
+      int origin = toMailbox[square];
+
+      int kings = 0;
+      for(int direction = 0; direction < DIRECTION_COUNT; direction++){
+        neighbors[direction][square] = mailbox[origin + offsets[direction]];
+
+        int length = 0;
+        for(int slot = origin + offsets[direction]; mailbox[slot] != SENTINEL; slot += offsets[direction]){
+          buffer[length++] = mailbox[slot];
+        }
+        rays[direction][square] = Arrays.copyOf(buffer, length);
+
+        if (neighbors[direction][square] != SENTINEL) {
+          steps[kings++] = neighbors[direction][square];
+        }
+      }
+      kingTargets[square] = Arrays.copyOf(steps, kings);
+
+      int knights = 0;
+      for(int offset : knightOffsets){
+        if (mailbox[origin + offset] != SENTINEL) {
+          buffer[knights++] = mailbox[origin + offset];
+        }
+      }
+      knightTargets[square] = Arrays.copyOf(buffer, knights);
+    }
+  }
+
+  /**
+   * Returns the geometry of a board shape. Each shape is only built once
+   * @param files - the amount of files (rows) of the board
+   * @param ranks - the amount of ranks (columns) of the board
+   * @return the geometry of the board shape
+   * @throws IllegalArgumentException if the board would have no squares, or too many to encode moves on (see BoardMove)
+   */
+  public static BoardGeometry of(int files, int ranks){
+    if (files < 1 || ranks < 1) {
+      throw new IllegalArgumentException("A board needs at least one file and rank: "+files+" x "+ranks);
+    }
+    if ((long) files * ranks > BoardMove.MAX_SQUARES) {
+      throw new IllegalArgumentException("A board can have at most "+BoardMove.MAX_SQUARES+" squares: "+files+" x "+ranks);
+    }
+    return SHAPES.computeIfAbsent(((long) files << 32) | ranks, shape -> new BoardGeometry(files, ranks));
+  }
+
+  /**
+   * Calculates the index of a square
+   * @param file - the file of the square (1 to getFiles())
+   * @param rank - the rank of the square ('A' onwards, case insensitive)
+   * @return the square index, or -1 if the square is outside of the board
+   */
+  public int square(int file, char rank){
+    int row = file - 1;
+    int col = Character.toUpperCase(rank) - 'A';
+
+    if ((0 <= row && row < files) && (0 <= col && col < ranks)) {
+      return row * ranks + col;
+    }
+    return SENTINEL;
+  }
+
+  /**
+   * Returns the file of a square index
+   * @param square - the square index
+   * @return the file of the square index
+   */
+  public int file(int square){
+    return square / ranks + 1;
+  }
+
+  /**
+   * Returns the rank of a square index
+   * @param square - the square index
+   * @return the rank of the square index
+   */
+  public char rank(int square){
+    return (char) ('A' + square % ranks);
+  }
+
+  /**
+   * Returns the neighbor of a square in a direction
+   * @param square - the square index
+   * @param direction - the direction (UP, DOWN, LEFT, RIGHT, UP_LEFT, UP_RIGHT, DOWN_LEFT or DOWN_RIGHT)
+   * @return the index of the neighboring square, or -1 if it's off the board
+   */
+  public int neighbor(int square, int direction){
+    return neighbors[direction][square];
+  }
+
+  /**
+   * Returns the squares from a square to the edge of the board, in a direction
+   * @param square - the square index
+   * @param direction - the direction
+   * @return the square indexes along the direction, nearest first. Must not be modified
+   */
+  public int [] ray(int square, int direction){
+    return rays[direction][square];
+  }
+
+  /**
+   * Returns the squares a Knight can jump to from a square, on an empty board
+   * @param square - the square index
+   * @return the square indexes a Knight can jump to. Must not be modified
+   */
+  public int [] knightTargets(int square){
+    return knightTargets[square];
+  }
+
+  /**
+   * Returns the squares a King can step to from a square, on an empty board
+   * @param square - the square index
+   * @return the square indexes a King can step to. Must not be modified
+   */
+  public int [] kingTargets(int square){
+    return kingTargets[square];
+  }
+
+  public int getFiles(){
+    return files;
+  }
+
+  public int getRanks(){
+    return ranks;
+  }
+
+  /**
+   * Returns the amount of squares of this shape
+   * @return the amount of squares of this shape
+   */
+  public int getSquareCount(){
+    return files * ranks;
+  }
+}
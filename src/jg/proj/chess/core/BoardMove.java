@@ -0,0 +1,46 @@
+package jg.proj.chess.core;
+
+/**
+ * Helpers for int-encoded moves on boards of any size.
+ *
+ * Bitboard moves (see jg.proj.chess.core.bitboard.Move) only have six bits per
+ * square, so units on boards that aren't backed by a Position encode their moves
+ * with wider square indexes (see BoardGeometry) instead:
+ *  - bits 0 to 15  : the origin square index
+ *  - bits 16 to 30 : the destination square index
+ *
+ * As the origin and destination of a move are never the same,
+ * no real move is ever encoded as NONE.
+ *
+ * @author Jose
+ *
+ */
+public final class BoardMove {
+
+  public static final int NONE = 0;
+
+  /**
+   * More than the amount of squares of any board whose moves can be encoded
+   */
+  public static final int MAX_SQUARES = 1 << 15;
+
+  private BoardMove(){}
+
+  /**
+   * Encodes a move
+   * @param from - the origin square index
+   * @param to - the destination square index
+   * @return the encoded move
+   */
+  public static int encode(int from, int to){
+    return from | (to << 16);
+  }
+
+  public static int from(int move){
+    return move & 0xFFFF;
+  }
+
+  public static int to(int move){
+    return move >>> 16;
+  }
+}
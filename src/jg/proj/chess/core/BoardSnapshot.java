@@ -0,0 +1,156 @@
+package jg.proj.chess.core;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * An immutable copy of a Board's units and turn, at one version of the Board.
+ *
+ * A Board publishes a new snapshot after every move (see Board.getSnapshot()),
+ * so threads other than the one moving units can read the board without locks
+ * and without ever seeing a half-made move. Creating a snapshot only copies
+ * the piece code of each square. Anything derived from it - like its parsable
+ * string - is computed on first use and then kept.
+ *
+ * @author Jose
+ *
+ */
+public final class BoardSnapshot {
+
+  private final int version;
+  private final int turn;
+  private final int rowCount;
+  private final int rowLength;
+
+  /**
+   * The piece code (see jg.proj.chess.core.bitboard.Pieces) of each square, row by row.
+   * On 8 x 8 boards, the index of a square is its bitboard square index
+   */
+  private final byte [] codes;
+
+  /**
+   * Derived on first use. It's immutable, so it's safe to share even if two
+   * threads happen to derive it at the same time
+   */
+  private String parsableString;
+
+  BoardSnapshot(int version, int turn, int rowCount, int rowLength, byte [] codes){
+    this.version = version;
+    this.turn = turn;
+    this.rowCount = rowCount;
+    this.rowLength = rowLength;
+    this.codes = codes;
+  }
+
+  /**
+   * Returns the version of the Board this snapshot was taken at (see Board.getVersion())
+   * @return the version of the Board this snapshot was taken at
+   */
+  public int getVersion(){
+    return version;
+  }
+
+  /**
+   * Returns the amount of files (rows) of the Board
+   * @return the amount of files of the Board
+   */
+  public int getRowCount(){
+    return rowCount;
+  }
+
+  /**
+   * Returns the amount of ranks (columns) of the Board
+   * @return the amount of ranks of the Board
+   */
+  public int getRowLength(){
+    return rowLength;
+  }
+
+  /**
+   * Returns the piece code of the unit on a square
+   * @param square - the square index (see BoardGeometry)
+   * @return the piece code of the unit on the square, or Pieces.EMPTY if there's none
+   */
+  public int pieceAt(int square){
+    return codes[square];
+  }
+
+  /**
+   * Returns whose turn it was
+   * @return the ID of the team (1 or 2) whose turn it was
+   */
+  public int getTurn(){
+    return turn;
+  }
+
+  /**
+   * Returns the piece code of the unit on a square
+   * @param file - the file of the square
+   * @param rank - the rank of the square (case insensitive)
+   * @return the piece code of the unit on the square, or Pieces.EMPTY if there's none
+   *         (or if the square is outside of the board)
+   */
+  public int pieceAt(int file, char rank){
+    int row = file - 1;
+    int col = Character.toUpperCase(rank) - 'A';
+    if ((0 <= row && row < rowCount) && (0 <= col && col < rowLength)) {
+      return codes[row * rowLength + col];
+    }
+    return Pieces.EMPTY;
+  }
+
+  /**
+   * Creates a bitboard Position of this snapshot
+   * @return a new Position of this snapshot, or null if the board isn't 8 x 8
+   */
+  public Position toPosition(){
+    if (rowCount != Bitboards.FILES || rowLength != Bitboards.RANKS) {
+      return null;
+    }
+
+    Position position = new Position();
+    position.setSideToMove(Pieces.teamIndex(turn));
+    for(int square = 0; square < codes.length; square++){
+      int code = codes[square];
+      if (code != Pieces.EMPTY) {
+        position.place(square, Pieces.team(code), Pieces.type(code));
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Returns the same string as Board.parsableToString() did for this snapshot's version
+   * @return a string representation of the board that can be easily parsed
+   */
+  public String parsableToString(){
+    String text = parsableString;
+    if (text == null) {
+      StringBuilder builder = new StringBuilder(rowCount * (rowLength * 3 + 1));
+      for(int row = 0; row < rowCount; row++){
+        if (row > 0) {
+          builder.append('|');
+        }
+
+        for(int col = 0; col < rowLength; col++){
+          if (col > 0) {
+            builder.append(',');
+          }
+
+          int code = codes[row * rowLength + col];
+          if (code == Pieces.EMPTY) {
+            builder.append('~');
+          }
+          else {
+            builder.append(Pieces.unitType(Pieces.type(code)).shortName).append(Pieces.teamID(Pieces.team(code)));
+          }
+        }
+      }
+
+      text = builder.toString();
+      parsableString = text;
+    }
+    return text;
+  }
+}
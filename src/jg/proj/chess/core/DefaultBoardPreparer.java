@@ -165,7 +165,7 @@ public class DefaultBoardPreparer implements BoardPreparer{
     squares[7][4].placeUnit(teamArr[1].get(UnitType.QUEEN).get(0));
     teamArr[1].get(UnitType.QUEEN).get(0).updateSquare(squares[7][4]);
     
-    return new TeamInformation(teamArr[0], teamArr[1]);
+    return new TeamInformation(board, teamArr[0], teamArr[1]);
   }
 
 }
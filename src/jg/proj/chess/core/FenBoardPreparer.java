@@ -0,0 +1,22 @@
+package jg.proj.chess.core;
+
+import jg.proj.chess.core.bitboard.Fen;
+
+/**
+ * Prepares an 8 x 8 Board from a FEN record (see jg.proj.chess.core.bitboard.Fen),
+ * including whose turn it is.
+ *
+ * @author Jose
+ *
+ */
+public class FenBoardPreparer extends PositionBoardPreparer{
+
+  /**
+   * Constructs a FenBoardPreparer
+   * @param fen - the FEN record of the board to prepare
+   * @throws IllegalArgumentException if the record is malformed
+   */
+  public FenBoardPreparer(String fen){
+    super(Fen.parse(fen));
+  }
+}
@@ -0,0 +1,56 @@
+package jg.proj.chess.core;
+
+/**
+ * Describes whether a game can go on for the team whose turn it is
+ * @author Jose
+ *
+ */
+public enum GameOutcome {
+  
+  /**
+   * The team whose turn it is has at least one legal move
+   */
+  IN_PROGRESS,
+  
+  /**
+   * The team whose turn it is is in check and has no legal moves. They've lost
+   */
+  CHECKMATE,
+  
+  /**
+   * The team whose turn it is isn't in check, but has no legal moves. It's a draw
+   */
+  STALEMATE,
+  
+  /**
+   * The same position has come up for the third time, with the same team to move. It's a draw
+   */
+  REPETITION,
+  
+  /**
+   * Fifty moves have been made by each team without a capture or pawn move. It's a draw
+   */
+  FIFTY_MOVES,
+  
+  /**
+   * The team whose turn it is has lost some other way the game's rules 
+   * allow (ex: its King was taken, or a checkers team has no moves)
+   */
+  LOST;
+  
+  /**
+   * Returns whether this outcome ends the game
+   * @return true if this outcome ends the game, false if else
+   */
+  public boolean isFinal(){
+    return this != IN_PROGRESS;
+  }
+  
+  /**
+   * Returns whether this outcome is a loss for the team whose turn it is
+   * @return true if the team whose turn it is has lost, false if else
+   */
+  public boolean isLoss(){
+    return this == CHECKMATE || this == LOST;
+  }
+}
@@ -0,0 +1,93 @@
+package jg.proj.chess.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.units.Bishop;
+import jg.proj.chess.core.units.King;
+import jg.proj.chess.core.units.Knight;
+import jg.proj.chess.core.units.Pawn;
+import jg.proj.chess.core.units.Queen;
+import jg.proj.chess.core.units.Rook;
+import jg.proj.chess.core.units.Unit;
+import jg.proj.chess.core.units.Unit.UnitType;
+
+/**
+ * Prepares an 8 x 8 Board with the units of a bitboard Position,
+ * including whose turn it is and its halfmove clock.
+ *
+ * Combined with a codec (like jg.proj.chess.core.bitboard.PositionCodec), this
+ * prepares a Board from any stored or transferred position.
+ *
+ * @author Jose
+ *
+ */
+public class PositionBoardPreparer implements BoardPreparer{
+
+  private final Position position;
+
+  /**
+   * Constructs a PositionBoardPreparer
+   * @param position - the Position to copy units from. It isn't changed
+   */
+  public PositionBoardPreparer(Position position){
+    this.position = position;
+  }
+
+  @Override
+  public TeamInformation prepareBoard(Board board, int fileWidth, int rankWidth) {
+    if (fileWidth != Bitboards.FILES || rankWidth != Bitboards.RANKS) {
+      throw new IllegalArgumentException("A Position can only prepare an 8 x 8 board");
+    }
+
+    Square [][] squares = board.getSquares();
+    List<Map<UnitType, List<Unit>>> teams = new ArrayList<>();
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      Map<UnitType, List<Unit>> units = new HashMap<>();
+      for(UnitType type : UnitType.values()){
+        units.put(type, new ArrayList<>());
+      }
+      teams.add(units);
+    }
+
+    for(int file = 1; file <= fileWidth; file++){
+      for(char rank = 'A'; rank < 'A' + rankWidth; rank++){
+        Square square = new Square(file, rank, board);
+        squares[file - 1][rank - 'A'] = square;
+
+        int code = position.pieceAt(Bitboards.square(file, rank));
+        if (code != Pieces.EMPTY) {
+          Unit unit = createUnit(Pieces.unitType(Pieces.type(code)), Pieces.teamID(Pieces.team(code)), square);
+          teams.get(Pieces.team(code)).get(unit.getType()).add(unit);
+          square.placeUnit(unit);
+        }
+      }
+    }
+
+    board.setTurn(Pieces.teamID(position.getSideToMove()));
+    board.getPosition().setHalfmoveClock(position.getHalfmoveClock());
+    return new TeamInformation(board, teams.get(Pieces.TEAM_ONE), teams.get(Pieces.TEAM_TWO));
+  }
+
+  static Unit createUnit(UnitType type, int teamID, Square square){
+    switch (type) {
+    case KING:
+      return new King(teamID, square);
+    case QUEEN:
+      return new Queen(teamID, square);
+    case ROOK:
+      return new Rook(teamID, square);
+    case BISHOP:
+      return new Bishop(teamID, square);
+    case KNIGHT:
+      return new Knight(teamID, square);
+    default:
+      return new Pawn(teamID, square);
+    }
+  }
+}
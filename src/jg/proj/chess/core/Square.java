@@ -2,6 +2,7 @@ package jg.proj.chess.core;
 
 import java.util.Objects;
 
+import jg.proj.chess.core.units.ModUnit;
 import jg.proj.chess.core.units.Unit;
 
 public class Square {
@@ -9,6 +10,7 @@ public class Square {
   private final int file;
   private final char rank;
   private final Board hostBoard;
+  private final int index;
 
   private Unit attachedUnit;
 
@@ -16,9 +18,26 @@ public class Square {
     this.file = file;
     this.rank = Character.toUpperCase(rank);
     this.hostBoard = hostBoard;
+    this.index = hostBoard == null ? -1 : hostBoard.getGeometry().square(file, rank);
   }
 
   public void placeUnit(Unit unit){
+    if (unit instanceof ModUnit && hostBoard != null && hostBoard.getPosition() != null) {
+      throw new IllegalArgumentException("Mod units can't be placed on boards backed by a Position: "+unit);
+    }
+    attachedUnit = unit;
+    if (hostBoard != null) {
+      hostBoard.squareChanged(this);
+    }
+  }
+
+  /**
+   * Sets the unit of this Square without updating the host board's Position.
+   * 
+   * Used by a Board when it has already updated its Position
+   * @param unit - the Unit to attach
+   */
+  void attachUnit(Unit unit){
     attachedUnit = unit;
   }
 
@@ -39,41 +58,37 @@ public class Square {
   }
 
   public Square leftSquare(){
-    char newRank = (char) (rank - 1);  
-    
-    if ('A' <= newRank && newRank <= 'H') {
-      return hostBoard.getSquares()[file - 1][newRank - 'A'];
-    }
-    return null;
+    return neighbor(BoardGeometry.LEFT);
   }
 
   public Square rightSquare(){
-    char newRank = (char) (rank + 1);  
-    
-    if ('A' <= newRank && newRank <= 'H') {
-      return hostBoard.getSquares()[file - 1][newRank - 'A'];
-    }
-    return null;
+    return neighbor(BoardGeometry.RIGHT);
   }
 
   public Square upSquare(){
-    int newFile = file - 1;
-    
-    if (1 <= newFile && newFile <= 8) {
-      return hostBoard.getSquares()[newFile - 1][rank - 'A'];
-    }
-    
-    return null;
+    return neighbor(BoardGeometry.UP);
   }
 
   public Square downSquare(){
-    int newFile = file + 1;
-    
-    if (1 <= newFile && newFile <= 8) {
-      return hostBoard.getSquares()[newFile - 1][rank - 'A'];
-    }
-    
-    return null;
+    return neighbor(BoardGeometry.DOWN);
+  }
+  
+  /**
+   * Returns the neighbor of this Square in a direction
+   * @param direction - the direction (see BoardGeometry)
+   * @return the neighboring Square, or null if it's off the board
+   */
+  public Square neighbor(int direction){
+    int square = hostBoard.getGeometry().neighbor(index, direction);
+    return square < 0 ? null : hostBoard.squareAt(square);
+  }
+  
+  /**
+   * Returns the index of this Square on its host board (see BoardGeometry)
+   * @return the index of this Square, or -1 if it has no host board or is outside of it
+   */
+  public int getIndex(){
+    return index;
   }
 
   public int getFile() {
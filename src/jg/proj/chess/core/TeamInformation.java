@@ -1,16 +1,42 @@
 package jg.proj.chess.core;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import jg.proj.chess.core.bitboard.PieceList;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
 import jg.proj.chess.core.units.Unit;
 import jg.proj.chess.core.units.Unit.UnitType;
 
+/**
+ * The units of both teams of a Board.
+ *
+ * Each team's units are available as the maps they were prepared in. For boards
+ * backed by a Position, the King and unit counts are read from the Position's PieceList
+ * instead, which is updated in constant time as units move and are captured.
+ *
+ * @author Jose
+ *
+ */
 public class TeamInformation{
+  private final Board board;
   private Map<UnitType, List<Unit>> teamOne;
   private Map<UnitType, List<Unit>> teamTwo;
-  
+
   public TeamInformation(Map<UnitType, List<Unit>> teamOne, Map<UnitType, List<Unit>> teamTwo){
+    this(null, teamOne, teamTwo);
+  }
+
+  /**
+   * Constructs a TeamInformation
+   * @param board - the Board the units are placed on
+   * @param teamOne - the units of Team 1, by type
+   * @param teamTwo - the units of Team 2, by type
+   */
+  public TeamInformation(Board board, Map<UnitType, List<Unit>> teamOne, Map<UnitType, List<Unit>> teamTwo){
+    this.board = board;
     this.teamOne = teamOne;
     this.teamTwo = teamTwo;
   }
@@ -22,4 +48,65 @@ public class TeamInformation{
   public Map<UnitType, List<Unit>> getTeamTwo() {
     return teamTwo;
   }
-}
\ No newline at end of file
+
+  /**
+   * Returns the Square of a team's King
+   * @param teamID - the ID of the team (1 or 2)
+   * @return the Square of the team's King, or null if it has been captured
+   */
+  public Square getKingSquare(int teamID){
+    PieceList pieceList = getPieceList();
+    if (pieceList != null) {
+      int king = pieceList.kingSquare(Pieces.teamIndex(teamID));
+      return king < 0 ? null : board.squareAt(king);
+    }
+
+    for(Unit unit : unitsOf(teamID, UnitType.KING)){
+      if (unit.getCurrentSquare() != null) {
+        return unit.getCurrentSquare();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Checks if a team's King is still on the board
+   * @param teamID - the ID of the team (1 or 2)
+   * @return true if the team's King hasn't been captured, false if else
+   */
+  public boolean hasKing(int teamID){
+    return getKingSquare(teamID) != null;
+  }
+
+  /**
+   * Returns the amount of a team's units of the given type that are still on the board
+   * @param teamID - the ID of the team (1 or 2)
+   * @param type - the UnitType to count
+   * @return the amount of the team's units of the given type still on the board
+   */
+  public int unitCount(int teamID, UnitType type){
+    PieceList pieceList = getPieceList();
+    if (pieceList != null) {
+      return pieceList.count(Pieces.teamIndex(teamID), type.ordinal());
+    }
+
+    int count = 0;
+    for(Unit unit : unitsOf(teamID, type)){
+      if (unit.getCurrentSquare() != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private PieceList getPieceList(){
+    Position position = board == null ? null : board.getPosition();
+    return position == null ? null : position.getPieceList();
+  }
+
+  private List<Unit> unitsOf(int teamID, UnitType type){
+    Map<UnitType, List<Unit>> team = teamID == 1 ? teamOne : teamTwo;
+    List<Unit> units = team.get(type);
+    return units == null ? Collections.<Unit>emptyList() : units;
+  }
+}
@@ -0,0 +1,160 @@
+package jg.proj.chess.core.bitboard;
+
+import java.util.Arrays;
+
+/**
+ * How many units of each team attack each square of a Position.
+ *
+ * The counts are kept up to date by their Position on every change, rather than
+ * recomputed from every unit's attacks when asked. When a unit is placed or
+ * removed, only its own attacks and those of the sliders whose lines pass
+ * through its square change, so each change costs a few table lookups. Asking
+ * whether a team attacks a square is then a single array lookup.
+ *
+ * An AttackMap is kept up to date by its Position, and so can only be read
+ * from outside of this package.
+ *
+ * @author Jose
+ *
+ */
+public final class AttackMap {
+
+  /**
+   * Attacker counts indexed by team, then by square
+   */
+  private final byte [][] counts;
+
+  /**
+   * The squares each team attacks at least once, indexed by team
+   */
+  private final long [] attacked;
+
+  AttackMap(){
+    counts = new byte[Pieces.TEAM_COUNT][Bitboards.SQUARES];
+    attacked = new long[Pieces.TEAM_COUNT];
+  }
+
+  AttackMap(AttackMap other){
+    counts = new byte[Pieces.TEAM_COUNT][];
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      counts[team] = other.counts[team].clone();
+    }
+    attacked = other.attacked.clone();
+  }
+
+  /**
+   * Updates the counts for a unit placed on a square, which was empty
+   * @param position - the Position the unit is placed on, before its occupancy is updated
+   */
+  void placed(Position position, int code, int square){
+    long occupancy = position.occupancy();
+    long after = occupancy | Bitboards.bit(square);
+    reblock(position, square, occupancy, after);
+    add(Pieces.team(code), attacks(code, square, after));
+  }
+
+  /**
+   * Updates the counts for a unit removed from a square
+   * @param position - the Position the unit is removed from, before its occupancy is updated
+   */
+  void removed(Position position, int code, int square){
+    long occupancy = position.occupancy();
+    subtract(Pieces.team(code), attacks(code, square, occupancy));
+    reblock(position, square, occupancy, occupancy & ~Bitboards.bit(square));
+  }
+
+  void clear(){
+    for(byte [] teamCounts : counts){
+      Arrays.fill(teamCounts, (byte) 0);
+    }
+    Arrays.fill(attacked, 0L);
+  }
+
+  /**
+   * Returns how many of a team's units attack a square
+   * @param team - the index of the attacking team
+   * @param square - the square index
+   * @return the amount of the team's units attacking the square
+   */
+  public int count(int team, int square){
+    return counts[team][square];
+  }
+
+  /**
+   * Checks if a team attacks a square
+   * @param team - the index of the attacking team
+   * @param square - the square index
+   * @return true if at least one of the team's units attacks the square, false if else
+   */
+  public boolean isAttacked(int team, int square){
+    return counts[team][square] != 0;
+  }
+
+  /**
+   * Returns the squares a team attacks
+   * @param team - the index of the attacking team
+   * @return the bitboard of squares at least one of the team's units attacks
+   */
+  public long attacked(int team){
+    return attacked[team];
+  }
+
+  /**
+   * Updates the attacks of the sliders whose lines pass through a square whose occupancy changed
+   */
+  private void reblock(Position position, int square, long before, long after){
+    long rooks = position.piecesOf(Pieces.code(Pieces.TEAM_ONE, Pieces.ROOK)) | position.piecesOf(Pieces.code(Pieces.TEAM_TWO, Pieces.ROOK));
+    long bishops = position.piecesOf(Pieces.code(Pieces.TEAM_ONE, Pieces.BISHOP)) | position.piecesOf(Pieces.code(Pieces.TEAM_TWO, Pieces.BISHOP));
+    long queens = position.piecesOf(Pieces.code(Pieces.TEAM_ONE, Pieces.QUEEN)) | position.piecesOf(Pieces.code(Pieces.TEAM_TWO, Pieces.QUEEN));
+
+    long sliders = (Attacks.rook(square, before) & (rooks | queens)) | (Attacks.bishop(square, before) & (bishops | queens));
+    for(; sliders != 0; sliders = Bitboards.next(sliders)){
+      int slider = Bitboards.first(sliders);
+      int code = position.pieceAt(slider);
+      long old = attacks(code, slider, before);
+      long now = attacks(code, slider, after);
+      subtract(Pieces.team(code), old & ~now);
+      add(Pieces.team(code), now & ~old);
+    }
+  }
+
+  private void add(int team, long squares){
+    byte [] teamCounts = counts[team];
+    for(; squares != 0; squares = Bitboards.next(squares)){
+      int square = Bitboards.first(squares);
+      if (teamCounts[square]++ == 0) {
+        attacked[team] |= Bitboards.bit(square);
+      }
+    }
+  }
+
+  private void subtract(int team, long squares){
+    byte [] teamCounts = counts[team];
+    for(; squares != 0; squares = Bitboards.next(squares)){
+      int square = Bitboards.first(squares);
+      if (--teamCounts[square] == 0) {
+        attacked[team] &= ~Bitboards.bit(square);
+      }
+    }
+  }
+
+  /**
+   * Returns the squares a unit attacks
+   */
+  private static long attacks(int code, int square, long occupancy){
+    switch (Pieces.type(code)) {
+    case Pieces.KING:
+      return Attacks.king(square);
+    case Pieces.QUEEN:
+      return Attacks.queen(square, occupancy);
+    case Pieces.ROOK:
+      return Attacks.rook(square, occupancy);
+    case Pieces.BISHOP:
+      return Attacks.bishop(square, occupancy);
+    case Pieces.KNIGHT:
+      return Attacks.knight(square);
+    default:
+      return Attacks.pawn(Pieces.team(code), square);
+    }
+  }
+}
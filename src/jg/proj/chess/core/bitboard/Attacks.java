@@ -0,0 +1,289 @@
+package jg.proj.chess.core.bitboard;
+
+/**
+ * Precomputed attack tables for units.
+ *
+ * Kings, Knights and Pawns attack a fixed set of squares from each square,
+ * so their attack sets are looked up directly.
+ * 
+ * Sliding units (Rooks, Bishops and Queens) use magic bitboards: the relevant
+ * blockers of a square are multiplied by a magic number, and the top bits of the
+ * product index a table of precomputed attack sets. So, a slider's full attack
+ * set is a mask, a multiply, a shift and a table lookup - no matter how
+ * crowded the board is.
+ *
+ * The magic numbers below were found by a search over sparse random numbers 
+ * (the AND of three random longs) that map every blocker subset of a square 
+ * without a harmful collision. The attack tables are filled in when this 
+ * class is loaded.
+ *
+ * @author Jose
+ *
+ */
+public final class Attacks {
+
+  private static final int [][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+  private static final int [][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+  private static final int [][] KING_STEPS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+  private static final int [][] KNIGHT_STEPS = {{1, 2}, {1, -2}, {-1, 2}, {-1, -2}, {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+  
+  /**
+   * Pawn captures go towards higher files for Team 1 and lower files for Team 2
+   */
+  private static final int [][][] PAWN_STEPS = {{{1, 1}, {1, -1}}, {{-1, 1}, {-1, -1}}};
+
+  private static final long [] KING_TABLE = new long[Bitboards.SQUARES];
+  private static final long [] KNIGHT_TABLE = new long[Bitboards.SQUARES];
+  private static final long [][] PAWN_TABLE = new long[Pieces.TEAM_COUNT][Bitboards.SQUARES];
+
+  /**
+   * Squares strictly between two squares on the same line, and 
+   * the whole board line through two squares. Empty if the squares aren't on a line
+   */
+  private static final long [][] BETWEEN_TABLE = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+  private static final long [][] LINE_TABLE = new long[Bitboards.SQUARES][Bitboards.SQUARES];
+
+  private static final long [] ROOK_MASKS = new long[Bitboards.SQUARES];
+  private static final long [] ROOK_MAGICS = {
+    0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+    0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+    0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+    0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+    0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+    0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+    0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+    0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+    0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+    0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+    0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+    0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+    0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+    0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+    0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+    0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+  };
+  private static final int [] ROOK_SHIFTS = new int[Bitboards.SQUARES];
+  private static final int [] ROOK_OFFSETS = new int[Bitboards.SQUARES];
+  private static final long [] ROOK_TABLE;
+
+  private static final long [] BISHOP_MASKS = new long[Bitboards.SQUARES];
+  private static final long [] BISHOP_MAGICS = {
+    0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+    0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+    0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+    0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+    0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+    0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+    0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+    0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+    0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+    0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+    0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+    0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+    0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+    0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+    0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+    0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+  };
+  private static final int [] BISHOP_SHIFTS = new int[Bitboards.SQUARES];
+  private static final int [] BISHOP_OFFSETS = new int[Bitboards.SQUARES];
+  private static final long [] BISHOP_TABLE;
+
+  static {
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      KING_TABLE[square] = steps(square, KING_STEPS);
+      KNIGHT_TABLE[square] = steps(square, KNIGHT_STEPS);
+      PAWN_TABLE[Pieces.TEAM_ONE][square] = steps(square, PAWN_STEPS[Pieces.TEAM_ONE]);
+      PAWN_TABLE[Pieces.TEAM_TWO][square] = steps(square, PAWN_STEPS[Pieces.TEAM_TWO]);
+    }
+    
+    ROOK_TABLE = initMagics(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+    BISHOP_TABLE = initMagics(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    
+    for(int from = 0; from < Bitboards.SQUARES; from++){
+      for(int to = 0; to < Bitboards.SQUARES; to++){
+        long fromBit = Bitboards.bit(from), toBit = Bitboards.bit(to);
+        if (from != to && (rook(from, 0) & toBit) != 0) {
+          BETWEEN_TABLE[from][to] = rook(from, toBit) & rook(to, fromBit);
+          LINE_TABLE[from][to] = (rook(from, 0) & rook(to, 0)) | fromBit | toBit;
+        }
+        else if (from != to && (bishop(from, 0) & toBit) != 0) {
+          BETWEEN_TABLE[from][to] = bishop(from, toBit) & bishop(to, fromBit);
+          LINE_TABLE[from][to] = (bishop(from, 0) & bishop(to, 0)) | fromBit | toBit;
+        }
+      }
+    }
+  }
+
+  private Attacks(){}
+
+  /**
+   * Returns the squares a King on the given square attacks
+   * @param square - the square index of the King
+   * @return the bitboard of attacked squares
+   */
+  public static long king(int square){
+    return KING_TABLE[square];
+  }
+  
+  /**
+   * Returns the squares a Knight on the given square attacks
+   * @param square - the square index of the Knight
+   * @return the bitboard of attacked squares
+   */
+  public static long knight(int square){
+    return KNIGHT_TABLE[square];
+  }
+  
+  /**
+   * Returns the squares a Pawn on the given square attacks (diagonally)
+   * @param team - the team index of the Pawn
+   * @param square - the square index of the Pawn
+   * @return the bitboard of attacked squares
+   */
+  public static long pawn(int team, int square){
+    return PAWN_TABLE[team][square];
+  }
+
+  /**
+   * Returns the squares a Rook on the given square attacks
+   * @param square - the square index of the Rook
+   * @param occupancy - the bitboard of all units on the board
+   * @return the bitboard of attacked squares, including the first unit met on each direction
+   */
+  public static long rook(int square, long occupancy){
+    return ROOK_TABLE[ROOK_OFFSETS[square] + (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+  }
+
+  /**
+   * Returns the squares a Bishop on the given square attacks
+   * @param square - the square index of the Bishop
+   * @param occupancy - the bitboard of all units on the board
+   * @return the bitboard of attacked squares, including the first unit met on each direction
+   */
+  public static long bishop(int square, long occupancy){
+    return BISHOP_TABLE[BISHOP_OFFSETS[square] + (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+  }
+
+  /**
+   * Returns the squares a Queen on the given square attacks
+   * @param square - the square index of the Queen
+   * @param occupancy - the bitboard of all units on the board
+   * @return the bitboard of attacked squares, including the first unit met on each direction
+   */
+  public static long queen(int square, long occupancy){
+    return rook(square, occupancy) | bishop(square, occupancy);
+  }
+
+  /**
+   * Returns the squares strictly between two squares on the same file, rank or diagonal
+   * @param from - a square index
+   * @param to - another square index
+   * @return the squares between them, or an empty bitboard if they aren't on a line
+   */
+  public static long between(int from, int to){
+    return BETWEEN_TABLE[from][to];
+  }
+
+  /**
+   * Returns every square of the file, rank or diagonal passing through two squares
+   * @param from - a square index
+   * @param to - another square index
+   * @return the squares of the line through them, or an empty bitboard if they aren't on a line
+   */
+  public static long line(int from, int to){
+    return LINE_TABLE[from][to];
+  }
+
+  /**
+   * Fills in the attack table of every square using their magic numbers
+   * @return the attack table shared by all squares
+   */
+  private static long [] initMagics(int [][] directions, long [] masks, long [] magics, int [] shifts, int [] offsets){
+    //calculate masks and table offsets first
+    int tableSize = 0;
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      masks[square] = relevantBlockers(square, directions);
+      int bits = Bitboards.count(masks[square]);
+      shifts[square] = 64 - bits;
+      offsets[square] = tableSize;
+      tableSize += 1 << bits;
+    }
+
+    long [] table = new long[tableSize];
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      //enumerate every subset of the mask (Carry-Rippler)
+      long mask = masks[square];
+      long subset = 0;
+      do {
+        int index = (int) ((subset * magics[square]) >>> shifts[square]);
+        table[offsets[square] + index] = slidingAttacks(square, subset, directions);
+        subset = (subset - mask) & mask;
+      } while (subset != 0);
+    }
+
+    return table;
+  }
+
+  /**
+   * Calculates the squares reachable with a single step of the given offsets
+   */
+  private static long steps(int square, int [][] offsets){
+    long attacks = 0;
+    int row = square >>> 3, col = square & 7;
+    for(int [] offset : offsets){
+      if (inside(row + offset[0], col + offset[1])) {
+        attacks |= Bitboards.bit((row + offset[0]) * 8 + col + offset[1]);
+      }
+    }
+    return attacks;
+  }
+
+  /**
+   * Calculates the squares whose occupancy affects a slider's attacks from the given square.
+   *
+   * The last square of each direction is excluded as whatever is on it,
+   * it's always attacked.
+   */
+  private static long relevantBlockers(int square, int [][] directions){
+    long mask = 0;
+    int row = square >>> 3, col = square & 7;
+    for(int [] direction : directions){
+      int r = row + direction[0], c = col + direction[1];
+      while (inside(r + direction[0], c + direction[1])) {
+        mask |= Bitboards.bit(r * 8 + c);
+        r += direction[0];
+        c += direction[1];
+      }
+    }
+    return mask;
+  }
+
+  /**
+   * Calculates a slider's attacks by walking each direction one square at a time.
+   *
+   * Only used to fill in the attack tables
+   */
+  private static long slidingAttacks(int square, long occupancy, int [][] directions){
+    long attacks = 0;
+    int row = square >>> 3, col = square & 7;
+    for(int [] direction : directions){
+      int r = row + direction[0], c = col + direction[1];
+      while (inside(r, c)) {
+        long bit = Bitboards.bit(r * 8 + c);
+        attacks |= bit;
+        if ((occupancy & bit) != 0) {
+          break;
+        }
+        r += direction[0];
+        c += direction[1];
+      }
+    }
+    return attacks;
+  }
+
+  private static boolean inside(int row, int col){
+    return 0 <= row && row < Bitboards.FILES && 0 <= col && col < Bitboards.RANKS;
+  }
+}
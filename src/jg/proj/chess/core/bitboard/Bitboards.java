@@ -0,0 +1,112 @@
+package jg.proj.chess.core.bitboard;
+
+/**
+ * A collection of handy bitboard utility methods and constants.
+ * 
+ * A bitboard is a 64-bit long where each bit corresponds to a square
+ * on an 8 x 8 board. Squares are indexed from 0 to 63 where:
+ * 
+ *    index = (file - 1) * 8 + (rank - 'A')
+ *    
+ * So, 1A is bit 0, 1H is bit 7 and 8H is bit 63.
+ * 
+ * @author Jose
+ *
+ */
+public final class Bitboards {
+  
+  public static final int FILES = 8;
+  public static final int RANKS = 8;
+  public static final int SQUARES = FILES * RANKS;
+  
+  public static final long EMPTY = 0L;
+  public static final long ALL = ~0L;
+  
+  private Bitboards(){}
+  
+  /**
+   * Calculates the square index of the given file and rank
+   * @param file - the file of the square (1 to 8)
+   * @param rank - the rank of the square ('A' to 'H', case insensitive)
+   * @return the square index, or -1 if the file or rank is outside of the board
+   */
+  public static int square(int file, char rank){
+    int row = file - 1;
+    int col = Character.toUpperCase(rank) - 'A';
+    
+    if ((0 <= row && row < FILES) && (0 <= col && col < RANKS)) {
+      return row * RANKS + col;
+    }
+    return -1;
+  }
+  
+  /**
+   * Returns the file (1 to 8) of a square index
+   * @param square - the square index
+   * @return the file of the square index
+   */
+  public static int file(int square){
+    return (square >>> 3) + 1;
+  }
+  
+  /**
+   * Returns the rank ('A' to 'H') of a square index
+   * @param square - the square index
+   * @return the rank of the square index
+   */
+  public static char rank(int square){
+    return (char) ('A' + (square & 7));
+  }
+  
+  /**
+   * Returns the bitboard with only the given square set
+   * @param square - the square index
+   * @return the bitboard with only the given square set
+   */
+  public static long bit(int square){
+    return 1L << square;
+  }
+  
+  /**
+   * Checks if the given square is set on a bitboard
+   * @param bitboard - the bitboard to check
+   * @param square - the square index
+   * @return true if the square is set, false if else
+   */
+  public static boolean isSet(long bitboard, int square){
+    return (bitboard & (1L << square)) != 0;
+  }
+  
+  /**
+   * Returns the index of the lowest set square of a bitboard
+   * @param bitboard - the bitboard (must not be empty)
+   * @return the index of the lowest set square
+   */
+  public static int first(long bitboard){
+    return Long.numberOfTrailingZeros(bitboard);
+  }
+  
+  /**
+   * Returns the given bitboard with its lowest set square cleared.
+   * 
+   * Used to iterate over bitboards:
+   *   for(long bb = x; bb != 0; bb = Bitboards.next(bb)) {
+   *     int square = Bitboards.first(bb);
+   *   }
+   *   
+   * @param bitboard - the bitboard
+   * @return the bitboard with its lowest set square cleared
+   */
+  public static long next(long bitboard){
+    return bitboard & (bitboard - 1);
+  }
+  
+  /**
+   * Counts the number of squares set on a bitboard
+   * @param bitboard - the bitboard
+   * @return the number of squares set
+   */
+  public static int count(long bitboard){
+    return Long.bitCount(bitboard);
+  }
+}
@@ -0,0 +1,152 @@
+package jg.proj.chess.core.bitboard;
+
+/**
+ * Parses and emits Forsyth-Edwards Notation (FEN) records of a Position.
+ *
+ * The unit placement lists files 8 down to 1, separated by '/', with the ranks
+ * of each file from A to H. Digits stand for runs of empty squares, uppercase
+ * letters for Team 1's units and lowercase letters for Team 2's
+ * (K - King, Q - Queen, R - Rook, B - Bishop, N - Knight, P - Pawn).
+ * The side to move is "w" for Team 1 and "b" for Team 2.
+ *
+ * As there's no castling or en passant in this game, those fields are
+ * always emitted as "-", and ignored when parsed. The halfmove clock (plies since
+ * the last capture or pawn move, for the fifty-move rule) is emitted and parsed. The
+ * fullmove number isn't kept, so it's emitted as "1" and ignored when parsed. Only the
+ * unit placement is required when parsing; a record without a side to move has Team 1
+ * to move, and one without a halfmove clock has a clock of 0.
+ *
+ * The default board is "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w - - 0 1"
+ *
+ * @author Jose
+ *
+ */
+public final class Fen {
+
+  /**
+   * The FEN record of the default board (see DefaultBoardPreparer)
+   */
+  public static final String DEFAULT = "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w - - 0 1";
+
+  private static final String UNIT_LETTERS = "kqrbnp";
+
+  private Fen(){}
+
+  /**
+   * Creates a Position from a FEN record
+   * @param fen - the FEN record
+   * @return the Position described
+   * @throws IllegalArgumentException if the record is malformed
+   */
+  public static Position parse(String fen){
+    String [] fields = fen.trim().split("\\s+");
+    String [] files = fields[0].split("/");
+    if (files.length != Bitboards.FILES) {
+      throw new IllegalArgumentException("A FEN record needs "+Bitboards.FILES+" files: "+fen);
+    }
+
+    Position position = new Position();
+    if (fields.length > 1) {
+      if (fields[1].equals("b")) {
+        position.setSideToMove(Pieces.TEAM_TWO);
+      }
+      else if (!fields[1].equals("w")) {
+        throw new IllegalArgumentException("Bad side to move '"+fields[1]+"': "+fen);
+      }
+    }
+
+    for(int i = 0; i < files.length; i++){
+      int file = Bitboards.FILES - i;
+      char rank = 'A';
+      for(char c : files[i].toCharArray()){
+        if ('1' <= c && c <= '8') {
+          rank += c - '0';
+          continue;
+        }
+
+        int type = UNIT_LETTERS.indexOf(Character.toLowerCase(c));
+        int square = Bitboards.square(file, rank);
+        if (type < 0 || square < 0) {
+          throw new IllegalArgumentException("Bad unit placement at file "+file+": "+fen);
+        }
+
+        position.place(square, Character.isUpperCase(c) ? Pieces.TEAM_ONE : Pieces.TEAM_TWO, type);
+        rank++;
+      }
+
+      if (rank != 'A' + Bitboards.RANKS) {
+        throw new IllegalArgumentException("Bad unit placement at file "+file+": "+fen);
+      }
+    }
+
+    if (fields.length > 4) {
+      try {
+        position.setHalfmoveClock(Integer.parseInt(fields[4]));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException("Bad halfmove clock '"+fields[4]+"': "+fen);
+      }
+    }
+
+    return position;
+  }
+
+  /**
+   * Emits the FEN record of a Position
+   * @param position - the Position to describe
+   * @return the FEN record of the Position
+   */
+  public static String encode(Position position){
+    StringBuilder builder = new StringBuilder(90);
+
+    for(int file = Bitboards.FILES; file >= 1; file--){
+      int empty = 0;
+      for(char rank = 'A'; rank < 'A' + Bitboards.RANKS; rank++){
+        int code = position.pieceAt(Bitboards.square(file, rank));
+        if (code == Pieces.EMPTY) {
+          empty++;
+          continue;
+        }
+
+        if (empty > 0) {
+          builder.append(empty);
+          empty = 0;
+        }
+        builder.append(letter(code));
+      }
+
+      if (empty > 0) {
+        builder.append(empty);
+      }
+      if (file > 1) {
+        builder.append('/');
+      }
+    }
+
+    builder.append(position.getSideToMove() == Pieces.TEAM_ONE ? " w" : " b");
+    builder.append(" - - ").append(position.getHalfmoveClock()).append(" 1");
+    return builder.toString();
+  }
+
+  /**
+   * Returns the FEN letter of a piece code
+   * @param code - the piece code (not Pieces.EMPTY)
+   * @return the FEN letter of the piece code
+   */
+  public static char letter(int code){
+    char letter = UNIT_LETTERS.charAt(Pieces.type(code));
+    return Pieces.team(code) == Pieces.TEAM_ONE ? Character.toUpperCase(letter) : letter;
+  }
+
+  /**
+   * Returns the piece code of a FEN letter
+   * @param letter - the FEN letter (uppercase for Team 1, lowercase for Team 2)
+   * @return the piece code of the letter, or Pieces.EMPTY if it isn't a unit's letter
+   */
+  public static int code(char letter){
+    int type = UNIT_LETTERS.indexOf(Character.toLowerCase(letter));
+    if (type < 0) {
+      return Pieces.EMPTY;
+    }
+    return Pieces.code(Character.isUpperCase(letter) ? Pieces.TEAM_ONE : Pieces.TEAM_TWO, type);
+  }
+}
@@ -0,0 +1,82 @@
+package jg.proj.chess.core.bitboard;
+
+/**
+ * Helpers for int-encoded moves.
+ * 
+ * A move packs everything about a unit movement into a single int:
+ *  - bits 0 to 5   : the origin square index
+ *  - bits 6 to 11  : the destination square index
+ *  - bits 12 to 15 : flags (CAPTURE, DOUBLE_STEP)
+ *  - bits 16 to 19 : the piece code of the moving unit
+ *  - bits 20 to 23 : the piece code of the captured unit (Pieces.EMPTY if none)
+ *  
+ * As the origin and destination of a move are never the same, 
+ * no real move is ever encoded as NONE.
+ * 
+ * @author Jose
+ *
+ */
+public final class Move {
+  
+  public static final int NONE = 0;
+  
+  /**
+   * Set when the move captures an enemy unit
+   */
+  public static final int CAPTURE = 1;
+  
+  /**
+   * Set when a Pawn moves two squares forward
+   */
+  public static final int DOUBLE_STEP = 2;
+  
+  private Move(){}
+  
+  /**
+   * Encodes a move
+   * @param from - the origin square index
+   * @param to - the destination square index
+   * @param flags - the move's flags
+   * @param piece - the piece code of the moving unit
+   * @param captured - the piece code of the captured unit, or Pieces.EMPTY
+   * @return the encoded move
+   */
+  public static int encode(int from, int to, int flags, int piece, int captured){
+    return from | (to << 6) | (flags << 12) | (piece << 16) | (captured << 20);
+  }
+  
+  public static int from(int move){
+    return move & 0x3F;
+  }
+  
+  public static int to(int move){
+    return (move >>> 6) & 0x3F;
+  }
+  
+  public static int flags(int move){
+    return (move >>> 12) & 0xF;
+  }
+  
+  public static int piece(int move){
+    return (move >>> 16) & 0xF;
+  }
+  
+  public static int captured(int move){
+    return (move >>> 20) & 0xF;
+  }
+  
+  public static boolean isCapture(int move){
+    return (flags(move) & CAPTURE) != 0;
+  }
+  
+  /**
+   * Returns a string representation of a move, in the form 
+   * used by votes (ex: "2B>4B")
+   * @param move - the encoded move
+   * @return a string representation of the move
+   */
+  public static String toString(int move){
+    return Bitboards.file(from(move))+String.valueOf(Bitboards.rank(from(move)))+">"+
+           Bitboards.file(to(move))+String.valueOf(Bitboards.rank(to(move)));
+  }
+}
@@ -0,0 +1,410 @@
+package jg.proj.chess.core.bitboard;
+
+import jg.proj.chess.core.GameOutcome;
+
+/**
+ * Generates int-encoded moves (see Move) from a Position.
+ *
+ * Moves are written into a caller supplied MoveList, so generating
+ * moves allocates nothing.
+ *
+ * The moves generated here follow the same rules as the Unit classes:
+ *  - a unit may land on an empty square, or on a square with an enemy unit
+ *  - Pawns move one square forward, or two if they're still on their starting file
+ *  - Pawns only move diagonally (one square forward) to capture an enemy unit
+ *
+ * The generate() and destinations() methods are pseudo-legal: whether a move leaves 
+ * the moving team's King under attack isn't checked. The generateLegal() and 
+ * legalDestinations() methods only produce legal moves. Rather than trying each 
+ * move and testing for check, they restrict each unit's destinations using the
+ * opposing team's attack map, the units giving check and the units pinned to their King.
+ *
+ * @author Jose
+ *
+ */
+public final class MoveGenerator {
+
+  /**
+   * The file (as a row bitboard) Pawns of each team start on
+   */
+  private static final long [] PAWN_START = {0xFF00L, 0xFF000000000000L};
+
+  private MoveGenerator(){}
+
+  /**
+   * Generates the moves of every unit of the team whose turn it is
+   * @param position - the Position to generate moves from
+   * @param moves - the MoveList to append moves to
+   * @return the amount of moves appended
+   */
+  public static int generate(Position position, MoveList moves){
+    int start = moves.size();
+    int team = position.getSideToMove();
+    PieceList pieceList = position.getPieceList();
+
+    for(int type = 0; type < Pieces.TYPE_COUNT; type++){
+      int code = Pieces.code(team, type);
+      for(int i = 0; i < pieceList.count(code); i++){
+        generate(position, pieceList.square(code, i), moves);
+      }
+    }
+
+    return moves.size() - start;
+  }
+
+  /**
+   * Generates the moves of the unit on the given square
+   * @param position - the Position to generate moves from
+   * @param square - the square index of the unit
+   * @param moves - the MoveList to append moves to
+   * @return the amount of moves appended (0 if the square is empty)
+   */
+  public static int generate(Position position, int square, MoveList moves){
+    int piece = position.pieceAt(square);
+    if (piece == Pieces.EMPTY) {
+      return 0;
+    }
+
+    int start = moves.size();
+    addMoves(position, square, destinations(position, square), moves);
+    return moves.size() - start;
+  }
+
+  /**
+   * Encodes the movement of the unit on one square to another.
+   * 
+   * Whether the unit can actually make this move isn't checked.
+   * @param position - the Position the move is made on
+   * @param from - the origin square index (must have a unit)
+   * @param to - the destination square index
+   * @return the int-encoded move
+   */
+  public static int createMove(Position position, int from, int to){
+    int piece = position.pieceAt(from);
+    int captured = position.pieceAt(to);
+
+    int flags = captured != Pieces.EMPTY ? Move.CAPTURE : 0;
+    if (Pieces.type(piece) == Pieces.PAWN && (to - from == 16 || from - to == 16)) {
+      flags |= Move.DOUBLE_STEP;
+    }
+
+    return Move.encode(from, to, flags, piece, captured);
+  }
+
+  /**
+   * Calculates the squares the unit on the given square can land on
+   * @param position - the Position to check
+   * @param square - the square index of the unit
+   * @return the bitboard of squares the unit can land on (empty if the square is empty)
+   */
+  public static long destinations(Position position, int square){
+    int piece = position.pieceAt(square);
+    if (piece == Pieces.EMPTY) {
+      return Bitboards.EMPTY;
+    }
+
+    int team = Pieces.team(piece);
+    long own = position.occupancy(team);
+    long occupancy = position.occupancy();
+
+    switch (Pieces.type(piece)) {
+    case Pieces.KING:
+      return Attacks.king(square) & ~own;
+    case Pieces.QUEEN:
+      return Attacks.queen(square, occupancy) & ~own;
+    case Pieces.ROOK:
+      return Attacks.rook(square, occupancy) & ~own;
+    case Pieces.BISHOP:
+      return Attacks.bishop(square, occupancy) & ~own;
+    case Pieces.KNIGHT:
+      return Attacks.knight(square) & ~own;
+    default:
+      return pawnDestinations(position, team, square);
+    }
+  }
+
+  /**
+   * Generates the legal moves of every unit of the team whose turn it is
+   * @param position - the Position to generate moves from
+   * @param moves - the MoveList to append moves to
+   * @return the amount of moves appended
+   */
+  public static int generateLegal(Position position, MoveList moves){
+    int start = moves.size();
+    int team = position.getSideToMove();
+    int king = position.kingSquare(team);
+    
+    //Without a King, there's nothing to protect
+    if (king < 0) {
+      return generate(position, moves);
+    }
+    
+    long checkers = checkers(position, team, king);
+    
+    addMoves(position, king, kingDestinations(position, team, king, checkers), moves);
+    if (Bitboards.count(checkers) > 1) {
+      //only the King can escape a double check
+      return moves.size() - start;
+    }
+    
+    long evasions = evasionMask(king, checkers);
+    long pinned = pinnedUnits(position, team, king);
+    PieceList pieceList = position.getPieceList();
+    for(int type = Pieces.KING + 1; type < Pieces.TYPE_COUNT; type++){
+      int code = Pieces.code(team, type);
+      for(int i = 0; i < pieceList.count(code); i++){
+        int square = pieceList.square(code, i);
+        addMoves(position, square, restrict(position, king, square, evasions, pinned), moves);
+      }
+    }
+    
+    return moves.size() - start;
+  }
+  
+  /**
+   * Calculates the squares the unit on the given square can legally land on. 
+   * 
+   * Legality is checked for the unit's own team, regardless of whose turn it is.
+   * @param position - the Position to check
+   * @param square - the square index of the unit
+   * @return the bitboard of squares the unit can legally land on (empty if the square is empty)
+   */
+  public static long legalDestinations(Position position, int square){
+    int piece = position.pieceAt(square);
+    if (piece == Pieces.EMPTY) {
+      return Bitboards.EMPTY;
+    }
+    
+    int team = Pieces.team(piece);
+    int king = position.kingSquare(team);
+    if (king < 0) {
+      return destinations(position, square);
+    }
+    
+    long checkers = checkers(position, team, king);
+    if (king == square) {
+      return kingDestinations(position, team, king, checkers);
+    }
+    
+    if (Bitboards.count(checkers) > 1) {
+      return Bitboards.EMPTY;
+    }
+    return restrict(position, king, square, evasionMask(king, checkers), pinnedUnits(position, team, king));
+  }
+  
+  /**
+   * Checks if the team whose turn it is has at least one legal move. 
+   * 
+   * Stops at the first legal move found, and allocates nothing.
+   * @param position - the Position to check
+   * @return true if there's a legal move, false if else
+   */
+  public static boolean hasLegalMove(Position position){
+    int team = position.getSideToMove();
+    int king = position.kingSquare(team);
+    
+    if (king < 0) {
+      for(long units = position.occupancy(team); units != 0; units = Bitboards.next(units)){
+        if (destinations(position, Bitboards.first(units)) != 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    long checkers = checkers(position, team, king);
+    if (kingDestinations(position, team, king, checkers) != 0) {
+      return true;
+    }
+    
+    if (Bitboards.count(checkers) > 1) {
+      return false;
+    }
+    
+    long evasions = evasionMask(king, checkers);
+    long pinned = pinnedUnits(position, team, king);
+    for(long units = position.occupancy(team) & ~Bitboards.bit(king); units != 0; units = Bitboards.next(units)){
+      if (restrict(position, king, Bitboards.first(units), evasions, pinned) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /**
+   * Determines whether the team whose turn it is has been checkmated or stalemated, 
+   * or whether the game is drawn by threefold repetition or the fifty-move rule. 
+   * A checkmate on the fiftieth move still counts
+   * @param position - the Position to check
+   * @return the outcome of the Position for the team whose turn it is
+   */
+  public static GameOutcome outcome(Position position){
+    if (!hasLegalMove(position)) {
+      return isInCheck(position, position.getSideToMove()) ? GameOutcome.CHECKMATE : GameOutcome.STALEMATE;
+    }
+    if (position.getHalfmoveClock() >= Position.FIFTY_MOVE_PLIES) {
+      return GameOutcome.FIFTY_MOVES;
+    }
+    return position.repetitions() >= 2 ? GameOutcome.REPETITION : GameOutcome.IN_PROGRESS;
+  }
+  
+  /**
+   * Checks if a team's King is under attack. This is a lookup in the Position's AttackMap
+   * @param position - the Position to check
+   * @param team - the team index
+   * @return true if the team's King is under attack, false if else (or if the team has no King)
+   */
+  public static boolean isInCheck(Position position, int team){
+    int king = position.kingSquare(team);
+    return king >= 0 && position.isAttacked(king, Pieces.opponent(team));
+  }
+  
+  /**
+   * Finds the units of a team that attack a square
+   * @param position - the Position to check
+   * @param square - the square index being attacked
+   * @param team - the index of the attacking team
+   * @param occupancy - the bitboard of units that block sliding attacks
+   * @return the bitboard of the team's units attacking the square
+   */
+  public static long attackers(Position position, int square, int team, long occupancy){
+    long queens = position.pieces(team, Pieces.QUEEN);
+    return (Attacks.pawn(Pieces.opponent(team), square) & position.pieces(team, Pieces.PAWN)) |
+           (Attacks.knight(square) & position.pieces(team, Pieces.KNIGHT)) |
+           (Attacks.king(square) & position.pieces(team, Pieces.KING)) |
+           (Attacks.bishop(square, occupancy) & (position.pieces(team, Pieces.BISHOP) | queens)) |
+           (Attacks.rook(square, occupancy) & (position.pieces(team, Pieces.ROOK) | queens));
+  }
+  
+  /**
+   * Calculates the attack map of a team from scratch: every square at least one of its units 
+   * attacks. Positions keep their own up to date (see AttackMap); this is for other occupancies
+   * @param position - the Position to check
+   * @param team - the index of the attacking team
+   * @param occupancy - the bitboard of units that block sliding attacks
+   * @return the bitboard of squares the team attacks
+   */
+  public static long attackMap(Position position, int team, long occupancy){
+    long attacked = 0;
+    for(long units = position.pieces(team, Pieces.PAWN); units != 0; units = Bitboards.next(units)){
+      attacked |= Attacks.pawn(team, Bitboards.first(units));
+    }
+    for(long units = position.pieces(team, Pieces.KNIGHT); units != 0; units = Bitboards.next(units)){
+      attacked |= Attacks.knight(Bitboards.first(units));
+    }
+    for(long units = position.pieces(team, Pieces.KING); units != 0; units = Bitboards.next(units)){
+      attacked |= Attacks.king(Bitboards.first(units));
+    }
+    
+    long queens = position.pieces(team, Pieces.QUEEN);
+    for(long units = position.pieces(team, Pieces.BISHOP) | queens; units != 0; units = Bitboards.next(units)){
+      attacked |= Attacks.bishop(Bitboards.first(units), occupancy);
+    }
+    for(long units = position.pieces(team, Pieces.ROOK) | queens; units != 0; units = Bitboards.next(units)){
+      attacked |= Attacks.rook(Bitboards.first(units), occupancy);
+    }
+    return attacked;
+  }
+  
+  /**
+   * Finds the units of a team that can't leave the line between their King and an enemy slider
+   * @param position - the Position to check
+   * @param team - the team index
+   * @param king - the square index of the team's King
+   * @return the bitboard of the team's pinned units
+   */
+  public static long pinnedUnits(Position position, int team, int king){
+    int enemy = Pieces.opponent(team);
+    long enemyQueens = position.pieces(enemy, Pieces.QUEEN);
+    long snipers = (Attacks.rook(king, 0) & (position.pieces(enemy, Pieces.ROOK) | enemyQueens)) |
+                   (Attacks.bishop(king, 0) & (position.pieces(enemy, Pieces.BISHOP) | enemyQueens));
+    
+    long occupancy = position.occupancy();
+    long pinned = 0;
+    for(; snipers != 0; snipers = Bitboards.next(snipers)){
+      long blockers = Attacks.between(king, Bitboards.first(snipers)) & occupancy;
+      if (Bitboards.count(blockers) == 1) {
+        pinned |= blockers & position.occupancy(team);
+      }
+    }
+    return pinned;
+  }
+  
+  /**
+   * Finds the enemy units giving check to a team's King. The AttackMap tells
+   * if there are any, so they're only looked for when the King is in check
+   */
+  private static long checkers(Position position, int team, int king){
+    int enemy = Pieces.opponent(team);
+    return position.isAttacked(king, enemy) ? attackers(position, king, enemy, position.occupancy()) : 0;
+  }
+  
+  /**
+   * Calculates the squares a King can legally land on: its destinations that the 
+   * enemy doesn't attack, according to the Position's AttackMap. The King can't hide 
+   * behind itself from a slider giving check either, so the squares on the line 
+   * through the King and that slider - but the slider's own - are left out too.
+   */
+  private static long kingDestinations(Position position, int team, int king, long checkers){
+    int enemy = Pieces.opponent(team);
+    long targets = destinations(position, king) & ~position.getAttackMap().attacked(enemy);
+    
+    long sliders = checkers & (position.pieces(enemy, Pieces.ROOK) | position.pieces(enemy, Pieces.BISHOP) | 
+                               position.pieces(enemy, Pieces.QUEEN));
+    for(; sliders != 0; sliders = Bitboards.next(sliders)){
+      int slider = Bitboards.first(sliders);
+      targets &= ~(Attacks.line(king, slider) & ~Bitboards.bit(slider));
+    }
+    return targets;
+  }
+  
+  /**
+   * Calculates the squares a non-King unit must land on to deal with a check: 
+   * capturing the checking unit, or blocking it. Every square if there's no check.
+   */
+  private static long evasionMask(int king, long checkers){
+    if (checkers == 0) {
+      return Bitboards.ALL;
+    }
+    return checkers | Attacks.between(king, Bitboards.first(checkers));
+  }
+  
+  /**
+   * Restricts the destinations of a non-King unit to the given evasions, and to 
+   * the line through its King if it's pinned.
+   */
+  private static long restrict(Position position, int king, int square, long evasions, long pinned){
+    long targets = destinations(position, square) & evasions;
+    if (Bitboards.isSet(pinned, square)) {
+      targets &= Attacks.line(king, square);
+    }
+    return targets;
+  }
+  
+  /**
+   * Appends a move for every destination on the given bitboard
+   */
+  private static void addMoves(Position position, int from, long targets, MoveList moves){
+    for(; targets != 0; targets = Bitboards.next(targets)){
+      moves.add(createMove(position, from, Bitboards.first(targets)));
+    }
+  }
+
+  /**
+   * Calculates the squares a Pawn can land on.
+   */
+  private static long pawnDestinations(Position position, int team, int square){
+    long empty = ~position.occupancy();
+    long bit = Bitboards.bit(square);
+
+    //Team 1 moves towards higher files, Team 2 towards lower files
+    long step = team == Pieces.TEAM_ONE ? (bit << 8) & empty : (bit >>> 8) & empty;
+    long doubleStep = 0;
+    if (step != 0 && (bit & PAWN_START[team]) != 0) {
+      doubleStep = team == Pieces.TEAM_ONE ? (step << 8) & empty : (step >>> 8) & empty;
+    }
+
+    long captures = Attacks.pawn(team, square) & position.occupancy(Pieces.opponent(team));
+    return step | doubleStep | captures;
+  }
+}
@@ -0,0 +1,85 @@
+package jg.proj.chess.core.bitboard;
+
+/**
+ * A reusable buffer of int-encoded moves.
+ * 
+ * Move generation appends to a MoveList instead of allocating a new 
+ * collection per call. Callers are expected to keep a MoveList around 
+ * and clear() it between uses.
+ * 
+ * @author Jose
+ *
+ */
+public class MoveList {
+  
+  /**
+   * More than the amount of moves any position can have
+   */
+  public static final int DEFAULT_CAPACITY = 256;
+  
+  private final int [] moves;
+  private int size;
+  
+  public MoveList(){
+    this(DEFAULT_CAPACITY);
+  }
+  
+  public MoveList(int capacity){
+    moves = new int[capacity];
+  }
+  
+  public void add(int move){
+    moves[size++] = move;
+  }
+  
+  public int get(int index){
+    return moves[index];
+  }
+  
+  public void set(int index, int move){
+    moves[index] = move;
+  }
+  
+  public int size(){
+    return size;
+  }
+  
+  public boolean isEmpty(){
+    return size == 0;
+  }
+  
+  public void clear(){
+    size = 0;
+  }
+  
+  /**
+   * Shrinks this list to the given size, discarding any moves after it
+   * @param newSize - the size to shrink to
+   */
+  public void truncate(int newSize){
+    size = newSize;
+  }
+  
+  /**
+   * Checks if this list contains a move with the given origin and destination
+   * @param from - the origin square index
+   * @param to - the destination square index
+   * @return true if there's such a move, false if else
+   */
+  public boolean contains(int from, int to){
+    for(int i = 0; i < size; i++){
+      if (Move.from(moves[i]) == from && Move.to(moves[i]) == to) {
+        return true;
+      }
+    }
+    return false;
+  }
+  
+  /**
+   * Returns the underlying array of this list. Only the first size() entries are valid
+   * @return the underlying array of this list
+   */
+  public int [] array(){
+    return moves;
+  }
+}
@@ -0,0 +1,122 @@
+package jg.proj.chess.core.bitboard;
+
+import java.util.Arrays;
+
+/**
+ * The squares of every unit on a Position, listed by piece code.
+ *
+ * Each piece code (that is, each team and unit type) has a fixed array of
+ * square indexes and a count. A unit's slot in its array is tracked per square,
+ * so that adding and removing a unit are both constant time: a removed unit's
+ * slot is filled by the last unit of the same piece code.
+ *
+ * A PieceList is kept up to date by its Position, and so can only be read
+ * from outside of this package.
+ *
+ * @author Jose
+ *
+ */
+public final class PieceList {
+
+  /**
+   * Square indexes indexed by piece code, then by slot
+   */
+  private final byte [][] squares;
+
+  /**
+   * The amount of units of each piece code
+   */
+  private final int [] counts;
+
+  /**
+   * The slot of the unit on each square, in its piece code's array
+   */
+  private final byte [] slots;
+
+  PieceList(){
+    squares = new byte[Pieces.MAX_CODE + 1][Bitboards.SQUARES];
+    counts = new int[Pieces.MAX_CODE + 1];
+    slots = new byte[Bitboards.SQUARES];
+  }
+
+  PieceList(PieceList other){
+    squares = new byte[other.squares.length][];
+    for(int code = 0; code < squares.length; code++){
+      squares[code] = other.squares[code].clone();
+    }
+    counts = other.counts.clone();
+    slots = other.slots.clone();
+  }
+
+  void add(int code, int square){
+    int slot = counts[code]++;
+    squares[code][slot] = (byte) square;
+    slots[square] = (byte) slot;
+  }
+
+  void remove(int code, int square){
+    int last = --counts[code];
+    int slot = slots[square];
+
+    //move the last unit into the removed unit's slot
+    int lastSquare = squares[code][last];
+    squares[code][slot] = (byte) lastSquare;
+    slots[lastSquare] = (byte) slot;
+  }
+
+  void clear(){
+    Arrays.fill(counts, 0);
+  }
+
+  /**
+   * Returns the amount of units with the given piece code
+   * @param code - the piece code
+   * @return the amount of units with the piece code
+   */
+  public int count(int code){
+    return counts[code];
+  }
+
+  /**
+   * Returns the amount of a team's units of the given type
+   * @param team - the team index
+   * @param type - the unit type
+   * @return the amount of the team's units of the given type
+   */
+  public int count(int team, int type){
+    return counts[Pieces.code(team, type)];
+  }
+
+  /**
+   * Returns the square of a unit with the given piece code
+   * @param code - the piece code
+   * @param index - the index of the unit, from 0 to count(code) - 1
+   * @return the square index of the unit
+   */
+  public int square(int code, int index){
+    return squares[code][index];
+  }
+
+  /**
+   * Returns the square of a team's King
+   * @param team - the team index
+   * @return the square index of the team's King, or -1 if it has none
+   */
+  public int kingSquare(int team){
+    int code = Pieces.code(team, Pieces.KING);
+    return counts[code] == 0 ? -1 : squares[code][0];
+  }
+
+  /**
+   * Returns the amount of units a team has
+   * @param team - the team index
+   * @return the amount of units the team has
+   */
+  public int unitCount(int team){
+    int total = 0;
+    for(int type = 0; type < Pieces.TYPE_COUNT; type++){
+      total += counts[Pieces.code(team, type)];
+    }
+    return total;
+  }
+}
@@ -0,0 +1,190 @@
+package jg.proj.chess.core.bitboard;
+
+/**
+ * Material values and piece-square tables, for evaluating Positions.
+ *
+ * A unit is worth its material value plus a bonus (or penalty) for the square it
+ * stands on. Bonuses are given twice: once for the middlegame and once for the
+ * endgame - where, for example, a King is better off in the center than behind
+ * its pawns. An evaluation blends the two by the game phase: the weighted amount
+ * of Knights, Bishops, Rooks and Queens still on the board.
+ *
+ * Like its Zobrist hash, a Position keeps the sum of these values for each team
+ * and updates them whenever a unit is placed or removed, so evaluating
+ * them never needs a scan of the board.
+ *
+ * Tables are written from Team 1's view, with the files Team 1 advances towards
+ * at the top, and are mirrored for Team 2. As units don't promote, pawns gain
+ * little from advancing all the way.
+ *
+ * @author Jose
+ *
+ */
+public final class PieceSquareTables {
+
+  /**
+   * Material values in centipawns, by unit type (see Pieces). Kings are never traded, so they're worth nothing
+   */
+  private static final int [] VALUES = {0, 900, 500, 330, 320, 100};
+
+  /**
+   * Weight of each unit type in the game phase, by unit type
+   */
+  private static final int [] PHASE_WEIGHTS = {0, 4, 2, 1, 1, 0};
+
+  /**
+   * The game phase of a full board: the phase falls towards 0 as units are captured
+   */
+  public static final int MAX_PHASE = 24;
+
+  private static final int [] KING_MIDDLEGAME = {
+    -30,-40,-40,-50,-50,-40,-40,-30,
+    -30,-40,-40,-50,-50,-40,-40,-30,
+    -30,-40,-40,-50,-50,-40,-40,-30,
+    -30,-40,-40,-50,-50,-40,-40,-30,
+    -20,-30,-30,-40,-40,-30,-30,-20,
+    -10,-20,-20,-20,-20,-20,-20,-10,
+     20, 20,  0,  0,  0,  0, 20, 20,
+     20, 30, 10,  0,  0, 10, 30, 20
+  };
+
+  private static final int [] KING_ENDGAME = {
+    -50,-40,-30,-20,-20,-30,-40,-50,
+    -30,-20,-10,  0,  0,-10,-20,-30,
+    -30,-10, 20, 30, 30, 20,-10,-30,
+    -30,-10, 30, 40, 40, 30,-10,-30,
+    -30,-10, 30, 40, 40, 30,-10,-30,
+    -30,-10, 20, 30, 30, 20,-10,-30,
+    -30,-30,  0,  0,  0,  0,-30,-30,
+    -50,-30,-30,-30,-30,-30,-30,-50
+  };
+
+  private static final int [] QUEEN = {
+    -20,-10,-10, -5, -5,-10,-10,-20,
+    -10,  0,  0,  0,  0,  0,  0,-10,
+    -10,  0,  5,  5,  5,  5,  0,-10,
+     -5,  0,  5,  5,  5,  5,  0, -5,
+     -5,  0,  5,  5,  5,  5,  0, -5,
+    -10,  0,  5,  5,  5,  5,  0,-10,
+    -10,  0,  0,  0,  0,  0,  0,-10,
+    -20,-10,-10, -5, -5,-10,-10,-20
+  };
+
+  private static final int [] ROOK = {
+      0,  0,  0,  0,  0,  0,  0,  0,
+      5, 10, 10, 10, 10, 10, 10,  5,
+     -5,  0,  0,  0,  0,  0,  0, -5,
+     -5,  0,  0,  0,  0,  0,  0, -5,
+     -5,  0,  0,  0,  0,  0,  0, -5,
+     -5,  0,  0,  0,  0,  0,  0, -5,
+     -5,  0,  0,  0,  0,  0,  0, -5,
+      0,  0,  0,  5,  5,  0,  0,  0
+  };
+
+  private static final int [] BISHOP = {
+    -20,-10,-10,-10,-10,-10,-10,-20,
+    -10,  0,  0,  0,  0,  0,  0,-10,
+    -10,  0,  5, 10, 10,  5,  0,-10,
+    -10,  5,  5, 10, 10,  5,  5,-10,
+    -10,  0, 10, 10, 10, 10,  0,-10,
+    -10, 10, 10, 10, 10, 10, 10,-10,
+    -10,  5,  0,  0,  0,  0,  5,-10,
+    -20,-10,-10,-10,-10,-10,-10,-20
+  };
+
+  private static final int [] KNIGHT = {
+    -50,-40,-30,-30,-30,-30,-40,-50,
+    -40,-20,  0,  0,  0,  0,-20,-40,
+    -30,  0, 10, 15, 15, 10,  0,-30,
+    -30,  5, 15, 20, 20, 15,  5,-30,
+    -30,  0, 15, 20, 20, 15,  0,-30,
+    -30,  5, 10, 15, 15, 10,  5,-30,
+    -40,-20,  0,  5,  5,  0,-20,-40,
+    -50,-40,-30,-30,-30,-30,-40,-50
+  };
+
+  private static final int [] PAWN_MIDDLEGAME = {
+      0,  0,  0,  0,  0,  0,  0,  0,
+     20, 20, 20, 20, 20, 20, 20, 20,
+     10, 10, 20, 30, 30, 20, 10, 10,
+      5,  5, 10, 25, 25, 10,  5,  5,
+      0,  0,  0, 20, 20,  0,  0,  0,
+      5, -5,-10,  0,  0,-10, -5,  5,
+      5, 10, 10,-20,-20, 10, 10,  5,
+      0,  0,  0,  0,  0,  0,  0,  0
+  };
+
+  private static final int [] PAWN_ENDGAME = {
+      0,  0,  0,  0,  0,  0,  0,  0,
+     10, 10, 10, 10, 10, 10, 10, 10,
+     10, 10, 10, 10, 10, 10, 10, 10,
+      5,  5,  5,  5,  5,  5,  5,  5,
+      0,  0,  0,  0,  0,  0,  0,  0,
+      0,  0,  0,  0,  0,  0,  0,  0,
+      0,  0,  0,  0,  0,  0,  0,  0,
+      0,  0,  0,  0,  0,  0,  0,  0
+  };
+
+  /**
+   * Material plus square bonus, indexed by piece code, then square
+   */
+  private static final int [][] MIDDLEGAME = new int[Pieces.MAX_CODE + 1][Bitboards.SQUARES];
+  private static final int [][] ENDGAME = new int[Pieces.MAX_CODE + 1][Bitboards.SQUARES];
+
+  static {
+    int [][] middlegame = {KING_MIDDLEGAME, QUEEN, ROOK, BISHOP, KNIGHT, PAWN_MIDDLEGAME};
+    int [][] endgame = {KING_ENDGAME, QUEEN, ROOK, BISHOP, KNIGHT, PAWN_ENDGAME};
+
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      for(int type = 0; type < Pieces.TYPE_COUNT; type++){
+        int code = Pieces.code(team, type);
+        for(int square = 0; square < Bitboards.SQUARES; square++){
+          //the top row of a table is file 8 for Team 1, and file 1 for Team 2
+          int entry = team == Pieces.TEAM_ONE ? square ^ 56 : square;
+          MIDDLEGAME[code][square] = VALUES[type] + middlegame[type][entry];
+          ENDGAME[code][square] = VALUES[type] + endgame[type][entry];
+        }
+      }
+    }
+  }
+
+  private PieceSquareTables(){}
+
+  /**
+   * Returns the middlegame value of a unit on a square
+   * @param code - the piece code of the unit
+   * @param square - the square index
+   * @return the unit's material value plus its middlegame bonus for the square
+   */
+  public static int middlegame(int code, int square){
+    return MIDDLEGAME[code][square];
+  }
+
+  /**
+   * Returns the endgame value of a unit on a square
+   * @param code - the piece code of the unit
+   * @param square - the square index
+   * @return the unit's material value plus its endgame bonus for the square
+   */
+  public static int endgame(int code, int square){
+    return ENDGAME[code][square];
+  }
+
+  /**
+   * Returns the material value of a unit type
+   * @param type - the unit type
+   * @return the material value of the unit type, in centipawns
+   */
+  public static int value(int type){
+    return VALUES[type];
+  }
+
+  /**
+   * Returns how much a unit type weighs in the game phase
+   * @param type - the unit type
+   * @return the weight of the unit type in the game phase
+   */
+  public static int phaseWeight(int type){
+    return PHASE_WEIGHTS[type];
+  }
+}
@@ -0,0 +1,110 @@
+package jg.proj.chess.core.bitboard;
+
+import jg.proj.chess.core.units.Unit.UnitType;
+
+/**
+ * Primitive constants and helpers for describing teams and units
+ * without going through Unit objects.
+ * 
+ * Teams are described by a team index (0 for Team 1, 1 for Team 2) and 
+ * unit types by the ordinal of their UnitType. 
+ * 
+ * A piece code packs both into a single value between 1 and 12 (inclusive), 
+ * where 0 denotes an empty square. 
+ * 
+ * @author Jose
+ *
+ */
+public final class Pieces {
+  
+  public static final int TEAM_ONE = 0;
+  public static final int TEAM_TWO = 1;
+  public static final int TEAM_COUNT = 2;
+  
+  //unit types. These match the ordinals of UnitType
+  public static final int KING = 0;
+  public static final int QUEEN = 1;
+  public static final int ROOK = 2;
+  public static final int BISHOP = 3;
+  public static final int KNIGHT = 4;
+  public static final int PAWN = 5;
+  public static final int TYPE_COUNT = 6;
+  
+  /**
+   * The piece code of an empty square
+   */
+  public static final int EMPTY = 0;
+  
+  /**
+   * The largest possible piece code
+   */
+  public static final int MAX_CODE = TEAM_COUNT * TYPE_COUNT;
+  
+  private static final UnitType [] TYPES = UnitType.values();
+  
+  private Pieces(){}
+  
+  /**
+   * Creates a piece code for the given team and unit type
+   * @param team - the team index (0 or 1)
+   * @param type - the unit type (ordinal of UnitType)
+   * @return the piece code
+   */
+  public static int code(int team, int type){
+    return team * TYPE_COUNT + type + 1;
+  }
+  
+  /**
+   * Retrieves the team index of a piece code
+   * @param code - the piece code (must not be EMPTY)
+   * @return the team index of the piece code
+   */
+  public static int team(int code){
+    return (code - 1) / TYPE_COUNT;
+  }
+  
+  /**
+   * Retrieves the unit type of a piece code
+   * @param code - the piece code (must not be EMPTY)
+   * @return the unit type of the piece code
+   */
+  public static int type(int code){
+    return (code - 1) % TYPE_COUNT;
+  }
+  
+  /**
+   * Converts a team ID (as used by Unit) to a team index
+   * @param teamID - the team ID (1 or 2)
+   * @return the team index
+   */
+  public static int teamIndex(int teamID){
+    return teamID - 1;
+  }
+  
+  /**
+   * Converts a team index to a team ID (as used by Unit)
+   * @param team - the team index (0 or 1)
+   * @return the team ID
+   */
+  public static int teamID(int team){
+    return team + 1;
+  }
+  
+  /**
+   * Returns the index of the opposing team
+   * @param team - the team index (0 or 1)
+   * @return the index of the opposing team
+   */
+  public static int opponent(int team){
+    return team ^ 1;
+  }
+  
+  /**
+   * Converts a unit type to its UnitType description
+   * @param type - the unit type (ordinal of UnitType)
+   * @return the corresponding UnitType
+   */
+  public static UnitType unitType(int type){
+    return TYPES[type];
+  }
+}
@@ -0,0 +1,504 @@
+package jg.proj.chess.core.bitboard;
+
+import java.util.Arrays;
+
+/**
+ * A primitive, bitboard-based representation of the units on an 8 x 8 board.
+ *
+ * Unit placement is stored as a set of 64-bit occupancy bitboards - one per
+ * unit type and team - alongside a byte-per-square mailbox of piece codes
+ * for constant time lookups of a single square.
+ *
+ * See Bitboards for how squares are indexed, and Pieces for how teams,
+ * unit types and piece codes are described.
+ *
+ * @author Jose
+ *
+ */
+public class Position {
+  
+  private static final int INITIAL_UNDO_CAPACITY = 128;
+  
+  /**
+   * Plies without a capture or pawn move after which the game is drawn (the fifty-move rule)
+   */
+  public static final int FIFTY_MOVE_PLIES = 100;
+  
+  /**
+   * Hashes kept for detecting repetitions. A power of two, and more than FIFTY_MOVE_PLIES
+   */
+  private static final int HISTORY_SIZE = 128;
+
+  /**
+   * Bitboards indexed by piece code. Index 0 (Pieces.EMPTY) is unused
+   */
+  private final long [] pieces;
+
+  /**
+   * Occupancy bitboards indexed by team
+   */
+  private final long [] teams;
+
+  /**
+   * Piece codes indexed by square
+   */
+  private final byte [] mailbox;
+  
+  /**
+   * The squares of each team's units, listed by piece code
+   */
+  private final PieceList pieceList;
+  
+  /**
+   * How many units of each team attack each square
+   */
+  private final AttackMap attackMap;
+
+  private int sideToMove;
+  
+  /**
+   * The Zobrist hash of this Position, updated on every change
+   */
+  private long hash;
+  
+  /**
+   * Evaluation terms (see PieceSquareTables), updated on every change: 
+   * each team's material, and material plus square bonuses for the middlegame 
+   * and the endgame. Indexed by team
+   */
+  private final int [] material;
+  private final int [] middlegame;
+  private final int [] endgame;
+  
+  /**
+   * The game phase: the weighted amount of Knights, Bishops, Rooks and Queens on this Position
+   */
+  private int phase;
+  
+  /**
+   * Plies made since the last capture or pawn move. Positions from before 
+   * then can't come up again, so repetitions are only looked for among these
+   */
+  private int halfmoveClock;
+  
+  /**
+   * A ring of the hashes of the last HISTORY_SIZE positions moves were made from, indexed by undo stack size
+   */
+  private final long [] history;
+
+  /**
+   * The undo stack. For each move made, the move itself and the 
+   * state it replaced (the side to move, and the halfmove clock) are recorded.
+   */
+  private int [] undoMoves;
+  private int [] undoStates;
+  private int undoSize;
+
+  /**
+   * Constructs an empty Position, with Team 1 to move
+   */
+  public Position(){
+    pieces = new long[Pieces.MAX_CODE + 1];
+    teams = new long[Pieces.TEAM_COUNT];
+    mailbox = new byte[Bitboards.SQUARES];
+    pieceList = new PieceList();
+    attackMap = new AttackMap();
+    material = new int[Pieces.TEAM_COUNT];
+    middlegame = new int[Pieces.TEAM_COUNT];
+    endgame = new int[Pieces.TEAM_COUNT];
+    sideToMove = Pieces.TEAM_ONE;
+    undoMoves = new int[INITIAL_UNDO_CAPACITY];
+    undoStates = new int[INITIAL_UNDO_CAPACITY];
+    history = new long[HISTORY_SIZE];
+  }
+
+  /**
+   * Constructs a Position that's a copy of the given Position
+   * @param other - the Position to copy
+   */
+  public Position(Position other){
+    pieces = other.pieces.clone();
+    teams = other.teams.clone();
+    mailbox = other.mailbox.clone();
+    pieceList = new PieceList(other.pieceList);
+    attackMap = new AttackMap(other.attackMap);
+    sideToMove = other.sideToMove;
+    hash = other.hash;
+    material = other.material.clone();
+    middlegame = other.middlegame.clone();
+    endgame = other.endgame.clone();
+    phase = other.phase;
+    undoMoves = other.undoMoves.clone();
+    undoStates = other.undoStates.clone();
+    undoSize = other.undoSize;
+    halfmoveClock = other.halfmoveClock;
+    history = other.history.clone();
+  }
+  
+  /**
+   * Makes a move, recording it so that it can be taken back by unmakeMove().
+   * 
+   * The move isn't checked for legality. After the move, it's the turn 
+   * of the moving unit's opposing team.
+   * @param move - the int-encoded move (see Move)
+   */
+  public void makeMove(int move){
+    if (undoSize == undoMoves.length) {
+      undoMoves = Arrays.copyOf(undoMoves, undoSize * 2);
+      undoStates = Arrays.copyOf(undoStates, undoSize * 2);
+    }
+    undoMoves[undoSize] = move;
+    undoStates[undoSize] = sideToMove | (halfmoveClock << 1);
+    history[undoSize & (HISTORY_SIZE - 1)] = hash;
+    undoSize++;
+    
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int piece = Move.piece(move);
+    
+    //captures and pawn moves can't be taken back in a game
+    halfmoveClock = Move.isCapture(move) || Pieces.type(piece) == Pieces.PAWN ? 0 : halfmoveClock + 1;
+    remove(from);
+    place(to, Pieces.team(piece), Pieces.type(piece));
+    setSideToMove(Pieces.opponent(Pieces.team(piece)));
+  }
+  
+  /**
+   * Takes back the last move made by makeMove()
+   * @return the move taken back
+   * @throws IllegalStateException if there are no moves to take back
+   */
+  public int unmakeMove(){
+    if (undoSize == 0) {
+      throw new IllegalStateException("There are no moves to take back");
+    }
+    
+    undoSize--;
+    int move = undoMoves[undoSize];
+    setSideToMove(undoStates[undoSize] & 1);
+    halfmoveClock = undoStates[undoSize] >>> 1;
+    
+    int from = Move.from(move);
+    int to = Move.to(move);
+    int piece = Move.piece(move);
+    int captured = Move.captured(move);
+    
+    remove(to);
+    if (captured != Pieces.EMPTY) {
+      place(to, Pieces.team(captured), Pieces.type(captured));
+    }
+    place(from, Pieces.team(piece), Pieces.type(piece));
+    return move;
+  }
+  
+  /**
+   * Returns the amount of moves that can be taken back
+   * @return the amount of moves that can be taken back
+   */
+  public int undoCount(){
+    return undoSize;
+  }
+  
+  /**
+   * Returns the amount of plies made since the last capture or pawn move
+   * @return the amount of plies made since the last capture or pawn move
+   */
+  public int getHalfmoveClock(){
+    return halfmoveClock;
+  }
+  
+  /**
+   * Sets the amount of plies made since the last capture or pawn move, as when
+   * a game in progress is loaded (see Fen)
+   * @param halfmoveClock - the amount of plies made since the last capture or pawn move
+   * @throws IllegalArgumentException if the amount is negative
+   */
+  public void setHalfmoveClock(int halfmoveClock){
+    if (halfmoveClock < 0) {
+      throw new IllegalArgumentException("The halfmove clock can't be negative: "+halfmoveClock);
+    }
+    this.halfmoveClock = halfmoveClock;
+  }
+  
+  /**
+   * Counts how many times this Position came up before, since the last capture or pawn move. 
+   * Only Positions that moves were made from through makeMove() count
+   * @return how many times this Position came up before (2 for a threefold repetition)
+   */
+  public int repetitions(){
+    int count = 0;
+    int reach = Math.min(Math.min(halfmoveClock, undoSize), HISTORY_SIZE);
+    //turns may be passed, so the side to move isn't always the same every other ply
+    for(int ply = 1; ply <= reach; ply++){
+      if (history[(undoSize - ply) & (HISTORY_SIZE - 1)] == hash) {
+        count++;
+      }
+    }
+    return count;
+  }
+  
+  /**
+   * Returns the last move made by makeMove()
+   * @return the last move made, or Move.NONE if there's none
+   */
+  public int lastMove(){
+    return undoSize == 0 ? Move.NONE : undoMoves[undoSize - 1];
+  }
+
+  /**
+   * Places a unit on a square, replacing whatever unit is on it
+   * @param square - the square index
+   * @param team - the team index of the unit
+   * @param type - the unit type
+   */
+  public void place(int square, int team, int type){
+    remove(square);
+
+    int code = Pieces.code(team, type);
+    attackMap.placed(this, code, square);
+    long bit = Bitboards.bit(square);
+    pieces[code] |= bit;
+    teams[team] |= bit;
+    mailbox[square] = (byte) code;
+    pieceList.add(code, square);
+    hash ^= Zobrist.piece(code, square);
+    
+    material[team] += PieceSquareTables.value(type);
+    middlegame[team] += PieceSquareTables.middlegame(code, square);
+    endgame[team] += PieceSquareTables.endgame(code, square);
+    phase += PieceSquareTables.phaseWeight(type);
+  }
+
+  /**
+   * Removes the unit on a square, if there's any
+   * @param square - the square index
+   * @return the piece code of the removed unit, or Pieces.EMPTY if the square was empty
+   */
+  public int remove(int square){
+    int code = mailbox[square];
+    if (code != Pieces.EMPTY) {
+      attackMap.removed(this, code, square);
+      long bit = Bitboards.bit(square);
+      pieces[code] &= ~bit;
+      teams[Pieces.team(code)] &= ~bit;
+      mailbox[square] = Pieces.EMPTY;
+      pieceList.remove(code, square);
+      hash ^= Zobrist.piece(code, square);
+      
+      int team = Pieces.team(code);
+      int type = Pieces.type(code);
+      material[team] -= PieceSquareTables.value(type);
+      middlegame[team] -= PieceSquareTables.middlegame(code, square);
+      endgame[team] -= PieceSquareTables.endgame(code, square);
+      phase -= PieceSquareTables.phaseWeight(type);
+    }
+    return code;
+  }
+
+  /**
+   * Removes all units from this Position, as well as any moves to take back
+   */
+  public void clear(){
+    Arrays.fill(pieces, 0L);
+    Arrays.fill(teams, 0L);
+    Arrays.fill(mailbox, (byte) Pieces.EMPTY);
+    pieceList.clear();
+    attackMap.clear();
+    Arrays.fill(material, 0);
+    Arrays.fill(middlegame, 0);
+    Arrays.fill(endgame, 0);
+    phase = 0;
+    hash = sideToMove == Pieces.TEAM_TWO ? Zobrist.SIDE : 0;
+    undoSize = 0;
+    halfmoveClock = 0;
+  }
+
+  /**
+   * Returns the piece code of the unit on a square
+   * @param square - the square index
+   * @return the piece code of the unit on the square, or Pieces.EMPTY if there's none
+   */
+  public int pieceAt(int square){
+    return mailbox[square];
+  }
+
+  /**
+   * Returns the team index of the unit on a square
+   * @param square - the square index
+   * @return the team index of the unit on the square, or -1 if there's none
+   */
+  public int teamAt(int square){
+    int code = mailbox[square];
+    return code == Pieces.EMPTY ? -1 : Pieces.team(code);
+  }
+
+  /**
+   * Returns the unit type of the unit on a square
+   * @param square - the square index
+   * @return the unit type of the unit on the square, or -1 if there's none
+   */
+  public int typeAt(int square){
+    int code = mailbox[square];
+    return code == Pieces.EMPTY ? -1 : Pieces.type(code);
+  }
+
+  /**
+   * Checks if a square has no unit on it
+   * @param square - the square index
+   * @return true if the square is empty, false if else
+   */
+  public boolean isEmpty(int square){
+    return mailbox[square] == Pieces.EMPTY;
+  }
+
+  /**
+   * Returns the bitboard of a team's units of the given type
+   * @param team - the team index
+   * @param type - the unit type
+   * @return the bitboard of the team's units of the given type
+   */
+  public long pieces(int team, int type){
+    return pieces[Pieces.code(team, type)];
+  }
+
+  /**
+   * Returns the bitboard of units with the given piece code
+   * @param code - the piece code
+   * @return the bitboard of units with the given piece code
+   */
+  public long piecesOf(int code){
+    return pieces[code];
+  }
+
+  /**
+   * Returns the squares of every unit on this Position, listed by piece code
+   * @return the PieceList of this Position
+   */
+  public PieceList getPieceList(){
+    return pieceList;
+  }
+  
+  /**
+   * Returns how many units of each team attack each square of this Position
+   * @return the AttackMap of this Position
+   */
+  public AttackMap getAttackMap(){
+    return attackMap;
+  }
+  
+  /**
+   * Checks if a team attacks a square. This is a single lookup (see AttackMap)
+   * @param square - the square index
+   * @param team - the index of the attacking team
+   * @return true if at least one of the team's units attacks the square, false if else
+   */
+  public boolean isAttacked(int square, int team){
+    return attackMap.isAttacked(team, square);
+  }
+  
+  /**
+   * Returns the square of a team's King
+   * @param team - the team index
+   * @return the square index of the team's King, or -1 if it has none
+   */
+  public int kingSquare(int team){
+    return pieceList.kingSquare(team);
+  }
+
+  /**
+   * Returns the bitboard of all units of a team
+   * @param team - the team index
+   * @return the bitboard of all units of a team
+   */
+  public long occupancy(int team){
+    return teams[team];
+  }
+
+  /**
+   * Returns the bitboard of all units on this Position
+   * @return the bitboard of all units on this Position
+   */
+  public long occupancy(){
+    return teams[Pieces.TEAM_ONE] | teams[Pieces.TEAM_TWO];
+  }
+
+  /**
+   * Returns the index of the team whose turn it is
+   * @return the index of the team whose turn it is
+   */
+  public int getSideToMove(){
+    return sideToMove;
+  }
+
+  /**
+   * Sets the team whose turn it is
+   * @param team - the team index
+   */
+  public void setSideToMove(int team){
+    if (team != sideToMove) {
+      hash ^= Zobrist.SIDE;
+      sideToMove = team;
+    }
+  }
+  
+  /**
+   * Returns the Zobrist hash of this Position (see Zobrist). 
+   * 
+   * The hash covers unit placement and the side to move, and is 
+   * maintained incrementally on every change to this Position.
+   * @return the Zobrist hash of this Position
+   */
+  public long getHash(){
+    return hash;
+  }
+
+  /**
+   * Returns the material of a team
+   * @param team - the team index
+   * @return the sum of the material values of the team's units, in centipawns
+   */
+  public int getMaterial(int team){
+    return material[team];
+  }
+  
+  /**
+   * Returns the middlegame score of a team (see PieceSquareTables)
+   * @param team - the team index
+   * @return the team's material plus the middlegame bonuses of its units' squares
+   */
+  public int getMiddlegameScore(int team){
+    return middlegame[team];
+  }
+  
+  /**
+   * Returns the endgame score of a team (see PieceSquareTables)
+   * @param team - the team index
+   * @return the team's material plus the endgame bonuses of its units' squares
+   */
+  public int getEndgameScore(int team){
+    return endgame[team];
+  }
+  
+  /**
+   * Returns the game phase of this Position
+   * @return the weighted amount of Knights, Bishops, Rooks and Queens on this Position 
+   *         (PieceSquareTables.MAX_PHASE on a full board, but may exceed it)
+   */
+  public int getPhase(){
+    return phase;
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if (object instanceof Position) {
+      Position other = (Position) object;
+      return other.hash == hash && other.sideToMove == sideToMove && Arrays.equals(other.mailbox, mailbox);
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode(){
+    return (int) (hash ^ (hash >>> 32));
+  }
+}
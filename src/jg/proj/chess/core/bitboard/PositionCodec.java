@@ -0,0 +1,183 @@
+package jg.proj.chess.core.bitboard;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encodes a Position into a compact binary form, for storage and transfer.
+ *
+ * An encoded Position is:
+ *  - 8 bytes : the occupancy bitboard (big-endian)
+ *  - 1 byte  : flags. Bit 0 is set if it's Team 2's turn, bits 1 to 7 hold the halfmove clock
+ *    (capped at 127: any clock of Position.FIFTY_MOVE_PLIES or more is already a draw)
+ *  - the piece code of each occupied square, from the lowest square index up,
+ *    packed as 4 bits each (the first code of a byte in its high 4 bits)
+ *
+ * A Position with 32 units - like the default board - is encoded in 25 bytes, and
+ * no Position takes more than 41. The move history of a Position isn't encoded, so a decoded
+ * Position can resume a game but won't see repetitions of the positions before it.
+ *
+ * @author Jose
+ *
+ */
+public final class PositionCodec {
+
+  /**
+   * The most bytes an encoded Position can take
+   */
+  public static final int MAX_BYTES = Long.BYTES + 1 + Bitboards.SQUARES / 2;
+
+  private static final int TEAM_TWO_TO_MOVE = 1;
+
+  /**
+   * The largest halfmove clock that can be encoded
+   */
+  private static final int MAX_CLOCK = 0x7F;
+
+  private PositionCodec(){}
+
+  /**
+   * Encodes a Position
+   * @param position - the Position to encode
+   * @return the encoded Position
+   */
+  public static byte [] encode(Position position){
+    ByteBuffer buffer = ByteBuffer.allocate(encodedSize(position));
+    encode(position, buffer);
+    return buffer.array();
+  }
+
+  /**
+   * Encodes a Position into a ByteBuffer
+   * @param position - the Position to encode
+   * @param buffer - the ByteBuffer to write to, with at least encodedSize(position) bytes remaining
+   */
+  public static void encode(Position position, ByteBuffer buffer){
+    long occupancy = position.occupancy();
+    buffer.putLong(occupancy);
+    int clock = Math.min(position.getHalfmoveClock(), MAX_CLOCK);
+    buffer.put((byte) ((clock << 1) | (position.getSideToMove() == Pieces.TEAM_TWO ? TEAM_TWO_TO_MOVE : 0)));
+
+    int packed = 0;
+    boolean high = true;
+    for(long units = occupancy; units != 0; units = Bitboards.next(units)){
+      int code = position.pieceAt(Bitboards.first(units));
+      if (high) {
+        packed = code << 4;
+      }
+      else {
+        buffer.put((byte) (packed | code));
+      }
+      high = !high;
+    }
+
+    //an odd amount of units leaves a half-filled byte
+    if (!high) {
+      buffer.put((byte) packed);
+    }
+  }
+
+  /**
+   * Encodes a mailbox - an array of piece codes indexed by square - and a side to move
+   * @param mailbox - the piece codes (Pieces.EMPTY for empty squares) of all 64 squares
+   * @param sideToMove - the index of the team whose turn it is
+   * @return the encoded position
+   * @throws IllegalArgumentException if the mailbox doesn't have 64 valid piece codes
+   */
+  public static byte [] encode(byte [] mailbox, int sideToMove){
+    return encode(toPosition(mailbox, sideToMove));
+  }
+
+  /**
+   * Calculates how many bytes a Position takes once encoded
+   * @param position - the Position to encode
+   * @return the amount of bytes the Position is encoded in
+   */
+  public static int encodedSize(Position position){
+    return Long.BYTES + 1 + (Bitboards.count(position.occupancy()) + 1) / 2;
+  }
+
+  /**
+   * Decodes a Position
+   * @param bytes - the encoded Position
+   * @return the decoded Position
+   * @throws IllegalArgumentException if the bytes aren't a valid encoded Position
+   */
+  public static Position decode(byte [] bytes){
+    return decode(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Decodes a Position from a ByteBuffer, advancing it past the encoded Position
+   * @param buffer - the ByteBuffer to read from
+   * @return the decoded Position
+   * @throws IllegalArgumentException if the buffer doesn't hold a valid encoded Position
+   */
+  public static Position decode(ByteBuffer buffer){
+    try {
+      long occupancy = buffer.getLong();
+      int flags = buffer.get() & 0xFF;
+
+      Position position = new Position();
+      position.setSideToMove((flags & TEAM_TWO_TO_MOVE) != 0 ? Pieces.TEAM_TWO : Pieces.TEAM_ONE);
+      position.setHalfmoveClock(flags >>> 1);
+
+      int packed = 0;
+      boolean high = true;
+      for(long units = occupancy; units != 0; units = Bitboards.next(units)){
+        int code;
+        if (high) {
+          packed = buffer.get() & 0xFF;
+          code = packed >>> 4;
+        }
+        else {
+          code = packed & 0xF;
+        }
+        high = !high;
+
+        if (code == Pieces.EMPTY || code > Pieces.MAX_CODE) {
+          throw new IllegalArgumentException("Invalid piece code: "+code);
+        }
+        position.place(Bitboards.first(units), Pieces.team(code), Pieces.type(code));
+      }
+
+      return position;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("The encoded position is truncated");
+    }
+  }
+
+  /**
+   * Decodes a position into a mailbox - an array of piece codes indexed by square
+   * @param bytes - the encoded position
+   * @return the piece codes (Pieces.EMPTY for empty squares) of all 64 squares
+   * @throws IllegalArgumentException if the bytes aren't a valid encoded position
+   */
+  public static byte [] decodeMailbox(byte [] bytes){
+    Position position = decode(bytes);
+    byte [] mailbox = new byte[Bitboards.SQUARES];
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      mailbox[square] = (byte) position.pieceAt(square);
+    }
+    return mailbox;
+  }
+
+  private static Position toPosition(byte [] mailbox, int sideToMove){
+    if (mailbox.length != Bitboards.SQUARES) {
+      throw new IllegalArgumentException("A mailbox needs "+Bitboards.SQUARES+" squares");
+    }
+
+    Position position = new Position();
+    position.setSideToMove(sideToMove);
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      int code = mailbox[square];
+      if (code < Pieces.EMPTY || code > Pieces.MAX_CODE) {
+        throw new IllegalArgumentException("Invalid piece code: "+code);
+      }
+      if (code != Pieces.EMPTY) {
+        position.place(square, Pieces.team(code), Pieces.type(code));
+      }
+    }
+    return position;
+  }
+}
@@ -0,0 +1,68 @@
+package jg.proj.chess.core.bitboard;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zobrist keys for hashing Positions.
+ * 
+ * A Position's hash is the XOR of the key of every (piece code, square)
+ * pair on it, XOR'd with SIDE if it's Team 2's turn. As XOR is its own 
+ * inverse, a Position updates its hash incrementally whenever a unit is 
+ * placed or removed, or the turn changes.
+ * 
+ * Keys are generated from a fixed seed, so hashes are the same across 
+ * runs and machines.
+ * 
+ * @author Jose
+ *
+ */
+public final class Zobrist {
+  
+  private static final long SEED = 0x44436865737321L;
+  
+  /**
+   * Keys indexed by piece code, then square
+   */
+  private static final long [][] PIECES = new long[Pieces.MAX_CODE + 1][Bitboards.SQUARES];
+  
+  /**
+   * XOR'd in when it's Team 2's turn
+   */
+  public static final long SIDE;
+  
+  static {
+    SplittableRandom random = new SplittableRandom(SEED);
+    for(int code = 1; code <= Pieces.MAX_CODE; code++){
+      for(int square = 0; square < Bitboards.SQUARES; square++){
+        PIECES[code][square] = random.nextLong();
+      }
+    }
+    SIDE = random.nextLong();
+  }
+  
+  private Zobrist(){}
+  
+  /**
+   * Returns the key of a unit on a square
+   * @param code - the piece code of the unit
+   * @param square - the square index
+   * @return the key of the unit on the square
+   */
+  public static long piece(int code, int square){
+    return PIECES[code][square];
+  }
+  
+  /**
+   * Calculates the hash of a Position from scratch
+   * @param position - the Position to hash
+   * @return the hash of the Position
+   */
+  public static long compute(Position position){
+    long hash = position.getSideToMove() == Pieces.TEAM_TWO ? SIDE : 0;
+    for(long units = position.occupancy(); units != 0; units = Bitboards.next(units)){
+      int square = Bitboards.first(units);
+      hash ^= PIECES[position.pieceAt(square)][square];
+    }
+    return hash;
+  }
+}
@@ -0,0 +1,61 @@
+package jg.proj.chess.core.engine;
+
+import jg.proj.chess.core.bitboard.PieceSquareTables;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Scores Positions, for the search engine and anything else that needs to
+ * judge who's ahead.
+ *
+ * The score is material plus piece-square bonuses (see PieceSquareTables),
+ * blended between their middlegame and endgame values by the game phase.
+ * A Position keeps those terms up to date as units move, so an evaluation
+ * is a handful of arithmetic operations no matter how many units are left.
+ *
+ * @author Jose
+ *
+ */
+public final class Evaluator {
+
+  /**
+   * A small bonus for having the move
+   */
+  public static final int TEMPO = 10;
+
+  private Evaluator(){}
+
+  /**
+   * Scores a Position from the view of the team whose turn it is
+   * @param position - the Position to score
+   * @return the score of the Position, in centipawns. Positive if the team whose turn it is is ahead
+   */
+  public static int evaluate(Position position){
+    return evaluate(position, position.getSideToMove()) + TEMPO;
+  }
+
+  /**
+   * Scores a Position from the view of a team, regardless of whose turn it is
+   * @param position - the Position to score
+   * @param team - the team index
+   * @return the score of the Position, in centipawns. Positive if the team is ahead
+   */
+  public static int evaluate(Position position, int team){
+    int opponent = Pieces.opponent(team);
+    int phase = Math.min(position.getPhase(), PieceSquareTables.MAX_PHASE);
+
+    int middlegame = position.getMiddlegameScore(team) - position.getMiddlegameScore(opponent);
+    int endgame = position.getEndgameScore(team) - position.getEndgameScore(opponent);
+    return (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+  }
+
+  /**
+   * Returns the material balance of a Position, from the view of a team
+   * @param position - the Position to check
+   * @param team - the team index
+   * @return the team's material minus its opponent's, in centipawns
+   */
+  public static int materialBalance(Position position, int team){
+    return position.getMaterial(team) - position.getMaterial(Pieces.opponent(team));
+  }
+}
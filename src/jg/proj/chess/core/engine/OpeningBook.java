@@ -0,0 +1,176 @@
+package jg.proj.chess.core.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Reads an opening book: a file of moves played from early-game positions,
+ * written by OpeningBookBuilder.
+ *
+ * A book file is a 16 byte header (magic number, version, entry count), followed by
+ * 16 byte entries: the Zobrist hash of a Position, a move played from it (see Move)
+ * and the move's weight. Entries are sorted by hash, and by descending weight for
+ * the same hash, so the moves of a Position are found by a binary search.
+ *
+ * The file is memory mapped, so a lookup reads straight from the operating system's
+ * page cache and a book is shared by every Session without loading it onto the heap.
+ * A book only ever answers with legal moves, so a hash collision can't lead to an
+ * illegal one. An OpeningBook is safe to use from any amount of threads.
+ *
+ * @author Jose
+ *
+ */
+public class OpeningBook {
+
+  public static final String EXTENSION = ".dcob";
+
+  static final int MAGIC = 0x44434F42;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+  static final int ENTRY_SIZE = 16;
+
+  private final ByteBuffer entries;
+  private final int size;
+
+  /**
+   * Constructs an OpeningBook, mapping a book file
+   * @param file - the book file
+   * @throws IOException if the file can't be read, or isn't a book
+   */
+  public OpeningBook(Path file) throws IOException{
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Bad opening book size: "+file);
+      }
+
+      entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.BIG_ENDIAN);
+      if (entries.getInt(0) != MAGIC || entries.get(4) != VERSION) {
+        throw new IOException("Not an opening book: "+file);
+      }
+
+      size = entries.getInt(8);
+      if (size < 0 || channel.size() != HEADER_SIZE + (long) size * ENTRY_SIZE) {
+        throw new IOException("Opening book "+file+" should hold "+size+" entries, but is "+channel.size()+" bytes");
+      }
+    }
+  }
+
+  /**
+   * Returns the book move with the most weight for a Position
+   * @param position - the Position to look up
+   * @return the book move with the most weight, or Move.NONE if the book has none for the Position
+   */
+  public int best(Position position){
+    MoveList legal = legalMoves(position);
+    for(int entry = first(position.getHash()); entry < size && hash(entry) == position.getHash(); entry++){
+      int move = match(legal, move(entry));
+      if (move != Move.NONE) {
+        return move;
+      }
+    }
+    return Move.NONE;
+  }
+
+  /**
+   * Picks a book move for a Position at random, each move as likely as its weight
+   * @param position - the Position to look up
+   * @param random - the source of randomness
+   * @return the book move picked, or Move.NONE if the book has none for the Position
+   */
+  public int choose(Position position, Random random){
+    MoveList legal = legalMoves(position);
+    int start = first(position.getHash());
+
+    long total = 0;
+    int end = start;
+    for(; end < size && hash(end) == position.getHash(); end++){
+      if (match(legal, move(end)) != Move.NONE) {
+        total += weight(end);
+      }
+    }
+    if (total == 0) {
+      return Move.NONE;
+    }
+
+    long pick = (long) (random.nextDouble() * total);
+    for(int entry = start; entry < end; entry++){
+      int move = match(legal, move(entry));
+      if (move != Move.NONE) {
+        pick -= weight(entry);
+        if (pick < 0) {
+          return move;
+        }
+      }
+    }
+    return Move.NONE;
+  }
+
+  /**
+   * Returns the amount of entries in this book
+   * @return the amount of entries in this book
+   */
+  public int size(){
+    return size;
+  }
+
+  /**
+   * Finds the first entry of a hash
+   * @param hash - the hash to look for
+   * @return the index of the first entry with the hash, or of the first with a greater hash if there's none
+   */
+  int first(long hash){
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (hash(middle) < hash) {
+        low = middle + 1;
+      }
+      else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private long hash(int entry){
+    return entries.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+  }
+
+  private int move(int entry){
+    return entries.getInt(HEADER_SIZE + entry * ENTRY_SIZE + 8);
+  }
+
+  private int weight(int entry){
+    return entries.getInt(HEADER_SIZE + entry * ENTRY_SIZE + 12);
+  }
+
+  /**
+   * Finds the legal move going the same way as a book move
+   * @return the legal move, or Move.NONE if the book move isn't legal
+   */
+  private static int match(MoveList legal, int move){
+    for(int i = 0; i < legal.size(); i++){
+      if (Move.from(legal.get(i)) == Move.from(move) && Move.to(legal.get(i)) == Move.to(move)) {
+        return legal.get(i);
+      }
+    }
+    return Move.NONE;
+  }
+
+  private static MoveList legalMoves(Position position){
+    MoveList legal = new MoveList();
+    MoveGenerator.generateLegal(position, legal);
+    return legal;
+  }
+}
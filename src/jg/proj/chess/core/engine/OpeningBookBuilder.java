@@ -0,0 +1,377 @@
+package jg.proj.chess.core.engine;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Builds opening books (see OpeningBook) from games in Portable Game Notation (PGN).
+ *
+ * Every move of the first plies of a game is counted towards the position it was
+ * played from: 2 if the team that played it went on to win, 1 if the game was drawn
+ * or unfinished, and nothing if it lost.
+ *
+ * Games are read as orthodox chess games. This game's default board is the orthodox one
+ * mirrored left to right (its King starts on rank D, where an orthodox King starts on
+ * the e-file), so moves in Standard Algebraic Notation have the letter of a square mirrored
+ * to its rank - 'a' to H through 'h' to A - and the digit standing for its file
+ * (ex: "Nf3" moves the Knight on 1B to 3C). FEN tags are mirrored the same way. Moves may
+ * also be in the notation of votes (ex: "2B>4B"), which isn't mirrored. Games start from the
+ * default board, unless they have a FEN tag. A game stops counting at its first move that's
+ * illegal or unsupported here, such as castling.
+ *
+ * @author Jose
+ *
+ */
+public class OpeningBookBuilder {
+
+  /**
+   * The default amount of plies of each game to count
+   */
+  public static final int DEFAULT_MAX_PLIES = 24;
+
+  private static final List<String> RESULTS = Arrays.asList("1-0", "0-1", "1/2-1/2", "*");
+
+  private final int maxPlies;
+
+  /**
+   * Weights of the moves played from each position, by hash then move
+   */
+  private final Map<Long, Map<Integer, Integer>> weights;
+  private final MoveList moves;
+  private int games;
+
+  /**
+   * Constructs an OpeningBookBuilder counting the first DEFAULT_MAX_PLIES plies of each game
+   */
+  public OpeningBookBuilder(){
+    this(DEFAULT_MAX_PLIES);
+  }
+
+  /**
+   * Constructs an OpeningBookBuilder
+   * @param maxPlies - the amount of plies of each game to count
+   */
+  public OpeningBookBuilder(int maxPlies){
+    this.maxPlies = maxPlies;
+    this.weights = new HashMap<>();
+    this.moves = new MoveList();
+  }
+
+  /**
+   * Counts the games of a PGN file
+   * @param file - the PGN file
+   * @return the amount of games read
+   * @throws IOException if the file can't be read
+   */
+  public int addGames(Path file) throws IOException{
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+      return addGames(reader);
+    }
+  }
+
+  /**
+   * Counts the games of PGN text
+   * @param reader - the PGN text
+   * @return the amount of games read
+   * @throws IOException if the text can't be read
+   */
+  public int addGames(Reader reader) throws IOException{
+    int read = 0;
+    String fen = null;
+    String result = "*";
+    List<String> tokens = new ArrayList<>();
+
+    StringBuilder token = new StringBuilder();
+    int c = reader.read();
+    while (c >= 0) {
+      if (c == '[') {
+        //a tag after movetext starts the next game
+        if (!tokens.isEmpty()) {
+          addGame(fen, result, tokens);
+          read++;
+          fen = null;
+          result = "*";
+          tokens.clear();
+        }
+
+        String tag = readUntil(reader, ']');
+        int quote = tag.indexOf('"');
+        if (quote > 0) {
+          String name = tag.substring(0, quote).trim();
+          String value = tag.substring(quote + 1, Math.max(quote + 1, tag.lastIndexOf('"')));
+          if (name.equals("FEN")) {
+            fen = value;
+          }
+          else if (name.equals("Result")) {
+            result = value;
+          }
+        }
+      }
+      else if (c == '{') {
+        readUntil(reader, '}');
+      }
+      else if (c == ';') {
+        readUntil(reader, '\n');
+      }
+      else if (c == '(') {
+        //skip variations, which may nest
+        int depth = 1;
+        while (depth > 0 && (c = reader.read()) >= 0) {
+          depth += c == '(' ? 1 : c == ')' ? -1 : 0;
+        }
+      }
+      else if (Character.isWhitespace(c)) {
+        //nothing to do
+      }
+      else {
+        token.setLength(0);
+        while (c >= 0 && !Character.isWhitespace(c) && c != '{' && c != '(' && c != ';') {
+          token.append((char) c);
+          c = reader.read();
+        }
+
+        String word = token.toString();
+        if (RESULTS.contains(word)) {
+          if (!word.equals("*")) {
+            result = word;
+          }
+          addGame(fen, result, tokens);
+          read++;
+          fen = null;
+          result = "*";
+          tokens.clear();
+        }
+        else {
+          //drop move numbers ("12." and "12...") and annotation glyphs ("$1")
+          String move = word.replaceFirst("^\\d+\\.+", "");
+          if (!move.isEmpty() && move.charAt(0) != '$') {
+            tokens.add(move);
+          }
+        }
+        continue;
+      }
+      c = reader.read();
+    }
+
+    //a last game without a result
+    if (!tokens.isEmpty()) {
+      addGame(fen, result, tokens);
+      read++;
+    }
+
+    games += read;
+    return read;
+  }
+
+  /**
+   * Writes the book counted so far
+   * @param file - the book file to write
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path file) throws IOException{
+    //signed order, as searched by OpeningBook
+    TreeMap<Long, Map<Integer, Integer>> sorted = new TreeMap<>(weights);
+    int size = size();
+
+    ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.HEADER_SIZE + size * OpeningBook.ENTRY_SIZE);
+    buffer.putInt(OpeningBook.MAGIC).put((byte) OpeningBook.VERSION).put(new byte[3]).putInt(size).putInt(0);
+    for(Map.Entry<Long, Map<Integer, Integer>> position : sorted.entrySet()){
+      List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(position.getValue().entrySet());
+      entries.sort((a, b) -> a.getValue().equals(b.getValue()) ? Integer.compare(a.getKey(), b.getKey())
+                                                                : Integer.compare(b.getValue(), a.getValue()));
+      for(Map.Entry<Integer, Integer> entry : entries){
+        buffer.putLong(position.getKey()).putInt(entry.getKey()).putInt(entry.getValue());
+      }
+    }
+    buffer.flip();
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Returns the amount of entries (position and move pairs) counted so far
+   * @return the amount of entries counted so far
+   */
+  public int size(){
+    int size = 0;
+    for(Map<Integer, Integer> positionMoves : weights.values()){
+      size += positionMoves.size();
+    }
+    return size;
+  }
+
+  /**
+   * Returns the amount of games read so far
+   * @return the amount of games read so far
+   */
+  public int getGameCount(){
+    return games;
+  }
+
+  /**
+   * Finds the legal move a token of movetext stands for
+   * @param position - the Position the move is played from
+   * @param token - the move, in orthodox Standard Algebraic Notation (mirrored, as described above) 
+   *                or the notation of votes
+   * @param legal - a MoveList to generate the legal moves into
+   * @return the move, or Move.NONE if it's not legal or can't be read
+   */
+  public static int parseMove(Position position, String token, MoveList legal){
+    String san = token.replaceAll("[+#!?]+$", "");
+    legal.clear();
+    MoveGenerator.generateLegal(position, legal);
+
+    for(int i = 0; i < legal.size(); i++){
+      if (Move.toString(legal.get(i)).equals(san)) {
+        return legal.get(i);
+      }
+    }
+
+    //promotions aren't part of this game
+    if (san.length() < 2 || san.indexOf('=') >= 0) {
+      return Move.NONE;
+    }
+
+    int type = "KQRBN".indexOf(san.charAt(0));
+    int start = type < 0 ? 0 : 1;
+    type = type < 0 ? Pieces.PAWN : type;
+
+    int destination = square(san.charAt(san.length() - 2), san.charAt(san.length() - 1));
+    if (destination < 0) {
+      return Move.NONE;
+    }
+
+    //what's between the unit letter and the destination narrows down where the unit came from
+    char fromRank = 0;
+    int fromFile = 0;
+    for(char c : san.substring(start, san.length() - 2).toCharArray()){
+      if ('a' <= c && c <= 'h') {
+        fromRank = mirror(c);
+      }
+      else if ('1' <= c && c <= '8') {
+        fromFile = c - '0';
+      }
+      else if (c != 'x') {
+        return Move.NONE;
+      }
+    }
+
+    int found = Move.NONE;
+    for(int i = 0; i < legal.size(); i++){
+      int move = legal.get(i);
+      int from = Move.from(move);
+      if (Pieces.type(Move.piece(move)) == type && Move.to(move) == destination &&
+          (fromRank == 0 || Bitboards.rank(from) == fromRank) && (fromFile == 0 || Bitboards.file(from) == fromFile)) {
+        if (found != Move.NONE) {
+          //ambiguous
+          return Move.NONE;
+        }
+        found = move;
+      }
+    }
+    return found;
+  }
+
+  private void addGame(String fen, String result, List<String> tokens){
+    Position position;
+    try {
+      position = Fen.parse(fen == null ? Fen.DEFAULT : mirrorFen(fen));
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+
+    int winner = result.equals("1-0") ? Pieces.TEAM_ONE : result.equals("0-1") ? Pieces.TEAM_TWO : -1;
+    for(int ply = 0; ply < Math.min(maxPlies, tokens.size()); ply++){
+      int move = parseMove(position, tokens.get(ply), moves);
+      if (move == Move.NONE) {
+        return;
+      }
+
+      int weight = winner < 0 ? 1 : winner == position.getSideToMove() ? 2 : 0;
+      if (weight > 0) {
+        weights.computeIfAbsent(position.getHash(), hash -> new HashMap<>()).merge(move, weight, Integer::sum);
+      }
+      position.makeMove(move);
+    }
+  }
+
+  private static int square(char letter, char file){
+    if (letter < 'a' || letter > 'h' || file < '1' || file > '8') {
+      return -1;
+    }
+    return Bitboards.square(file - '0', mirror(letter));
+  }
+
+  /**
+   * Returns the rank an orthodox square letter stands for: 'a' is H, through 'h' being A
+   */
+  private static char mirror(char letter){
+    return (char) ('A' + ('h' - letter));
+  }
+
+  /**
+   * Mirrors the unit placement of an orthodox FEN record left to right. Each file's
+   * placement is reversed, which keeps its digits (single runs of empty squares) valid
+   */
+  private static String mirrorFen(String fen){
+    String [] fields = fen.trim().split("\\s+", 2);
+    String [] files = fields[0].split("/");
+    for(int i = 0; i < files.length; i++){
+      files[i] = new StringBuilder(files[i]).reverse().toString();
+    }
+    return String.join("/", files) + (fields.length > 1 ? " "+fields[1] : "");
+  }
+
+  private static String readUntil(Reader reader, char end) throws IOException{
+    StringBuilder builder = new StringBuilder();
+    int c;
+    while ((c = reader.read()) >= 0 && c != end) {
+      builder.append((char) c);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Builds an opening book from PGN files
+   * @param args - the book file to write, followed by the PGN files to read
+   */
+  public static void main(String [] args) throws IOException{
+    if (args.length < 2) {
+      System.out.println("Usage: OpeningBookBuilder <book"+OpeningBook.EXTENSION+"> <games.pgn> ...");
+      return;
+    }
+
+    OpeningBookBuilder builder = new OpeningBookBuilder();
+    for(int i = 1; i < args.length; i++){
+      System.out.println("Read "+builder.addGames(Paths.get(args[i]))+" games from "+args[i]);
+    }
+    builder.write(Paths.get(args[0]));
+    System.out.println("Wrote "+builder.size()+" entries from "+builder.getGameCount()+" games to "+args[0]);
+  }
+}
@@ -0,0 +1,158 @@
+package jg.proj.chess.core.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Searches a Position on several threads at once ("Lazy SMP").
+ *
+ * Every thread runs its own Searcher over the same root, sharing one lock-free
+ * TranspositionTable (see TranspositionTable). The threads don't otherwise talk
+ * to each other: what one thread stores in the table is picked up by the others
+ * as cutoffs and move ordering, so together they reach deeper than one thread would
+ * in the same time. Half of the helper threads search one ply ahead of the main
+ * thread, so that the threads spread over different parts of the tree.
+ *
+ * The result is that of the deepest completed iteration of any thread - the main
+ * thread's on ties. Helper threads are daemons shared by every ParallelSearcher,
+ * and each search may use a different amount of threads. At most MAX_HELPERS helpers
+ * run at once across all searches: a search never waits for a helper, it just runs
+ * with fewer threads when the others are taken.
+ *
+ * @author Jose
+ *
+ */
+public class ParallelSearcher {
+
+  /**
+   * The most helper threads searching at once, across every ParallelSearcher
+   */
+  public static final int MAX_HELPERS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+  private static final Semaphore HELPER_PERMITS = new Semaphore(MAX_HELPERS);
+
+  private static final ExecutorService HELPERS = Executors.newCachedThreadPool(runnable -> {
+    Thread thread = new Thread(runnable, "search-helper");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final TranspositionTable table;
+  private volatile Tablebase tablebase;
+
+  /**
+   * Constructs a ParallelSearcher with its own TranspositionTable
+   */
+  public ParallelSearcher(){
+    this(new TranspositionTable(Searcher.DEFAULT_TABLE_SIZE));
+  }
+
+  /**
+   * Constructs a ParallelSearcher
+   * @param table - the TranspositionTable shared by all threads of a search
+   */
+  public ParallelSearcher(TranspositionTable table){
+    this.table = table;
+  }
+
+  /**
+   * Searches for the best move of the team whose turn it is
+   * @param position - the Position to search. It's left unchanged, and must not be changed until this returns
+   * @param millis - the time budget of the search, in milliseconds
+   * @param threads - the most threads to search with, including the calling thread (at least 1)
+   * @return the result of the search. Its node count is that of all threads
+   */
+  public SearchResult search(Position position, long millis, int threads){
+    return search(position, millis, Searcher.MAX_PLY, threads);
+  }
+
+  /**
+   * Searches for the best move of the team whose turn it is
+   * @param position - the Position to search. It's left unchanged, and must not be changed until this returns
+   * @param millis - the time budget of the search, in milliseconds
+   * @param maxDepth - the deepest iteration to search to
+   * @param threads - the most threads to search with, including the calling thread (at least 1)
+   * @return the result of the search. Its node count is that of all threads
+   */
+  public SearchResult search(Position position, long millis, int maxDepth, int threads){
+    if (threads < 1) {
+      throw new IllegalArgumentException("A search needs at least one thread");
+    }
+
+    long start = System.nanoTime();
+    long deadline = start + Math.max(1, millis) * 1000000L;
+    table.newSearch();
+
+    //only as many helpers as are free
+    int helperCount = 0;
+    while (helperCount < threads - 1 && HELPER_PERMITS.tryAcquire()) {
+      helperCount++;
+    }
+
+    Searcher [] helpers = new Searcher[helperCount];
+    List<Future<SearchResult>> results = new ArrayList<>(helpers.length);
+    for(int i = 0; i < helpers.length; i++){
+      Searcher helper = helpers[i] = new Searcher(table);
+      helper.setTablebase(tablebase);
+      Position copy = new Position(position);
+      int depthOffset = i % 2 == 0 ? 1 : 0;
+      results.add(HELPERS.submit(() -> {
+        try {
+          return helper.iterate(copy, deadline, maxDepth, depthOffset);
+        } finally {
+          HELPER_PERMITS.release();
+        }
+      }));
+    }
+
+    Searcher main = new Searcher(table);
+    main.setTablebase(tablebase);
+    SearchResult best = main.iterate(position, deadline, maxDepth, 0);
+    long nodes = best.getNodes();
+
+    //the main thread is done, so the helpers are too
+    for(Searcher helper : helpers){
+      helper.stop();
+    }
+    for(Future<SearchResult> future : results){
+      SearchResult result = join(future);
+      nodes += result.getNodes();
+      if (result.getDepth() > best.getDepth() && result.getMove() != Move.NONE) {
+        best = result;
+      }
+    }
+
+    return new SearchResult(best.getMove(), best.getScore(), best.getDepth(), nodes, (System.nanoTime() - start) / 1000000L);
+  }
+
+  public TranspositionTable getTable(){
+    return table;
+  }
+
+  /**
+   * Sets the Tablebase every thread looks endgames up in (see Searcher.setTablebase())
+   * @param tablebase - the Tablebase to look endgames up in, or null for none
+   */
+  public void setTablebase(Tablebase tablebase){
+    this.tablebase = tablebase;
+  }
+
+  private static SearchResult join(Future<SearchResult> future){
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a search helper", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("A search helper failed", e.getCause());
+    }
+  }
+}
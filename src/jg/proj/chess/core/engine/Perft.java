@@ -0,0 +1,241 @@
+package jg.proj.chess.core.engine;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Counts the leaf nodes of the legal move tree of a Position, up to a given depth ("perft").
+ *
+ * As the counts from well known positions are exactly known (see PerftSuite),
+ * perft is used to validate the move generator, and - by timing it - to
+ * measure how fast it is.
+ *
+ * A Perft instance reuses one MoveList per ply and so isn't thread-safe.
+ * parallelCount() splits the work by root move across a ForkJoinPool,
+ * with each task searching its own copy of the Position.
+ *
+ * @author Jose
+ *
+ */
+public class Perft {
+
+  private final MoveList [] moveLists;
+
+  /**
+   * Constructs a Perft
+   * @param maxDepth - the deepest depth this Perft will be asked to count
+   */
+  public Perft(int maxDepth){
+    moveLists = new MoveList[Math.max(1, maxDepth)];
+    for(int i = 0; i < moveLists.length; i++){
+      moveLists[i] = new MoveList();
+    }
+  }
+
+  /**
+   * Counts the leaf nodes of the given Position's move tree
+   * @param position - the Position to count from. It's left unchanged once this returns
+   * @param depth - the depth to count to
+   * @return the amount of leaf nodes at the given depth
+   */
+  public long count(Position position, int depth){
+    if (depth > moveLists.length) {
+      throw new IllegalArgumentException("This Perft only counts to a depth of "+moveLists.length);
+    }
+    return depth <= 0 ? 1 : countNodes(position, depth);
+  }
+
+  private long countNodes(Position position, int depth){
+    MoveList moves = moveLists[depth - 1];
+    moves.clear();
+    MoveGenerator.generateLegal(position, moves);
+
+    //bulk count: the leaves are the legal moves themselves
+    if (depth == 1) {
+      return moves.size();
+    }
+
+    long nodes = 0;
+    for(int i = 0; i < moves.size(); i++){
+      position.makeMove(moves.get(i));
+      nodes += countNodes(position, depth - 1);
+      position.unmakeMove();
+    }
+    return nodes;
+  }
+
+  /**
+   * Counts the leaf nodes of the given Position's move tree
+   * @param position - the Position to count from. It's left unchanged once this returns
+   * @param depth - the depth to count to
+   * @return the amount of leaf nodes at the given depth
+   */
+  public static long perft(Position position, int depth){
+    return new Perft(depth).count(position, depth);
+  }
+
+  /**
+   * Counts the leaf nodes under each legal move of the given Position ("divide").
+   *
+   * This is used to find where a move generator goes wrong: the move whose count
+   * differs from a reference engine's is the one to look under.
+   * @param position - the Position to count from. It's left unchanged once this returns
+   * @param depth - the depth to count to, including the root moves (at least 1)
+   * @return each legal root move, mapped to the amount of leaf nodes under it
+   */
+  public static Map<Integer, Long> divide(Position position, int depth){
+    MoveList rootMoves = new MoveList();
+    MoveGenerator.generateLegal(position, rootMoves);
+
+    Perft perft = new Perft(depth - 1);
+    Map<Integer, Long> counts = new LinkedHashMap<>();
+    for(int i = 0; i < rootMoves.size(); i++){
+      int move = rootMoves.get(i);
+      position.makeMove(move);
+      counts.put(move, perft.count(position, depth - 1));
+      position.unmakeMove();
+    }
+    return counts;
+  }
+
+  /**
+   * Counts the leaf nodes of the given Position's move tree in parallel,
+   * using the common ForkJoinPool
+   * @param position - the Position to count from. It's not changed
+   * @param depth - the depth to count to
+   * @return the amount of leaf nodes at the given depth
+   */
+  public static long parallelPerft(Position position, int depth){
+    return parallelPerft(position, depth, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Counts the leaf nodes of the given Position's move tree in parallel,
+   * with one task per legal root move
+   * @param position - the Position to count from. It's not changed
+   * @param depth - the depth to count to
+   * @param pool - the ForkJoinPool to run the tasks on
+   * @return the amount of leaf nodes at the given depth
+   */
+  public static long parallelPerft(Position position, int depth, ForkJoinPool pool){
+    if (depth <= 1) {
+      return perft(position, depth);
+    }
+    return pool.invoke(new RootSplit(new Position(position), depth));
+  }
+
+  /**
+   * Forks a RootMove task for each legal move of a Position, and sums their counts
+   */
+  private static class RootSplit extends RecursiveTask<Long>{
+    private static final long serialVersionUID = 1L;
+
+    private final Position position;
+    private final int depth;
+
+    public RootSplit(Position position, int depth){
+      this.position = position;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute(){
+      MoveList rootMoves = new MoveList();
+      MoveGenerator.generateLegal(position, rootMoves);
+
+      List<RootMove> tasks = new ArrayList<>(rootMoves.size());
+      for(int i = 0; i < rootMoves.size(); i++){
+        tasks.add(new RootMove(position, rootMoves.get(i), depth - 1));
+      }
+
+      long nodes = 0;
+      for(RootMove task : invokeAll(tasks)){
+        nodes += task.join();
+      }
+      return nodes;
+    }
+  }
+
+  /**
+   * Counts the leaf nodes under a single root move, on its own copy of the Position
+   */
+  private static class RootMove extends RecursiveTask<Long>{
+    private static final long serialVersionUID = 1L;
+
+    private final Position root;
+    private final int move;
+    private final int depth;
+
+    public RootMove(Position root, int move, int depth){
+      this.root = root;
+      this.move = move;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute(){
+      Position position = new Position(root);
+      position.makeMove(move);
+      return new Perft(depth).count(position, depth);
+    }
+  }
+
+  /**
+   * Runs perft on the positions of PerftSuite, printing the node counts and throughput.
+   *
+   * Arguments (all optional):
+   *  - the depth to count to (default: 4)
+   *  - "parallel", to count with parallelPerft()
+   *  - "divide", to also print the count under each root move of the starting position
+   * @param args - the arguments described above
+   */
+  public static void main(String [] args){
+    int depth = 4;
+    boolean parallel = false;
+    boolean divide = false;
+    for(String arg : args){
+      if (arg.equalsIgnoreCase("parallel")) {
+        parallel = true;
+      }
+      else if (arg.equalsIgnoreCase("divide")) {
+        divide = true;
+      }
+      else {
+        depth = Integer.parseInt(arg);
+      }
+    }
+
+    for(PerftSuite.Entry entry : PerftSuite.ENTRIES){
+      int entryDepth = Math.min(depth, entry.maxDepth());
+      Position position = entry.toPosition();
+
+      long start = System.nanoTime();
+      long nodes = parallel ? parallelPerft(position, entryDepth) : perft(position, entryDepth);
+      long elapsed = Math.max(1, System.nanoTime() - start);
+
+      long expected = entry.expected(entryDepth);
+      System.out.println(entry.getName()+" | depth "+entryDepth+" | nodes "+nodes+
+                         (nodes == expected ? "" : " (EXPECTED "+expected+")")+
+                         " | "+(elapsed / 1000000)+" ms | "+(nodes * 1000000000L / elapsed)+" nodes/s");
+    }
+
+    if (divide) {
+      Position start = PerftSuite.ENTRIES.get(0).toPosition();
+      long total = 0;
+      for(Map.Entry<Integer, Long> count : divide(start, depth).entrySet()){
+        System.out.println(Move.toString(count.getKey())+": "+count.getValue());
+        total += count.getValue();
+      }
+      System.out.println("total: "+total);
+    }
+  }
+}
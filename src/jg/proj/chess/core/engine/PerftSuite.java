@@ -0,0 +1,99 @@
+package jg.proj.chess.core.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Reference positions with their exact perft counts (see Perft).
+ *
+ * The counts are for this game's rules: there's no castling, en passant or
+ * Pawn promotion. Where those rules can't come into play yet, the counts match
+ * the published counts of standard chess (like the starting position up to depth 4).
+ *
+ * Positions are described by the unit placement of a FEN record (see Fen).
+ *
+ * @author Jose
+ *
+ */
+public final class PerftSuite {
+
+  public static final List<Entry> ENTRIES = Collections.unmodifiableList(Arrays.asList(
+      new Entry("start", "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR", Pieces.TEAM_ONE,
+                20L, 400L, 8902L, 197281L),
+      new Entry("middlegame", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R", Pieces.TEAM_ONE,
+                46L, 1865L, 86585L, 3488552L),
+      new Entry("endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8", Pieces.TEAM_ONE,
+                14L, 191L, 2810L, 43087L, 671300L),
+      new Entry("endgame-team2", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8", Pieces.TEAM_TWO,
+                15L, 205L, 3044L, 45557L, 736424L),
+      new Entry("pins-and-checks", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1", Pieces.TEAM_ONE,
+                6L, 222L, 7861L, 302707L)));
+
+  private PerftSuite(){}
+
+  /**
+   * A reference position and its perft counts
+   */
+  public static class Entry{
+    private final String name;
+    private final String placement;
+    private final int sideToMove;
+    private final long [] counts;
+
+    /**
+     * Constructs an Entry
+     * @param name - the name of this entry
+     * @param placement - the unit placement of a FEN record
+     * @param sideToMove - the index of the team whose turn it is
+     * @param counts - the perft counts, starting at depth 1
+     */
+    public Entry(String name, String placement, int sideToMove, long ... counts){
+      this.name = name;
+      this.placement = placement;
+      this.sideToMove = sideToMove;
+      this.counts = counts;
+    }
+
+    /**
+     * Creates a new Position with this entry's units and side to move
+     * @return a new Position of this entry
+     */
+    public Position toPosition(){
+      return Fen.parse(placement+(sideToMove == Pieces.TEAM_ONE ? " w" : " b"));
+    }
+
+    /**
+     * Returns the perft count of this entry at the given depth
+     * @param depth - the depth, from 1 to maxDepth()
+     * @return the perft count of this entry at the given depth
+     */
+    public long expected(int depth){
+      return counts[depth - 1];
+    }
+
+    /**
+     * Returns the deepest depth this entry has a perft count for
+     * @return the deepest depth this entry has a perft count for
+     */
+    public int maxDepth(){
+      return counts.length;
+    }
+
+    public String getName(){
+      return name;
+    }
+
+    public String getPlacement(){
+      return placement;
+    }
+
+    public int getSideToMove(){
+      return sideToMove;
+    }
+  }
+}
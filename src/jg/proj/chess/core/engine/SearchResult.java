@@ -0,0 +1,72 @@
+package jg.proj.chess.core.engine;
+
+import jg.proj.chess.core.bitboard.Move;
+
+/**
+ * The outcome of a search (see Searcher): the best move found, its score
+ * and how much work it took to find.
+ *
+ * @author Jose
+ *
+ */
+public final class SearchResult {
+
+  private final int move;
+  private final int score;
+  private final int depth;
+  private final long nodes;
+  private final long millis;
+
+  SearchResult(int move, int score, int depth, long nodes, long millis){
+    this.move = move;
+    this.score = score;
+    this.depth = depth;
+    this.nodes = nodes;
+    this.millis = millis;
+  }
+
+  /**
+   * Returns the best move found
+   * @return the best move found (see jg.proj.chess.core.bitboard.Move), or Move.NONE if there are no legal moves
+   */
+  public int getMove(){
+    return move;
+  }
+
+  /**
+   * Returns the score of the best move, from the view of the team that was to move
+   * @return the score of the best move, in centipawns (or near Searcher.MATE if a mate was found)
+   */
+  public int getScore(){
+    return score;
+  }
+
+  /**
+   * Returns the deepest iteration that was fully searched
+   * @return the deepest iteration that was fully searched
+   */
+  public int getDepth(){
+    return depth;
+  }
+
+  public long getNodes(){
+    return nodes;
+  }
+
+  public long getMillis(){
+    return millis;
+  }
+
+  /**
+   * Checks if the score of this result is a forced mate, for either team
+   * @return true if the score is a forced mate, false if else
+   */
+  public boolean isMate(){
+    return Math.abs(score) >= Searcher.MATE - Searcher.MAX_PLY;
+  }
+
+  @Override
+  public String toString(){
+    return Move.toString(move)+" score="+score+" depth="+depth+" nodes="+nodes+" time="+millis+"ms";
+  }
+}
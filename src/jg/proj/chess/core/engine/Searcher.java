@@ -0,0 +1,515 @@
+package jg.proj.chess.core.engine;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.PieceSquareTables;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Finds the best move of a Position within a time budget.
+ *
+ * The search is an iterative deepening principal variation search (alpha-beta
+ * where every move but the first is searched with a null window first), followed
+ * by a quiescence search of captures so that positions are never scored in the
+ * middle of an exchange. Moves are tried in order of: the best move stored in the
+ * TranspositionTable, captures (most valuable victim, then least valuable attacker),
+ * killer moves, then quiet moves by their history of causing cutoffs.
+ *
+ * The deadline is hard: once it passes, the current iteration is abandoned and the
+ * best move of the last completed iteration is returned. The clock is only read
+ * every thousand or so nodes, so a search only overshoots its budget by a few milliseconds.
+ *
+ * A Searcher reuses its move lists and ordering tables and so isn't thread-safe,
+ * though its TranspositionTable may be shared (see ParallelSearcher).
+ *
+ * @author Jose
+ *
+ */
+public class Searcher {
+
+  /**
+   * The score of a checkmate at the root. Mates found further away score less
+   */
+  public static final int MATE = 30000;
+
+  /**
+   * The deepest ply a search can reach, quiescence included
+   */
+  public static final int MAX_PLY = 64;
+
+  /**
+   * The default amount of memory of a Searcher's own TranspositionTable, in MB
+   */
+  public static final int DEFAULT_TABLE_SIZE = 16;
+
+  private static final int INFINITY = MATE + 1;
+
+  /**
+   * Unit values for ordering captures, in centipawns, by unit type (see Pieces): the
+   * evaluation's (see PieceSquareTables.value()), except for Kings. They're worth nothing
+   * to the evaluation, and are only given a value here so that capturing one is always tried first
+   */
+  private static final int KING_VALUE = 20000;
+  private static final int [] VALUES = new int[Pieces.TYPE_COUNT];
+
+  static {
+    for(int type = 0; type < Pieces.TYPE_COUNT; type++){
+      VALUES[type] = type == Pieces.KING ? KING_VALUE : PieceSquareTables.value(type);
+    }
+  }
+
+  /**
+   * Amount of nodes searched in between reads of the clock. Must be a power of 2
+   */
+  private static final int CLOCK_INTERVAL = 1024;
+
+  private static final int TT_MOVE_SCORE = 1 << 30;
+  private static final int CAPTURE_SCORE = 1 << 28;
+  private static final int KILLER_SCORE = 1 << 27;
+
+  private final TranspositionTable table;
+  
+  /**
+   * Exact outcomes of small endgames. Null if there's none
+   */
+  private Tablebase tablebase;
+
+  private final MoveList [] moveLists;
+  private final int [][] moveScores;
+
+  /**
+   * Two quiet moves per ply that last caused a cutoff
+   */
+  private final int [][] killers;
+
+  /**
+   * How often a quiet move, by origin and destination, caused a cutoff
+   */
+  private final int [][] history;
+
+  private long deadline;
+  private long nodes;
+
+  /**
+   * The best move found so far by the current iteration
+   */
+  private int rootMove;
+  private volatile boolean stopped;
+
+  /**
+   * Constructs a Searcher with its own TranspositionTable
+   */
+  public Searcher(){
+    this(new TranspositionTable(DEFAULT_TABLE_SIZE));
+  }
+
+  /**
+   * Constructs a Searcher
+   * @param table - the TranspositionTable to store analyzed positions in
+   */
+  public Searcher(TranspositionTable table){
+    this.table = table;
+    this.moveLists = new MoveList[MAX_PLY + 1];
+    this.moveScores = new int[MAX_PLY + 1][MoveList.DEFAULT_CAPACITY];
+    for(int i = 0; i < moveLists.length; i++){
+      moveLists[i] = new MoveList();
+    }
+    this.killers = new int[MAX_PLY + 1][2];
+    this.history = new int[64][64];
+  }
+
+  /**
+   * Searches for the best move of the team whose turn it is
+   * @param position - the Position to search. It's left unchanged
+   * @param millis - the time budget of the search, in milliseconds
+   * @return the result of the search
+   */
+  public SearchResult search(Position position, long millis){
+    return search(position, millis, MAX_PLY);
+  }
+
+  /**
+   * Searches for the best move of the team whose turn it is
+   * @param position - the Position to search. It's left unchanged
+   * @param millis - the time budget of the search, in milliseconds
+   * @param maxDepth - the deepest iteration to search to
+   * @return the result of the search
+   */
+  public SearchResult search(Position position, long millis, int maxDepth){
+    stopped = false;
+    table.newSearch();
+    return iterate(position, System.nanoTime() + Math.max(1, millis) * 1000000L, maxDepth, 0);
+  }
+
+  /**
+   * Searches deeper and deeper until the deadline passes, maxDepth is reached or stop() is called
+   * @param position - the Position to search. It's left unchanged
+   * @param deadline - when to stop searching, in System.nanoTime() 
+   * @param maxDepth - the deepest iteration to search to
+   * @param depthOffset - added to the depth of every iteration. Lazy SMP helpers (see ParallelSearcher) 
+   *                      use it to search ahead of the main thread
+   * @return the result of the search
+   */
+  SearchResult iterate(Position position, long deadline, int maxDepth, int depthOffset){
+    long start = System.nanoTime();
+    this.deadline = deadline;
+    nodes = 0;
+    clearOrdering();
+
+    //search a copy, so that an abandoned iteration can't leave the caller's position half-made
+    Position copy = new Position(position);
+    MoveList rootMoves = moveLists[0];
+    rootMoves.clear();
+    MoveGenerator.generateLegal(copy, rootMoves);
+
+    int bestMove = rootMoves.isEmpty() ? Move.NONE : rootMoves.get(0);
+    int bestScore = 0;
+    int completed = 0;
+
+    //with one legal move (or none), there's nothing to think about
+    if (rootMoves.size() > 1) {
+      for(int depth = 1 + depthOffset; depth <= Math.min(maxDepth, MAX_PLY); depth++){
+        int score = search(copy, depth, 0, -INFINITY, INFINITY);
+        if (stopped) {
+          break;
+        }
+
+        bestMove = rootMove;
+        bestScore = score;
+        completed = depth;
+
+        //a forced mate won't get any better with more depth
+        if (Math.abs(score) >= MATE - MAX_PLY) {
+          break;
+        }
+      }
+    }
+
+    return new SearchResult(bestMove, bestScore, completed, nodes, (System.nanoTime() - start) / 1000000L);
+  }
+
+  /**
+   * Abandons the search in progress, if any. Safe to call from any thread
+   */
+  public void stop(){
+    stopped = true;
+  }
+
+  public TranspositionTable getTable(){
+    return table;
+  }
+
+  /**
+   * Sets the Tablebase to look endgames up in. Positions it covers aren't searched any further
+   * @param tablebase - the Tablebase to look endgames up in, or null for none
+   */
+  public void setTablebase(Tablebase tablebase){
+    this.tablebase = tablebase;
+  }
+
+  /**
+   * Scores a Position from the view of the team whose turn it is
+   * @param position - the Position to score
+   * @return the score of the Position, in centipawns
+   */
+  protected int evaluate(Position position){
+    return Evaluator.evaluate(position);
+  }
+
+  private int search(Position position, int depth, int ply, int alpha, int beta){
+    if (depth <= 0 || ply >= MAX_PLY) {
+      return quiesce(position, ply, alpha, beta);
+    }
+
+    countNode();
+    if (stopped) {
+      return 0;
+    }
+
+    int team = position.getSideToMove();
+    if (lostKing(position, team)) {
+      return -MATE + ply;
+    }
+
+    //repeating a position (even once) or running out the fifty-move clock heads for a draw
+    if (ply > 0 && (position.getHalfmoveClock() >= Position.FIFTY_MOVE_PLIES || position.repetitions() > 0)) {
+      return 0;
+    }
+
+    //a previous search of this position may already settle it, or at least suggest a move
+    long hash = position.getHash();
+    long entry = table.probe(hash);
+    int hashMove = Move.NONE;
+    if (entry != TranspositionTable.MISS) {
+      hashMove = TranspositionTable.move(entry);
+      if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+        int score = fromTable(TranspositionTable.score(entry), ply);
+        int bound = TranspositionTable.bound(entry);
+        if (bound == TranspositionTable.EXACT ||
+            (bound == TranspositionTable.LOWER && score >= beta) ||
+            (bound == TranspositionTable.UPPER && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    //endgames with a table are known exactly. Mates are scored from the root
+    if (tablebase != null && ply > 0 && Bitboards.count(position.occupancy()) <= Tablebase.MAX_UNITS) {
+      int known = tablebase.probe(position);
+      if (known != Tablebase.NOT_FOUND) {
+        //tables ignore the fifty-move clock: a mate that can't be given before the clock runs out is a draw
+        int distance = MATE - Math.abs(known);
+        if (known == 0 || position.getHalfmoveClock() + distance >= Position.FIFTY_MOVE_PLIES) {
+          return 0;
+        }
+        return known > 0 ? known - ply : known + ply;
+      }
+    }
+
+    MoveList moves = moveLists[ply];
+    moves.clear();
+    MoveGenerator.generateLegal(position, moves);
+
+    boolean inCheck = MoveGenerator.isInCheck(position, team);
+    if (moves.isEmpty()) {
+      return inCheck ? -MATE + ply : 0;
+    }
+
+    //don't let a check push a threat over the horizon
+    if (inCheck) {
+      depth++;
+    }
+
+    scoreMoves(moves, ply, hashMove);
+
+    int originalAlpha = alpha;
+    int bestScore = -INFINITY;
+    int bestMove = Move.NONE;
+    for(int i = 0; i < moves.size(); i++){
+      int move = nextMove(moves, ply, i);
+
+      position.makeMove(move);
+      int score;
+      if (i == 0) {
+        score = -search(position, depth - 1, ply + 1, -beta, -alpha);
+      }
+      else {
+        //prove that this move is no better than the best so far, and only search it fully if it is
+        score = -search(position, depth - 1, ply + 1, -alpha - 1, -alpha);
+        if (score > alpha && score < beta) {
+          score = -search(position, depth - 1, ply + 1, -beta, -alpha);
+        }
+      }
+      position.unmakeMove();
+
+      if (stopped) {
+        return 0;
+      }
+
+      if (score > bestScore) {
+        bestScore = score;
+        bestMove = move;
+        if (ply == 0) {
+          rootMove = move;
+        }
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            if (!Move.isCapture(move)) {
+              rememberCutoff(move, ply, depth);
+            }
+            break;
+          }
+        }
+      }
+    }
+
+    int bound = bestScore >= beta ? TranspositionTable.LOWER :
+                bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+    table.store(hash, bestMove, toTable(bestScore, ply), depth, bound);
+    return bestScore;
+  }
+
+  private int quiesce(Position position, int ply, int alpha, int beta){
+    countNode();
+    if (stopped) {
+      return 0;
+    }
+
+    int team = position.getSideToMove();
+    if (lostKing(position, team)) {
+      return -MATE + ply;
+    }
+
+    MoveList moves = moveLists[Math.min(ply, MAX_PLY)];
+    moves.clear();
+    MoveGenerator.generateLegal(position, moves);
+
+    boolean inCheck = MoveGenerator.isInCheck(position, team);
+    if (moves.isEmpty()) {
+      return inCheck ? -MATE + ply : 0;
+    }
+
+    //"stand pat": the team to move doesn't have to capture, unless it's in check
+    int bestScore = -INFINITY;
+    if (!inCheck) {
+      bestScore = evaluate(position);
+      if (bestScore >= beta || ply >= MAX_PLY) {
+        return bestScore;
+      }
+      alpha = Math.max(alpha, bestScore);
+    }
+    else if (ply >= MAX_PLY) {
+      return evaluate(position);
+    }
+
+    scoreMoves(moves, ply, Move.NONE);
+    for(int i = 0; i < moves.size(); i++){
+      int move = nextMove(moves, ply, i);
+
+      //out of check, only captures are searched. Captures are ordered first, so the rest can be skipped
+      if (!inCheck && !Move.isCapture(move)) {
+        break;
+      }
+
+      position.makeMove(move);
+      int score = -quiesce(position, ply + 1, -beta, -alpha);
+      position.unmakeMove();
+
+      if (stopped) {
+        return 0;
+      }
+
+      if (score > bestScore) {
+        bestScore = score;
+        if (score > alpha) {
+          alpha = score;
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+    return bestScore;
+  }
+
+  /**
+   * Scores every move of a ply for ordering. Moves are then picked one
+   * at a time by nextMove(), as a cutoff often makes sorting the rest pointless
+   */
+  private void scoreMoves(MoveList moves, int ply, int hashMove){
+    int [] scores = moveScores[ply];
+    if (scores.length < moves.size()) {
+      scores = moveScores[ply] = new int[moves.size()];
+    }
+
+    for(int i = 0; i < moves.size(); i++){
+      int move = moves.get(i);
+      if (move == hashMove) {
+        scores[i] = TT_MOVE_SCORE;
+      }
+      else if (Move.isCapture(move)) {
+        scores[i] = CAPTURE_SCORE + VALUES[Pieces.type(Move.captured(move))] * 8 - VALUES[Pieces.type(Move.piece(move))] / 100;
+      }
+      else if (move == killers[ply][0] || move == killers[ply][1]) {
+        scores[i] = KILLER_SCORE;
+      }
+      else {
+        scores[i] = history[Move.from(move)][Move.to(move)];
+      }
+    }
+  }
+
+  /**
+   * Swaps the best scored move left into the given index, and returns it
+   */
+  private int nextMove(MoveList moves, int ply, int index){
+    int [] scores = moveScores[ply];
+    int best = index;
+    for(int i = index + 1; i < moves.size(); i++){
+      if (scores[i] > scores[best]) {
+        best = i;
+      }
+    }
+
+    int move = moves.get(best);
+    if (best != index) {
+      moves.set(best, moves.get(index));
+      moves.set(index, move);
+      int score = scores[best];
+      scores[best] = scores[index];
+      scores[index] = score;
+    }
+    return move;
+  }
+
+  private void rememberCutoff(int move, int ply, int depth){
+    if (killers[ply][0] != move) {
+      killers[ply][1] = killers[ply][0];
+      killers[ply][0] = move;
+    }
+
+    int [] fromHistory = history[Move.from(move)];
+    fromHistory[Move.to(move)] += depth * depth;
+
+    //keep history scores well below the killer and capture scores
+    if (fromHistory[Move.to(move)] >= KILLER_SCORE) {
+      for(int [] row : history){
+        for(int i = 0; i < row.length; i++){
+          row[i] /= 2;
+        }
+      }
+    }
+  }
+
+  private void clearOrdering(){
+    for(int [] plyKillers : killers){
+      plyKillers[0] = plyKillers[1] = Move.NONE;
+    }
+    for(int [] row : history){
+      for(int i = 0; i < row.length; i++){
+        row[i] = 0;
+      }
+    }
+  }
+
+  private void countNode(){
+    if ((++nodes & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() >= deadline) {
+      stopped = true;
+    }
+  }
+
+  /**
+   * Checks if a team has lost its King while its opponent still has one. A King can
+   * only be captured if its team passed its turn while in check (see Session)
+   */
+  private static boolean lostKing(Position position, int team){
+    return position.kingSquare(team) < 0 && position.kingSquare(Pieces.opponent(team)) >= 0;
+  }
+
+  /**
+   * Mate scores are stored relative to the position they were found at, rather than the root
+   */
+  private static int toTable(int score, int ply){
+    if (score >= MATE - MAX_PLY) {
+      return score + ply;
+    }
+    if (score <= -MATE + MAX_PLY) {
+      return score - ply;
+    }
+    return score;
+  }
+
+  private static int fromTable(int score, int ply){
+    if (score >= MATE - MAX_PLY) {
+      return score - ply;
+    }
+    if (score <= -MATE + MAX_PLY) {
+      return score + ply;
+    }
+    return score;
+  }
+}
@@ -0,0 +1,241 @@
+package jg.proj.chess.core.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.PieceList;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Probes endgame tablebases: files holding the exact outcome of every position
+ * of a small set of units, written by TablebaseGenerator.
+ *
+ * A table covers one material set, named by each team's units, like "KQvK" for
+ * a King and Queen of Team 1 against a lone King of Team 2. Positions where Team 2
+ * has the Queen are probed through the same table, by mirroring the board.
+ *
+ * A table file is a 16 byte header (see TablebaseGenerator), followed by one byte per
+ * position, at index: side to move * 64^n + the square of each unit as a base 64 digit
+ * (units ordered by piece code). A byte of 0 is a draw. Any other byte is a distance to
+ * mate plus one, in plies: odd distances are wins for the team to move, even distances
+ * are losses (0 being checkmated).
+ *
+ * Tables are memory mapped on first use, so probing reads straight from the operating
+ * system's page cache and never loads a table onto the heap. A Tablebase is safe to
+ * probe from any amount of threads.
+ *
+ * @author Jose
+ *
+ */
+public class Tablebase {
+
+  /**
+   * Returned by probe() when there's no table for a Position
+   */
+  public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+  /**
+   * The most units a table can hold, Kings included
+   */
+  public static final int MAX_UNITS = 4;
+
+  public static final String EXTENSION = ".dctb";
+
+  static final int MAGIC = 0x44435442;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 16;
+
+  private final Path directory;
+
+  /**
+   * Mapped tables by name. Tables found missing are remembered as empty
+   */
+  private final Map<String, Optional<ByteBuffer>> tables;
+
+  /**
+   * Constructs a Tablebase
+   * @param directory - the directory holding the table files
+   */
+  public Tablebase(Path directory){
+    this.directory = directory;
+    this.tables = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Looks up the outcome of a Position
+   * @param position - the Position to look up
+   * @return the score of the Position for the team whose turn it is: Searcher.MATE minus the plies
+   *         to mate if it wins, the negative of that if it loses, or 0 if it's a draw.
+   *         NOT_FOUND if there's no table for the Position (or the team not to move is in check).
+   *         The Position's halfmove clock is ignored, so a mate may be further away than the fifty-move rule allows
+   * @throws IllegalStateException if a table file is unreadable or malformed
+   */
+  public int probe(Position position){
+    int [] codes = signature(position);
+    if (codes == null || MoveGenerator.isInCheck(position, Pieces.opponent(position.getSideToMove()))) {
+      return NOT_FOUND;
+    }
+
+    boolean mirrored = false;
+    ByteBuffer table = table(codes);
+    if (table == null) {
+      //look for the table of the same units, with the teams swapped
+      codes = mirror(codes);
+      table = table(codes);
+      mirrored = true;
+      if (table == null) {
+        return NOT_FOUND;
+      }
+    }
+
+    int [] squares = new int[codes.length];
+    int side = mirrored ? Pieces.opponent(position.getSideToMove()) : position.getSideToMove();
+    PieceList pieceList = position.getPieceList();
+    for(int slot = 0; slot < codes.length; ){
+      //mirrored slots hold the other team's units, on the mirrored squares
+      int code = codes[slot];
+      int positionCode = mirrored ? mirrorCode(code) : code;
+      for(int i = 0; i < pieceList.count(positionCode); i++){
+        int square = pieceList.square(positionCode, i);
+        squares[slot++] = mirrored ? square ^ 56 : square;
+      }
+    }
+
+    return score(table.get(HEADER_SIZE + index(side, squares, squares.length)));
+  }
+
+  /**
+   * Checks if there's a table for a Position's units
+   * @param position - the Position to check
+   * @return true if there's a table for the Position's units, false if else
+   */
+  public boolean covers(Position position){
+    int [] codes = signature(position);
+    return codes != null && (table(codes) != null || table(mirror(codes)) != null);
+  }
+
+  public Path getDirectory(){
+    return directory;
+  }
+
+  /**
+   * Converts a table byte into a score for the team to move
+   */
+  static int score(byte value){
+    int distance = (value & 0xFF) - 1;
+    if (distance < 0) {
+      return 0;
+    }
+    return distance % 2 == 1 ? Searcher.MATE - distance : -(Searcher.MATE - distance);
+  }
+
+  /**
+   * Calculates the index of a position in a table
+   * @param side - the team to move
+   * @param squares - the square of each unit, in the table's order
+   * @param units - the amount of units
+   * @return the index of the position
+   */
+  static int index(int side, int [] squares, int units){
+    int index = side;
+    for(int i = 0; i < units; i++){
+      index = (index << 6) | squares[i];
+    }
+    return index;
+  }
+
+  /**
+   * Returns the name of the table of a material set
+   * @param codes - the piece codes of the units, in ascending order
+   * @return the name of the table (ex: "KQvK")
+   */
+  static String name(int [] codes){
+    StringBuilder teamOne = new StringBuilder();
+    StringBuilder teamTwo = new StringBuilder();
+    for(int code : codes){
+      char letter = Character.toUpperCase(Fen.letter(code));
+      (Pieces.team(code) == Pieces.TEAM_ONE ? teamOne : teamTwo).append(letter);
+    }
+    return teamOne+"v"+teamTwo;
+  }
+
+  /**
+   * Returns the piece codes of a Position's units, in ascending order
+   * @return the piece codes, or null if there are too many units or a team has no King
+   */
+  private static int [] signature(Position position){
+    int units = Bitboards.count(position.occupancy());
+    if (units > MAX_UNITS || position.kingSquare(Pieces.TEAM_ONE) < 0 || position.kingSquare(Pieces.TEAM_TWO) < 0) {
+      return null;
+    }
+
+    int [] codes = new int[units];
+    int slot = 0;
+    PieceList pieceList = position.getPieceList();
+    for(int code = 1; code <= Pieces.MAX_CODE; code++){
+      for(int i = 0; i < pieceList.count(code); i++){
+        codes[slot++] = code;
+      }
+    }
+    return codes;
+  }
+
+  private static int [] mirror(int [] codes){
+    int [] mirrored = new int[codes.length];
+    for(int i = 0; i < codes.length; i++){
+      mirrored[i] = mirrorCode(codes[i]);
+    }
+    Arrays.sort(mirrored);
+    return mirrored;
+  }
+
+  private static int mirrorCode(int code){
+    return Pieces.code(Pieces.opponent(Pieces.team(code)), Pieces.type(code));
+  }
+
+  private ByteBuffer table(int [] codes){
+    return tables.computeIfAbsent(name(codes), name -> Optional.ofNullable(map(name, codes))).orElse(null);
+  }
+
+  private ByteBuffer map(String name, int [] codes){
+    Path path = directory.resolve(name + EXTENSION);
+    if (!Files.isRegularFile(path)) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long expected = HEADER_SIZE + (2L << (6 * codes.length));
+      if (channel.size() != expected) {
+        throw new IllegalStateException("Table "+path+" should be "+expected+" bytes, but is "+channel.size());
+      }
+
+      MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      table.order(ByteOrder.BIG_ENDIAN);
+      if (table.getInt(0) != MAGIC || table.get(4) != VERSION || table.get(5) != codes.length) {
+        throw new IllegalStateException("Table "+path+" has a bad header");
+      }
+      for(int i = 0; i < codes.length; i++){
+        if (table.get(6 + i) != codes[i]) {
+          throw new IllegalStateException("Table "+path+" isn't for "+name);
+        }
+      }
+      return table;
+    } catch (IOException e) {
+      throw new IllegalStateException("Couldn't map table "+path, e);
+    }
+  }
+}
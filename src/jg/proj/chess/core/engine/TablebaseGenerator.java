@@ -0,0 +1,437 @@
+package jg.proj.chess.core.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jg.proj.chess.core.bitboard.Attacks;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * Generates endgame tablebases (see Tablebase) by retrograde analysis.
+ *
+ * Every position of a material set is first classified by its legal moves: checkmates
+ * are lost now, stalemates are drawn, and captures are looked up in the tables of the
+ * smaller material sets they lead to (which are generated first). The remaining
+ * positions are then solved backwards from the checkmates, one distance at a time:
+ *  - a position from which a move reaches a lost position is won, one ply further away
+ *  - a position whose every move reaches a won position is lost, one ply further than its longest defense
+ * Moves are walked backwards by "unmoving" units on the attack tables, so each position
+ * is only generated once. Positions never reached this way are draws.
+ *
+ * Table sizes grow by 64 times per unit: a 3 unit table is 512 KB, and a 4 unit
+ * table is 32 MB, needing about 5 times that in heap space to generate.
+ *
+ * Usage: TablebaseGenerator [directory] [material set]... (ex: "tables KQvK KRvK KPvK")
+ *
+ * @author Jose
+ *
+ */
+public class TablebaseGenerator {
+
+  /**
+   * The longest distance to mate, in plies, that a table can hold
+   */
+  public static final int MAX_DISTANCE = 254;
+
+  private static final byte INVALID = 1;
+  private static final byte SOLVED = 2;
+  /**
+   * Set on positions that can't be lost: a capture draws or wins
+   */
+  private static final byte ESCAPE = 4;
+
+  /**
+   * Tables generated so far, by name. Values are table bytes, without a header
+   */
+  private final Map<String, byte []> tables;
+
+  private final Position position;
+  private final MoveList moves;
+
+  /**
+   * Constructs a TablebaseGenerator
+   */
+  public TablebaseGenerator(){
+    tables = new LinkedHashMap<>();
+    position = new Position();
+    moves = new MoveList();
+  }
+
+  /**
+   * Generates the table of a material set, along with the tables of every smaller material set it captures into
+   * @param codes - the piece codes of the units. Both teams need exactly one King
+   * @return the table bytes, indexed as described by Tablebase
+   * @throws IllegalArgumentException if the material set isn't supported
+   */
+  public byte [] generate(int ... codes){
+    codes = codes.clone();
+    Arrays.sort(codes);
+    validate(codes);
+
+    byte [] table = tables.get(Tablebase.name(codes));
+    if (table == null) {
+      //tables captured into must be solved first
+      for(int i = 0; i < codes.length; i++){
+        if (Pieces.type(codes[i]) != Pieces.KING && !onlyKings(remove(codes, i))) {
+          generate(remove(codes, i));
+        }
+      }
+
+      table = solve(codes);
+      tables.put(Tablebase.name(codes), table);
+    }
+    return table;
+  }
+
+  /**
+   * Generates the table of a material set (and those it captures into), and writes every table generated so far
+   * @param directory - the directory to write the table files to
+   * @param codes - the piece codes of the units. Both teams need exactly one King
+   * @throws IOException if a file can't be written
+   */
+  public void write(Path directory, int ... codes) throws IOException{
+    generate(codes);
+    Files.createDirectories(directory);
+
+    for(Map.Entry<String, byte []> entry : tables.entrySet()){
+      byte [] table = entry.getValue();
+      int units = Integer.numberOfTrailingZeros(table.length / 2) / 6;
+      int [] tableCodes = parse(entry.getKey());
+
+      ByteBuffer header = ByteBuffer.allocate(Tablebase.HEADER_SIZE);
+      header.putInt(Tablebase.MAGIC).put((byte) Tablebase.VERSION).put((byte) units);
+      for(int code : tableCodes){
+        header.put((byte) code);
+      }
+      header.clear();
+
+      Path path = directory.resolve(entry.getKey() + Tablebase.EXTENSION);
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING)) {
+        ByteBuffer [] buffers = {header, ByteBuffer.wrap(table)};
+        while (buffers[1].hasRemaining()) {
+          channel.write(buffers);
+        }
+      }
+    }
+  }
+
+  /**
+   * Parses the name of a material set
+   * @param name - the name of the material set: Team 1's units, 'v', then Team 2's (ex: "KRvK")
+   * @return the piece codes of the units, in ascending order
+   * @throws IllegalArgumentException if the name is malformed
+   */
+  public static int [] parse(String name){
+    int split = name.indexOf('v');
+    if (split < 0 || split != name.lastIndexOf('v')) {
+      throw new IllegalArgumentException("A material set is written like KQvK: "+name);
+    }
+
+    int [] codes = new int[name.length() - 1];
+    int slot = 0;
+    for(int i = 0; i < name.length(); i++){
+      if (i != split) {
+        int type = "KQRBNP".indexOf(name.charAt(i));
+        if (type < 0) {
+          throw new IllegalArgumentException("Unknown unit '"+name.charAt(i)+"' in "+name);
+        }
+        codes[slot++] = Pieces.code(i < split ? Pieces.TEAM_ONE : Pieces.TEAM_TWO, type);
+      }
+    }
+    Arrays.sort(codes);
+    return codes;
+  }
+
+  private byte [] solve(int [] codes){
+    int units = codes.length;
+    int size = 2 << (6 * units);
+
+    byte [] values = new byte[size];
+    byte [] states = new byte[size];
+    byte [] remaining = new byte[size];
+    byte [] longest = new byte[size];
+    Bucket [] buckets = new Bucket[MAX_DISTANCE + 1];
+    for(int i = 0; i < buckets.length; i++){
+      buckets[i] = new Bucket();
+    }
+
+    int [] squares = new int[units];
+    for(int index = 0; index < size; index++){
+      decode(index, units, squares);
+      if (!setUp(codes, squares, index >>> (6 * units))) {
+        states[index] = INVALID;
+        continue;
+      }
+
+      moves.clear();
+      MoveGenerator.generateLegal(position, moves);
+      if (moves.isEmpty()) {
+        if (MoveGenerator.isInCheck(position, position.getSideToMove())) {
+          buckets[0].add(index);
+        }
+        else {
+          states[index] = SOLVED;
+        }
+        continue;
+      }
+
+      int inTable = 0;
+      int longestDefense = 0;
+      int quickestWin = Integer.MAX_VALUE;
+      for(int i = 0; i < moves.size(); i++){
+        int move = moves.get(i);
+        if (!Move.isCapture(move)) {
+          inTable++;
+          continue;
+        }
+
+        //a capture leaves this table: look its outcome up in the smaller table
+        int distance = captureDistance(codes, squares, move);
+        if (distance < 0) {
+          states[index] |= ESCAPE;
+        }
+        else if (distance % 2 == 0) {
+          quickestWin = Math.min(quickestWin, distance + 1);
+        }
+        else {
+          longestDefense = Math.max(longestDefense, distance + 1);
+        }
+      }
+
+      remaining[index] = (byte) inTable;
+      longest[index] = (byte) longestDefense;
+      if (quickestWin != Integer.MAX_VALUE) {
+        //a winning capture can't be lost, though a quicker win may still be found
+        states[index] |= ESCAPE;
+        schedule(buckets, quickestWin, index);
+      }
+      else if (inTable == 0 && (states[index] & ESCAPE) == 0) {
+        schedule(buckets, longestDefense, index);
+      }
+    }
+
+    //solve backwards from the shortest distances
+    for(int distance = 0; distance <= MAX_DISTANCE; distance++){
+      Bucket bucket = buckets[distance];
+      for(int i = 0; i < bucket.size; i++){
+        int index = bucket.items[i];
+        if ((states[index] & SOLVED) != 0) {
+          continue;
+        }
+        states[index] |= SOLVED;
+        values[index] = (byte) (distance + 1);
+
+        int side = index >>> (6 * units);
+        decode(index, units, squares);
+        long occupancy = 0;
+        for(int square : squares){
+          occupancy |= Bitboards.bit(square);
+        }
+
+        //every unit of the team that just moved may have come from somewhere else
+        int mover = Pieces.opponent(side);
+        for(int slot = 0; slot < units; slot++){
+          if (Pieces.team(codes[slot]) != mover) {
+            continue;
+          }
+
+          int to = squares[slot];
+          for(long froms = unmoves(codes[slot], to, occupancy); froms != 0; froms = Bitboards.next(froms)){
+            squares[slot] = Bitboards.first(froms);
+            int previous = Tablebase.index(mover, squares, units);
+            squares[slot] = to;
+
+            if ((states[previous] & (INVALID | SOLVED)) != 0) {
+              continue;
+            }
+
+            if (distance % 2 == 0) {
+              //this position is lost for the team to move, so moving into it wins
+              schedule(buckets, distance + 1, previous);
+            }
+            else {
+              longest[previous] = (byte) Math.max(longest[previous] & 0xFF, distance + 1);
+              if (--remaining[previous] == 0 && (states[previous] & ESCAPE) == 0) {
+                schedule(buckets, longest[previous] & 0xFF, previous);
+              }
+            }
+          }
+        }
+      }
+      buckets[distance] = null;
+    }
+
+    return values;
+  }
+
+  /**
+   * Finds the squares a unit on a square may have moved from, without capturing
+   */
+  private static long unmoves(int code, int to, long occupancy){
+    long empty = ~occupancy;
+    switch (Pieces.type(code)) {
+    case Pieces.KING:
+      return Attacks.king(to) & empty;
+    case Pieces.QUEEN:
+      return Attacks.queen(to, occupancy) & empty;
+    case Pieces.ROOK:
+      return Attacks.rook(to, occupancy) & empty;
+    case Pieces.BISHOP:
+      return Attacks.bishop(to, occupancy) & empty;
+    case Pieces.KNIGHT:
+      return Attacks.knight(to) & empty;
+    default:
+      //pawns step back towards their starting files, or double step back onto them
+      long bit = Bitboards.bit(to);
+      if (Pieces.team(code) == Pieces.TEAM_ONE) {
+        long step = (bit >>> 8) & empty;
+        return step | ((step & 0xFF0000L) >>> 8 & empty);
+      }
+      long step = (bit << 8) & empty;
+      return step | ((step & 0xFF0000000000L) << 8 & empty);
+    }
+  }
+
+  /**
+   * Looks up the distance to mate of the position a capture leads to, in its smaller table
+   * @return the distance to mate of the position after the capture, or -1 if it's a draw
+   */
+  private int captureDistance(int [] codes, int [] squares, int move){
+    int captured = -1;
+    for(int slot = 0; slot < codes.length; slot++){
+      if (squares[slot] == Move.to(move)) {
+        captured = slot;
+      }
+    }
+
+    int [] childCodes = remove(codes, captured);
+    if (onlyKings(childCodes)) {
+      return -1;
+    }
+
+    int [] childSquares = new int[childCodes.length];
+    for(int slot = 0, child = 0; slot < codes.length; slot++){
+      if (slot != captured) {
+        childSquares[child++] = squares[slot] == Move.from(move) ? Move.to(move) : squares[slot];
+      }
+    }
+
+    int side = Pieces.opponent(Pieces.team(Move.piece(move)));
+    byte value = tables.get(Tablebase.name(childCodes))[Tablebase.index(side, childSquares, childSquares.length)];
+    return (value & 0xFF) - 1;
+  }
+
+  /**
+   * Places a position's units on the scratch Position
+   * @return true if the position can be reached: no two units share a square, and the team not to move isn't in check
+   */
+  private boolean setUp(int [] codes, int [] squares, int side){
+    long occupancy = 0;
+    for(int square : squares){
+      if ((occupancy & Bitboards.bit(square)) != 0) {
+        return false;
+      }
+      occupancy |= Bitboards.bit(square);
+    }
+
+    position.clear();
+    position.setSideToMove(side);
+    for(int slot = 0; slot < codes.length; slot++){
+      position.place(squares[slot], Pieces.team(codes[slot]), Pieces.type(codes[slot]));
+    }
+    return !MoveGenerator.isInCheck(position, Pieces.opponent(side));
+  }
+
+  private static void schedule(Bucket [] buckets, int distance, int index){
+    if (distance > MAX_DISTANCE) {
+      throw new IllegalStateException("A mate is more than "+MAX_DISTANCE+" plies away");
+    }
+    buckets[distance].add(index);
+  }
+
+  private static void decode(int index, int units, int [] squares){
+    for(int slot = units - 1; slot >= 0; slot--){
+      squares[slot] = index & 63;
+      index >>>= 6;
+    }
+  }
+
+  private static void validate(int [] codes){
+    int [] kings = new int[Pieces.TEAM_COUNT];
+    for(int code : codes){
+      if (code <= Pieces.EMPTY || code > Pieces.MAX_CODE) {
+        throw new IllegalArgumentException("Bad piece code: "+code);
+      }
+      if (Pieces.type(code) == Pieces.KING) {
+        kings[Pieces.team(code)]++;
+      }
+    }
+
+    if (kings[Pieces.TEAM_ONE] != 1 || kings[Pieces.TEAM_TWO] != 1) {
+      throw new IllegalArgumentException("Each team needs exactly one King: "+Tablebase.name(codes));
+    }
+    if (codes.length > Tablebase.MAX_UNITS) {
+      throw new IllegalArgumentException("Tables hold at most "+Tablebase.MAX_UNITS+" units: "+Tablebase.name(codes));
+    }
+  }
+
+  private static boolean onlyKings(int [] codes){
+    for(int code : codes){
+      if (Pieces.type(code) != Pieces.KING) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static int [] remove(int [] codes, int slot){
+    int [] removed = new int[codes.length - 1];
+    System.arraycopy(codes, 0, removed, 0, slot);
+    System.arraycopy(codes, slot + 1, removed, slot, codes.length - slot - 1);
+    return removed;
+  }
+
+  public static void main(String [] args) throws IOException{
+    if (args.length < 2) {
+      System.out.println("Usage: TablebaseGenerator [directory] [material set]... (ex: tables KQvK KRvK)");
+      return;
+    }
+
+    TablebaseGenerator generator = new TablebaseGenerator();
+    Path directory = Paths.get(args[0]);
+    for(int i = 1; i < args.length; i++){
+      long start = System.currentTimeMillis();
+      generator.write(directory, parse(args[i]));
+      System.out.println(args[i]+" generated in "+(System.currentTimeMillis() - start)+"ms");
+    }
+  }
+
+  /**
+   * A growable list of position indexes
+   */
+  private static class Bucket {
+    private int [] items = new int[16];
+    private int size;
+
+    private void add(int index){
+      if (size == items.length) {
+        items = Arrays.copyOf(items, size * 2);
+      }
+      items[size++] = index;
+    }
+  }
+}
@@ -0,0 +1,218 @@
+package jg.proj.chess.core.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size table of previously analyzed positions, keyed by
+ * their Zobrist hash (see jg.proj.chess.core.bitboard.Zobrist).
+ *
+ * Each entry is two longs: the entry's data, and the position hash XOR'd
+ * with that data. An entry is only trusted if XOR'ing both longs gives back
+ * the probed hash. This lets several search threads read and write the table
+ * without locks: an entry torn by two threads writing at once simply
+ * fails verification and is treated as a miss.
+ *
+ * Entries are grouped into buckets of four (64 bytes). When a bucket is full,
+ * the entry with the least depth - favoring entries from older searches - is replaced.
+ *
+ * An entry's data packs:
+ *  - bits 0 to 23  : the best move found (see jg.proj.chess.core.bitboard.Move)
+ *  - bits 24 to 39 : the score (signed)
+ *  - bits 40 to 47 : the depth searched
+ *  - bits 48 to 49 : the bound of the score (EXACT, LOWER or UPPER)
+ *  - bits 50 to 55 : the generation (age) of the search that stored it
+ *  - bit 56        : always set, so that no stored data is ever MISS
+ *
+ * @author Jose
+ *
+ */
+public class TranspositionTable {
+
+  public static final long MISS = 0L;
+
+  public static final int EXACT = 0;
+  public static final int LOWER = 1;
+  public static final int UPPER = 2;
+
+  private static final int BUCKET_SIZE = 4;
+  private static final int LONGS_PER_ENTRY = 2;
+  private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+  private static final int GENERATION_MASK = 0x3F;
+  private static final long VALID = 1L << 56;
+
+  private final long [] table;
+  private final long bucketMask;
+
+  /**
+   * The generation of the current search. Entries of older generations are replaced first
+   */
+  private volatile int generation;
+
+  private final LongAdder probes;
+  private final LongAdder hits;
+  private final LongAdder stores;
+
+  /**
+   * Constructs a TranspositionTable
+   * @param megabytes - the maximum amount of memory this table should use, in MB (at least 1)
+   */
+  public TranspositionTable(int megabytes){
+    if (megabytes < 1) {
+      throw new IllegalArgumentException("A TranspositionTable needs at least 1 MB");
+    }
+
+    long buckets = Long.highestOneBit((megabytes * 1024L * 1024L) / (BYTES_PER_ENTRY * BUCKET_SIZE));
+    long longs = buckets * BUCKET_SIZE * LONGS_PER_ENTRY;
+    if (longs > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("A TranspositionTable can't be "+megabytes+" MB");
+    }
+
+    table = new long[(int) longs];
+    bucketMask = buckets - 1;
+
+    probes = new LongAdder();
+    hits = new LongAdder();
+    stores = new LongAdder();
+  }
+
+  /**
+   * Looks up the entry of a position
+   * @param hash - the Zobrist hash of the position
+   * @return the entry's data, or MISS if there's no entry for the position
+   */
+  public long probe(long hash){
+    probes.increment();
+
+    int bucket = bucketIndex(hash);
+    for(int i = 0; i < BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY){
+      long data = table[bucket + i + 1];
+      if (data != MISS && (table[bucket + i] ^ data) == hash) {
+        hits.increment();
+        return data;
+      }
+    }
+
+    return MISS;
+  }
+
+  /**
+   * Stores an entry for a position
+   * @param hash - the Zobrist hash of the position
+   * @param move - the best move found, or Move.NONE
+   * @param score - the score of the position (must fit in 16 bits)
+   * @param depth - the depth searched (0 to 255)
+   * @param bound - the bound of the score (EXACT, LOWER or UPPER)
+   */
+  public void store(long hash, int move, int score, int depth, int bound){
+    int currentGeneration = generation;
+    int bucket = bucketIndex(hash);
+
+    //find the entry to replace: the same position, an empty entry, or the least valuable entry
+    int target = bucket;
+    int lowestWorth = Integer.MAX_VALUE;
+    for(int i = 0; i < BUCKET_SIZE * LONGS_PER_ENTRY; i += LONGS_PER_ENTRY){
+      long data = table[bucket + i + 1];
+      if (data == MISS || (table[bucket + i] ^ data) == hash) {
+        //keep the move of a deeper entry of the same position if we have none
+        if (data != MISS && move == 0) {
+          move = move(data);
+        }
+        target = bucket + i;
+        break;
+      }
+
+      int age = (currentGeneration - generation(data)) & GENERATION_MASK;
+      int worth = depth(data) - 8 * age;
+      if (worth < lowestWorth) {
+        lowestWorth = worth;
+        target = bucket + i;
+      }
+    }
+
+    long data = pack(move, score, depth, bound, currentGeneration);
+    table[target] = hash ^ data;
+    table[target + 1] = data;
+    stores.increment();
+  }
+
+  /**
+   * Marks the start of a new search, so that entries from older
+   * searches are replaced first
+   */
+  public void newSearch(){
+    generation = (generation + 1) & GENERATION_MASK;
+  }
+
+  /**
+   * Removes all entries and resets all counters
+   */
+  public void clear(){
+    Arrays.fill(table, 0L);
+    probes.reset();
+    hits.reset();
+    stores.reset();
+  }
+
+  /**
+   * Returns the amount of entries this table can hold
+   * @return the amount of entries this table can hold
+   */
+  public int capacity(){
+    return table.length / LONGS_PER_ENTRY;
+  }
+
+  public long getProbes(){
+    return probes.sum();
+  }
+
+  public long getHits(){
+    return hits.sum();
+  }
+
+  public long getStores(){
+    return stores.sum();
+  }
+
+  /**
+   * Returns the ratio of probes that found an entry
+   * @return the ratio of probes that found an entry (0 if there's been no probes)
+   */
+  public double hitRate(){
+    long probeCount = probes.sum();
+    return probeCount == 0 ? 0 : (double) hits.sum() / probeCount;
+  }
+
+  public static int move(long data){
+    return (int) (data & 0xFFFFFF);
+  }
+
+  public static int score(long data){
+    return (short) (data >>> 24);
+  }
+
+  public static int depth(long data){
+    return (int) ((data >>> 40) & 0xFF);
+  }
+
+  public static int bound(long data){
+    return (int) ((data >>> 48) & 0x3);
+  }
+
+  private static int generation(long data){
+    return (int) ((data >>> 50) & GENERATION_MASK);
+  }
+
+  private static long pack(int move, int score, int depth, int bound, int generation){
+    return (move & 0xFFFFFFL) |
+           ((score & 0xFFFFL) << 24) |
+           ((long) (depth & 0xFF) << 40) |
+           ((long) (bound & 0x3) << 48) |
+           ((long) (generation & GENERATION_MASK) << 50) |
+           VALID;
+  }
+
+  private int bucketIndex(long hash){
+    return (int) (hash & bucketMask) * BUCKET_SIZE * LONGS_PER_ENTRY;
+  }
+}
@@ -0,0 +1,273 @@
+package jg.proj.chess.core.rules;
+
+import jg.proj.chess.core.GameOutcome;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Pieces;
+
+/**
+ * The rules of checkers (English draughts), on bitboards.
+ *
+ * Team 1's men start on files 1 to 3 and move towards file 8, Team 2's start on
+ * files 6 to 8 and move towards file 1. Men step diagonally forward, kings diagonally
+ * either way. Capturing is compulsory. A man reaching the far file is crowned, which
+ * ends its team's turn.
+ *
+ * Each jump is a move of its own: as long as the piece that jumped can jump again,
+ * it stays its team's turn, and that piece must keep jumping (see CheckersState.getJumper()).
+ * A jumped piece is removed right away. A team with no moves has lost.
+ *
+ * A move is encoded in an int as:
+ *   bits 0 - 5   : the square moved from
+ *   bits 6 - 11  : the square moved to
+ *   bits 12 - 17 : the square jumped over, if the move is a jump
+ *   bit 18       : set if the move is a jump
+ *
+ * @author Jose
+ *
+ */
+public class CheckersRules implements GameRules<CheckersState> {
+
+  public static final String NAME = "checkers";
+
+  private static final int JUMP = 1 << 18;
+
+  /**
+   * Squares played on: those whose file and rank are both odd or both even
+   */
+  public static final long PLAYABLE;
+
+  /**
+   * Where each team's men start, and where they're crowned. Indexed by team
+   */
+  private static final long [] START = new long[Pieces.TEAM_COUNT];
+  private static final long [] CROWN = new long[Pieces.TEAM_COUNT];
+
+  /**
+   * The diagonal neighbor of each square, or -1 if there's none, indexed by direction
+   * then square. Directions 0 and 1 lead towards file 8, directions 2 and 3 towards file 1
+   */
+  private static final int [][] STEPS = new int[4][Bitboards.SQUARES];
+
+  static {
+    long playable = 0;
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      int file = square / Bitboards.RANKS;
+      int rank = square % Bitboards.RANKS;
+      if ((file + rank) % 2 == 0) {
+        playable |= Bitboards.bit(square);
+      }
+
+      int [][] offsets = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+      for(int direction = 0; direction < offsets.length; direction++){
+        int toFile = file + offsets[direction][0];
+        int toRank = rank + offsets[direction][1];
+        boolean inside = toFile >= 0 && toFile < Bitboards.FILES && toRank >= 0 && toRank < Bitboards.RANKS;
+        STEPS[direction][square] = inside ? toFile * Bitboards.RANKS + toRank : -1;
+      }
+    }
+    PLAYABLE = playable;
+
+    START[Pieces.TEAM_ONE] = PLAYABLE & 0xFFFFFFL;
+    START[Pieces.TEAM_TWO] = PLAYABLE & 0xFFFFFF0000000000L;
+    CROWN[Pieces.TEAM_ONE] = 0xFF00000000000000L;
+    CROWN[Pieces.TEAM_TWO] = 0xFFL;
+  }
+
+  @Override
+  public String getName(){
+    return NAME;
+  }
+
+  @Override
+  public CheckersState newGame(){
+    CheckersState state = new CheckersState();
+    state.men[Pieces.TEAM_ONE] = START[Pieces.TEAM_ONE];
+    state.men[Pieces.TEAM_TWO] = START[Pieces.TEAM_TWO];
+    return state;
+  }
+
+  @Override
+  public int generateMoves(CheckersState state, MoveList moves){
+    return generate(state, moves);
+  }
+
+  @Override
+  public void makeMove(CheckersState state, int move){
+    int team = state.turn;
+    int from = from(move);
+    int to = to(move);
+    long path = Bitboards.bit(from) | Bitboards.bit(to);
+
+    boolean king = Bitboards.isSet(state.kings[team], from);
+    if (king) {
+      state.kings[team] ^= path;
+    }
+    else {
+      state.men[team] ^= path;
+    }
+
+    boolean jump = (move & JUMP) != 0;
+    if (jump) {
+      long jumped = ~Bitboards.bit(jumped(move));
+      state.men[Pieces.opponent(team)] &= jumped;
+      state.kings[Pieces.opponent(team)] &= jumped;
+    }
+
+    boolean crowned = !king && Bitboards.isSet(CROWN[team], to);
+    if (crowned) {
+      state.men[team] &= ~Bitboards.bit(to);
+      state.kings[team] |= Bitboards.bit(to);
+    }
+
+    //a jump that can be followed by another keeps the turn
+    if (jump && !crowned && jumps(state, team, to, null) > 0) {
+      state.jumper = to;
+    }
+    else {
+      state.jumper = -1;
+      state.turn = Pieces.opponent(team);
+    }
+  }
+
+  @Override
+  public void setTurn(CheckersState state, int teamID){
+    state.turn = Pieces.teamIndex(teamID);
+    state.jumper = -1;
+  }
+
+  @Override
+  public GameOutcome outcome(CheckersState state){
+    return generate(state, null) == 0 ? GameOutcome.LOST : GameOutcome.IN_PROGRESS;
+  }
+
+  @Override
+  public int from(int move){
+    return move & 0x3F;
+  }
+
+  @Override
+  public int to(int move){
+    return (move >>> 6) & 0x3F;
+  }
+
+  /**
+   * Returns the square a jump passes over
+   * @param move - the encoded move (must be a jump)
+   * @return the square index of the piece jumped over
+   */
+  public int jumped(int move){
+    return (move >>> 12) & 0x3F;
+  }
+
+  /**
+   * Checks if a move is a jump
+   * @param move - the encoded move
+   * @return true if the move is a jump, false if else
+   */
+  public boolean isJump(int move){
+    return (move & JUMP) != 0;
+  }
+
+  @Override
+  public String describe(CheckersState state){
+    //"M1," per square, and a '|' per file, like Board.parsableToString()
+    StringBuilder text = new StringBuilder(Bitboards.SQUARES * 3);
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      if (square > 0) {
+        text.append(square % Bitboards.RANKS == 0 ? '|' : ',');
+      }
+
+      int team = Bitboards.isSet(state.men[Pieces.TEAM_ONE] | state.kings[Pieces.TEAM_ONE], square) ? Pieces.TEAM_ONE :
+                 Bitboards.isSet(state.men[Pieces.TEAM_TWO] | state.kings[Pieces.TEAM_TWO], square) ? Pieces.TEAM_TWO : -1;
+      if (team < 0) {
+        text.append('~');
+      }
+      else {
+        text.append(Bitboards.isSet(state.kings[team], square) ? 'K' : 'M').append(Pieces.teamID(team));
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Generates the moves of the team whose turn it is
+   * @param moves - the MoveList to add the moves to, or null to only count them
+   * @return the amount of moves
+   */
+  private int generate(CheckersState state, MoveList moves){
+    int team = state.turn;
+    long own = state.men[team] | state.kings[team];
+    long pieces = state.jumper >= 0 ? Bitboards.bit(state.jumper) : own;
+
+    //captures are compulsory, and a chain of jumps can't be left
+    int count = 0;
+    for(long rest = pieces; rest != 0; rest = Bitboards.next(rest)){
+      count += jumps(state, team, Bitboards.first(rest), moves);
+    }
+    if (count > 0 || state.jumper >= 0) {
+      return count;
+    }
+
+    long empty = PLAYABLE & ~(own | state.men[Pieces.opponent(team)] | state.kings[Pieces.opponent(team)]);
+    for(long rest = pieces; rest != 0; rest = Bitboards.next(rest)){
+      int from = Bitboards.first(rest);
+      int first = firstDirection(state, team, from);
+      int last = lastDirection(state, team, from);
+      for(int direction = first; direction < last; direction++){
+        int to = STEPS[direction][from];
+        if (to >= 0 && Bitboards.isSet(empty, to)) {
+          count++;
+          if (moves != null) {
+            moves.add(from | (to << 6));
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Generates the jumps of a piece
+   * @param moves - the MoveList to add the jumps to, or null to only count them
+   * @return the amount of jumps
+   */
+  private static int jumps(CheckersState state, int team, int from, MoveList moves){
+    int opponent = Pieces.opponent(team);
+    long enemies = state.men[opponent] | state.kings[opponent];
+    long empty = PLAYABLE & ~(state.men[team] | state.kings[team] | enemies);
+
+    int count = 0;
+    int first = firstDirection(state, team, from);
+    int last = lastDirection(state, team, from);
+    for(int direction = first; direction < last; direction++){
+      int over = STEPS[direction][from];
+      if (over < 0 || !Bitboards.isSet(enemies, over)) {
+        continue;
+      }
+
+      int to = STEPS[direction][over];
+      if (to >= 0 && Bitboards.isSet(empty, to)) {
+        count++;
+        if (moves != null) {
+          moves.add(from | (to << 6) | (over << 12) | JUMP);
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the first direction a piece moves in: kings and Team 1's men go towards file 8, Team 2's men don't
+   */
+  private static int firstDirection(CheckersState state, int team, int from){
+    return team == Pieces.TEAM_TWO && !Bitboards.isSet(state.kings[team], from) ? 2 : 0;
+  }
+
+  /**
+   * Returns the direction after the last a piece moves in: kings and Team 2's men go towards file 1, Team 1's men don't
+   */
+  private static int lastDirection(CheckersState state, int team, int from){
+    return team == Pieces.TEAM_ONE && !Bitboards.isSet(state.kings[team], from) ? 2 : 4;
+  }
+}
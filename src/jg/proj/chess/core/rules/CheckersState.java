@@ -0,0 +1,110 @@
+package jg.proj.chess.core.rules;
+
+import java.util.Arrays;
+
+import jg.proj.chess.core.bitboard.Pieces;
+
+/**
+ * The state of a checkers game: four bitboards (each team's men and kings),
+ * whose turn it is, and the piece in the middle of a chain of jumps, if any.
+ *
+ * Squares are indexed as described by Bitboards. Only the squares whose file and
+ * rank are both odd or both even are played on.
+ *
+ * @author Jose
+ *
+ */
+public class CheckersState implements GameState {
+
+  /**
+   * Men and kings, indexed by team
+   */
+  final long [] men;
+  final long [] kings;
+
+  /**
+   * The team index of the team whose turn it is
+   */
+  int turn;
+
+  /**
+   * The square of the piece that must keep jumping, or -1 if there's none
+   */
+  int jumper;
+
+  /**
+   * Constructs an empty CheckersState, with Team 1 to move
+   */
+  public CheckersState(){
+    men = new long[Pieces.TEAM_COUNT];
+    kings = new long[Pieces.TEAM_COUNT];
+    jumper = -1;
+  }
+
+  /**
+   * Constructs a CheckersState that's a copy of the given CheckersState
+   * @param other - the CheckersState to copy
+   */
+  public CheckersState(CheckersState other){
+    men = other.men.clone();
+    kings = other.kings.clone();
+    turn = other.turn;
+    jumper = other.jumper;
+  }
+
+  @Override
+  public int getTurn(){
+    return Pieces.teamID(turn);
+  }
+
+  @Override
+  public long getHash(){
+    long hash = turn * 0x9E3779B97F4A7C15L + jumper;
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      hash = hash * 31 + men[team] * 0xC2B2AE3D27D4EB4FL;
+      hash = hash * 31 + kings[team] * 0x165667B19E3779F9L;
+    }
+    return hash;
+  }
+
+  /**
+   * Returns a team's men
+   * @param teamID - the ID of the team (1 or 2)
+   * @return a bitboard of the team's men
+   */
+  public long getMen(int teamID){
+    return men[Pieces.teamIndex(teamID)];
+  }
+
+  /**
+   * Returns a team's kings
+   * @param teamID - the ID of the team (1 or 2)
+   * @return a bitboard of the team's kings
+   */
+  public long getKings(int teamID){
+    return kings[Pieces.teamIndex(teamID)];
+  }
+
+  /**
+   * Returns the square of the piece in the middle of a chain of jumps
+   * @return the square of the piece that must keep jumping, or -1 if there's none
+   */
+  public int getJumper(){
+    return jumper;
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if (object instanceof CheckersState) {
+      CheckersState other = (CheckersState) object;
+      return Arrays.equals(men, other.men) && Arrays.equals(kings, other.kings) &&
+             turn == other.turn && jumper == other.jumper;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode(){
+    return Long.hashCode(getHash());
+  }
+}
@@ -0,0 +1,80 @@
+package jg.proj.chess.core.rules;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.GameOutcome;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
+
+/**
+ * The rules of chess, as played in DChess: no castling, en passant or promotion,
+ * and a team that passes its turn while in check may have its King taken.
+ *
+ * Moves are encoded as described by Move.
+ *
+ * @author Jose
+ *
+ */
+public class ChessRules implements GameRules<ChessState> {
+
+  public static final String NAME = "chess";
+
+  @Override
+  public String getName(){
+    return NAME;
+  }
+
+  @Override
+  public ChessState newGame(){
+    Board board = new Board(Bitboards.FILES, Bitboards.RANKS);
+    return new ChessState(board, board.initialize(new DefaultBoardPreparer()));
+  }
+
+  @Override
+  public int generateMoves(ChessState state, MoveList moves){
+    return MoveGenerator.generateLegal(state.getBoard().getPosition(), moves);
+  }
+
+  @Override
+  public void makeMove(ChessState state, int move){
+    state.getBoard().makeMove(move);
+  }
+
+  @Override
+  public void setTurn(ChessState state, int teamID){
+    state.getBoard().setTurn(teamID);
+  }
+
+  @Override
+  public GameOutcome outcome(ChessState state){
+    //a King can still be taken if its team passed their turn while in check
+    Position position = state.getBoard().getPosition();
+    if (position.kingSquare(position.getSideToMove()) < 0) {
+      return GameOutcome.LOST;
+    }
+    return state.getBoard().getOutcome();
+  }
+
+  @Override
+  public int from(int move){
+    return Move.from(move);
+  }
+
+  @Override
+  public int to(int move){
+    return Move.to(move);
+  }
+
+  @Override
+  public String describe(ChessState state){
+    return state.getBoard().parsableToString();
+  }
+
+  @Override
+  public String toString(int move){
+    return Move.toString(move);
+  }
+}
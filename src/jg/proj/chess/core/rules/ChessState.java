@@ -0,0 +1,50 @@
+package jg.proj.chess.core.rules;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.TeamInformation;
+
+/**
+ * The state of a chess game: an 8 x 8 Board, backed by a bitboard Position.
+ *
+ * Moves are made on the Board, so its Squares and published snapshots stay
+ * in sync with the game for anything that reads them.
+ *
+ * @author Jose
+ *
+ */
+public class ChessState implements GameState {
+
+  private final Board board;
+  private final TeamInformation teams;
+
+  /**
+   * Constructs a ChessState
+   * @param board - an initialized 8 x 8 Board
+   * @param teams - the units of the Board's teams
+   */
+  public ChessState(Board board, TeamInformation teams){
+    if (board.getPosition() == null) {
+      throw new IllegalArgumentException("A chess game needs a Board backed by a Position");
+    }
+    this.board = board;
+    this.teams = teams;
+  }
+
+  @Override
+  public int getTurn(){
+    return board.getTurn();
+  }
+
+  @Override
+  public long getHash(){
+    return board.getPosition().getHash();
+  }
+
+  public Board getBoard(){
+    return board;
+  }
+
+  public TeamInformation getTeams(){
+    return teams;
+  }
+}
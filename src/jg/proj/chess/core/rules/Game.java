@@ -0,0 +1,167 @@
+package jg.proj.chess.core.rules;
+
+import jg.proj.chess.core.GameOutcome;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveList;
+
+/**
+ * A game being played: a GameState, and the GameRules it's played under.
+ *
+ * A Game lets a Session run any game without knowing its types. It's played
+ * by one thread, but other threads may look up legal moves at any time (as when
+ * checking a vote): after every change, the legal moves of the team whose turn
+ * it is are published for them in fresh arrays - as a list, and as a table indexed
+ * by from * 64 + to, so finding the move a vote is for is a single lookup.
+ *
+ * @author Jose
+ *
+ * @param <S> the type of state the game is played on
+ */
+public final class Game<S extends GameState> {
+
+  private final GameRules<S> rules;
+  private final S state;
+  private final MoveList buffer;
+
+  /**
+   * The legal moves of the team whose turn it is, published after every change
+   */
+  private volatile LegalMoves legalMoves;
+
+  /**
+   * Constructs a Game, starting a new game
+   * @param rules - the GameRules to play under
+   */
+  public Game(GameRules<S> rules){
+    this(rules, rules.newGame());
+  }
+
+  /**
+   * Constructs a Game, from a game in progress
+   * @param rules - the GameRules to play under
+   * @param state - the state of the game
+   */
+  public Game(GameRules<S> rules, S state){
+    this.rules = rules;
+    this.state = state;
+    this.buffer = new MoveList();
+    publish();
+  }
+
+  /**
+   * Makes a move
+   * @param move - a legal move
+   */
+  public void makeMove(int move){
+    rules.makeMove(state, move);
+    publish();
+  }
+
+  /**
+   * Hands the turn to a team without a move
+   * @param teamID - the ID of the team (1 or 2) whose turn it is now
+   */
+  public void setTurn(int teamID){
+    if (state.getTurn() != teamID) {
+      rules.setTurn(state, teamID);
+      publish();
+    }
+  }
+
+  /**
+   * Finds a team's legal move between two squares. Safe to call from any thread
+   * @param teamID - the ID of the team (1 or 2) to move
+   * @param from - the square index the move starts on
+   * @param to - the square index the move ends on
+   * @return the legal move between the squares, or Move.NONE if there's none (or it's not the team's turn)
+   */
+  public int find(int teamID, int from, int to){
+    LegalMoves published = legalMoves;
+    if (published.turn != teamID || from < 0 || from >= Bitboards.SQUARES || to < 0 || to >= Bitboards.SQUARES) {
+      return Move.NONE;
+    }
+    return published.byPair[from * Bitboards.SQUARES + to];
+  }
+
+  /**
+   * Adds the legal moves of the team whose turn it is to a MoveList. Safe to call from any thread
+   * @param moves - the MoveList to add the moves to
+   * @return the amount of moves added
+   */
+  public int legalMoves(MoveList moves){
+    int [] published = legalMoves.moves;
+    for(int move : published){
+      moves.add(move);
+    }
+    return published.length;
+  }
+
+  /**
+   * Determines whether the game can go on for the team whose turn it is
+   * @return the outcome for the team whose turn it is
+   */
+  public GameOutcome outcome(){
+    return rules.outcome(state);
+  }
+
+  /**
+   * Returns whose turn it is. Safe to call from any thread
+   * @return the ID of the team (1 or 2) whose turn it is
+   */
+  public int getTurn(){
+    return legalMoves.turn;
+  }
+
+  /**
+   * Describes the game for clients (see GameRules.describe())
+   * @return the description of the game
+   */
+  public String describe(){
+    return rules.describe(state);
+  }
+
+  public GameRules<S> getRules(){
+    return rules;
+  }
+
+  public S getState(){
+    return state;
+  }
+
+  private void publish(){
+    buffer.clear();
+    int count = rules.generateMoves(state, buffer);
+    int [] moves = new int[count];
+    System.arraycopy(buffer.array(), 0, moves, 0, count);
+
+    //Move.NONE is 0, so squares without a move are already NONE
+    int [] byPair = new int[Bitboards.SQUARES * Bitboards.SQUARES];
+    for(int move : moves){
+      int pair = rules.from(move) * Bitboards.SQUARES + rules.to(move);
+      if (byPair[pair] == Move.NONE) {
+        byPair[pair] = move;
+      }
+    }
+    legalMoves = new LegalMoves(state.getTurn(), moves, byPair);
+  }
+
+  /**
+   * The legal moves of a team. Never modified once published
+   */
+  private static class LegalMoves{
+    private final int turn;
+    private final int [] moves;
+
+    /**
+     * The first legal move between each pair of squares, indexed by from * 64 + to
+     */
+    private final int [] byPair;
+
+    private LegalMoves(int turn, int [] moves, int [] byPair){
+      this.turn = turn;
+      this.moves = moves;
+      this.byPair = byPair;
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package jg.proj.chess.core.rules;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The games a server can host, by name.
+ *
+ * Chess, checkers and Berolina chess (see ModRules) are registered from the start.
+ * Other games (mods) register their GameRules here before any Session asks for them -
+ * a mod's own units can be hosted by registering a ModRules of their PieceDefinitions.
+ *
+ * @author Jose
+ *
+ */
+public final class GameRegistry {
+
+  private static final Map<String, Supplier<GameRules<?>>> GAMES = new ConcurrentHashMap<>();
+
+  static {
+    register(ChessRules.NAME, ChessRules::new);
+    register(CheckersRules.NAME, CheckersRules::new);
+    register(ModRules.BEROLINA, ModRules::berolina);
+  }
+
+  private GameRegistry(){}
+
+  /**
+   * Registers a game, replacing any game of the same name
+   * @param name - the name of the game (case insensitive)
+   * @param rules - creates the GameRules of the game
+   */
+  public static void register(String name, Supplier<GameRules<?>> rules){
+    GAMES.put(name.toLowerCase(), rules);
+  }
+
+  /**
+   * Returns the rules of a game
+   * @param name - the name of the game (case insensitive)
+   * @return the GameRules of the game
+   * @throws IllegalArgumentException if there's no game of that name
+   */
+  public static GameRules<?> forName(String name){
+    Supplier<GameRules<?>> rules = GAMES.get(name.toLowerCase());
+    if (rules == null) {
+      throw new IllegalArgumentException("Unknown game: "+name);
+    }
+    return rules.get();
+  }
+
+  /**
+   * Starts a new game
+   * @param name - the name of the game (case insensitive)
+   * @return the new Game
+   * @throws IllegalArgumentException if there's no game of that name
+   */
+  public static Game<?> newGame(String name){
+    return start(forName(name));
+  }
+
+  /**
+   * Returns the names of every registered game
+   * @return the names of every registered game
+   */
+  public static Set<String> getNames(){
+    return GAMES.keySet();
+  }
+
+  private static <S extends GameState> Game<S> start(GameRules<S> rules){
+    return new Game<>(rules);
+  }
+}
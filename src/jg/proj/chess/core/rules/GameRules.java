@@ -0,0 +1,97 @@
+package jg.proj.chess.core.rules;
+
+import jg.proj.chess.core.GameOutcome;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.MoveList;
+
+/**
+ * The rules of a game that a Session can host: chess, checkers, or any other
+ * two-team game played on an 8 x 8 board (see Bitboards for how squares are indexed).
+ *
+ * Moves are ints, encoded however a game likes, as long as no move is ever 0
+ * (see Move.NONE) and every move goes from one square to another. Legal moves are
+ * enumerated into a MoveList, so a turn can be played without allocating or boxing
+ * anything.
+ *
+ * Providers are registered in GameRegistry, by name.
+ *
+ * @author Jose
+ *
+ * @param <S> the type of state this game is played on
+ */
+public interface GameRules<S extends GameState> {
+
+  /**
+   * Returns the name of this game, as registered in GameRegistry
+   * @return the name of this game
+   */
+  public String getName();
+
+  /**
+   * Creates the state of a new game, with Team 1 to move
+   * @return the state of a new game
+   */
+  public S newGame();
+
+  /**
+   * Adds the legal moves of the team whose turn it is to a MoveList
+   * @param state - the state to generate moves for
+   * @param moves - the MoveList to add the moves to
+   * @return the amount of moves added
+   */
+  public int generateMoves(S state, MoveList moves);
+
+  /**
+   * Makes a move. Afterwards, it's usually the other team's turn - but it may
+   * still be the moving team's, if the game lets a team move more than once in a row
+   * @param state - the state to make the move on
+   * @param move - a legal move
+   */
+  public void makeMove(S state, int move);
+
+  /**
+   * Hands the turn to a team without a move, as when a team's votes are tied
+   * @param state - the state to change
+   * @param teamID - the ID of the team (1 or 2) whose turn it is now
+   */
+  public void setTurn(S state, int teamID);
+
+  /**
+   * Determines whether the game can go on for the team whose turn it is
+   * @param state - the state to check
+   * @return the outcome for the team whose turn it is
+   */
+  public GameOutcome outcome(S state);
+
+  /**
+   * Returns the square a move starts on
+   * @param move - the encoded move
+   * @return the square index the move starts on
+   */
+  public int from(int move);
+
+  /**
+   * Returns the square a move ends on
+   * @param move - the encoded move
+   * @return the square index the move ends on
+   */
+  public int to(int move);
+
+  /**
+   * Describes a state for clients, in the format of Board.parsableToString(): a unit
+   * per square, written as its letter and team ID, or '~' if the square is empty
+   * @param state - the state to describe
+   * @return the description of the state
+   */
+  public String describe(S state);
+
+  /**
+   * Returns a string representation of a move, in the form used by votes (ex: "2B>4B")
+   * @param move - the encoded move
+   * @return a string representation of the move
+   */
+  public default String toString(int move){
+    return Bitboards.file(from(move))+String.valueOf(Bitboards.rank(from(move)))+">"+
+           Bitboards.file(to(move))+String.valueOf(Bitboards.rank(to(move)));
+  }
+}
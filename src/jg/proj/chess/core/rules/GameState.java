@@ -0,0 +1,25 @@
+package jg.proj.chess.core.rules;
+
+/**
+ * The state of a game being played under some GameRules: where every unit is,
+ * and whose turn it is.
+ *
+ * States are changed only through the GameRules they belong to.
+ *
+ * @author Jose
+ *
+ */
+public interface GameState {
+
+  /**
+   * Returns whose turn it is
+   * @return the ID of the team (1 or 2) whose turn it is
+   */
+  public int getTurn();
+
+  /**
+   * Returns a hash of this state. Equal states have equal hashes
+   * @return a hash of this state
+   */
+  public long getHash();
+}
@@ -0,0 +1,336 @@
+package jg.proj.chess.core.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jg.proj.chess.core.BoardGeometry;
+import jg.proj.chess.core.GameOutcome;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.units.PieceDefinition;
+import jg.proj.chess.core.units.PieceTable;
+import jg.proj.chess.core.units.Unit.UnitType;
+
+/**
+ * The rules of chess played with mod units (see PieceDefinition), on bitboards.
+ *
+ * Each team starts with a back rank of eight units on its first file, and a file of
+ * pawns in front of it, like the default board: Team 1 on files 1 and 2, Team 2 on
+ * files 8 and 7. Units move as their definitions' PieceTables say (see PieceTable.destinations()).
+ *
+ * The back rank's one unit that looks like a King (see PieceDefinition.getLook()) is
+ * royal: no move may leave it attacked, a team with no moves whose royal unit is attacked
+ * has been checkmated, and a team with no moves otherwise is stalemated. A pawn reaching
+ * the far file becomes the back rank's unit that looks like a Queen, if there's one.
+ * There's no castling or en passant, and repetitions aren't detected - but the
+ * fifty-move rule applies, a pawn move resetting the clock like a capture does.
+ *
+ * A move is encoded in an int as:
+ *   bits 0 - 5   : the square moved from
+ *   bits 6 - 11  : the square moved to
+ *
+ * @author Jose
+ *
+ */
+public class ModRules implements GameRules<ModState> {
+
+  /**
+   * The name of the built-in game of mod units: the default armies, with Berolina pawns
+   * that step diagonally forward and capture straight forward
+   */
+  public static final String BEROLINA = "berolina";
+
+  private static final PieceDefinition [] BEROLINA_BACK_RANK;
+  private static final PieceDefinition BEROLINA_PAWN = PieceDefinition.parse("name=Berolina; look=PAWN; leap=1,1/move/forward; leap=1,0/capture/forward");
+
+  static {
+    PieceDefinition rook = PieceDefinition.parse("name=Rook; look=ROOK; ride=1,0");
+    PieceDefinition knight = PieceDefinition.parse("name=Knight; look=KNIGHT; leap=2,1");
+    PieceDefinition bishop = PieceDefinition.parse("name=Bishop; look=BISHOP; ride=1,1");
+    PieceDefinition king = PieceDefinition.parse("name=King; look=KING; leap=1,0; leap=1,1");
+    PieceDefinition queen = PieceDefinition.parse("name=Queen; look=QUEEN; ride=1,0; ride=1,1");
+    BEROLINA_BACK_RANK = new PieceDefinition[]{rook, knight, bishop, king, queen, bishop, knight, rook};
+  }
+
+  private final String name;
+
+  /**
+   * Every kind of unit of this game (the back rank's, then the pawn), and each compiled for 8 x 8 boards
+   */
+  private final PieceDefinition [] definitions;
+  private final PieceTable [] tables;
+
+  /**
+   * The kind (index in definitions) of the unit on each rank of the back rank
+   */
+  private final int [] backRank;
+
+  private final int pawn;
+  private final int royal;
+
+  /**
+   * The kind pawns become on the far file, or -1 if they aren't promoted
+   */
+  private final int promotion;
+
+  /**
+   * Constructs the rules of a game of mod units
+   * @param name - the name of the game, as registered in GameRegistry
+   * @param backRank - the units of each team's first file, from rank 'A' to rank 'H'
+   * @param pawn - the unit filling each team's second file
+   * @throws IllegalArgumentException if there aren't eight back rank units, or not exactly one of them looks like a King
+   */
+  public ModRules(String name, List<PieceDefinition> backRank, PieceDefinition pawn){
+    if (backRank.size() != Bitboards.RANKS) {
+      throw new IllegalArgumentException("A back rank needs "+Bitboards.RANKS+" units, not "+backRank.size());
+    }
+    if (backRank.stream().filter(unit -> unit.getLook() == UnitType.KING).count() != 1) {
+      throw new IllegalArgumentException("A back rank needs exactly one unit that looks like a King");
+    }
+
+    List<PieceDefinition> kinds = new ArrayList<>();
+    this.backRank = new int[Bitboards.RANKS];
+    for(int rank = 0; rank < Bitboards.RANKS; rank++){
+      PieceDefinition definition = backRank.get(rank);
+      if (!kinds.contains(definition)) {
+        kinds.add(definition);
+      }
+      this.backRank[rank] = kinds.indexOf(definition);
+    }
+    if (!kinds.contains(pawn)) {
+      kinds.add(pawn);
+    }
+
+    this.name = name;
+    this.definitions = kinds.toArray(new PieceDefinition[kinds.size()]);
+    this.tables = new PieceTable[definitions.length];
+    for(int kind = 0; kind < definitions.length; kind++){
+      tables[kind] = definitions[kind].compile(BoardGeometry.of(Bitboards.FILES, Bitboards.RANKS));
+    }
+    this.pawn = kinds.indexOf(pawn);
+    this.royal = look(backRank, UnitType.KING);
+    this.promotion = look(backRank, UnitType.QUEEN);
+  }
+
+  /**
+   * Creates the rules of the built-in game of mod units (see BEROLINA)
+   * @return the rules of Berolina chess
+   */
+  public static ModRules berolina(){
+    return new ModRules(BEROLINA, Arrays.asList(BEROLINA_BACK_RANK), BEROLINA_PAWN);
+  }
+
+  /**
+   * Returns the kind of the first back rank unit that looks like a built-in unit
+   * @param backRank - the back rank units
+   * @param look - the built-in unit
+   * @return the index in definitions of the unit, or -1 if there's none
+   */
+  private int look(List<PieceDefinition> backRank, UnitType look){
+    for(int rank = 0; rank < Bitboards.RANKS; rank++){
+      if (backRank.get(rank).getLook() == look) {
+        return this.backRank[rank];
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public String getName(){
+    return name;
+  }
+
+  @Override
+  public ModState newGame(){
+    ModState state = new ModState();
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      int first = team == Pieces.TEAM_ONE ? 0 : Bitboards.FILES - 1;
+      int second = team == Pieces.TEAM_ONE ? 1 : Bitboards.FILES - 2;
+      for(int rank = 0; rank < Bitboards.RANKS; rank++){
+        place(state, team, first * Bitboards.RANKS + rank, backRank[rank]);
+        place(state, team, second * Bitboards.RANKS + rank, pawn);
+      }
+    }
+    return state;
+  }
+
+  private static void place(ModState state, int team, int square, int kind){
+    state.units[team] |= Bitboards.bit(square);
+    state.kinds[square] = (byte) (kind + 1);
+  }
+
+  @Override
+  public int generateMoves(ModState state, MoveList moves){
+    return generate(state, moves);
+  }
+
+  @Override
+  public void makeMove(ModState state, int move){
+    int team = state.turn;
+    int from = from(move);
+    int to = to(move);
+
+    int kind = state.kinds[from] - 1;
+    boolean capture = Bitboards.isSet(state.units[Pieces.opponent(team)], to);
+    state.units[team] ^= Bitboards.bit(from) | Bitboards.bit(to);
+    state.units[Pieces.opponent(team)] &= ~Bitboards.bit(to);
+    state.kinds[from] = 0;
+
+    boolean crowned = kind == pawn && promotion >= 0 && Bitboards.file(to) == (team == Pieces.TEAM_ONE ? Bitboards.FILES : 1);
+    state.kinds[to] = (byte) ((crowned ? promotion : kind) + 1);
+
+    state.clock = capture || kind == pawn ? 0 : state.clock + 1;
+    state.turn = Pieces.opponent(team);
+  }
+
+  @Override
+  public void setTurn(ModState state, int teamID){
+    state.turn = Pieces.teamIndex(teamID);
+  }
+
+  @Override
+  public GameOutcome outcome(ModState state){
+    //a royal unit can still be taken if its team passed their turn while attacked
+    if (royalSquare(state, state.turn) < 0) {
+      return GameOutcome.LOST;
+    }
+    if (generate(state, null) == 0) {
+      return isAttacked(state, state.turn) ? GameOutcome.CHECKMATE : GameOutcome.STALEMATE;
+    }
+    return state.clock >= Position.FIFTY_MOVE_PLIES ? GameOutcome.FIFTY_MOVES : GameOutcome.IN_PROGRESS;
+  }
+
+  @Override
+  public int from(int move){
+    return move & 0x3F;
+  }
+
+  @Override
+  public int to(int move){
+    return (move >>> 6) & 0x3F;
+  }
+
+  @Override
+  public String describe(ModState state){
+    //a unit's look and team per square, and a '|' per file, like Board.parsableToString()
+    StringBuilder text = new StringBuilder(Bitboards.SQUARES * 3);
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      if (square > 0) {
+        text.append(square % Bitboards.RANKS == 0 ? '|' : ',');
+      }
+
+      int kind = state.kinds[square] - 1;
+      if (kind < 0) {
+        text.append('~');
+      }
+      else {
+        int team = Bitboards.isSet(state.units[Pieces.TEAM_ONE], square) ? Pieces.TEAM_ONE : Pieces.TEAM_TWO;
+        text.append(definitions[kind].getLook().shortName).append(Pieces.teamID(team));
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Returns the kinds of unit of this game
+   * @return the definitions of this game's units, indexed as by ModState.getKind(). Must not be modified
+   */
+  public PieceDefinition [] getDefinitions(){
+    return definitions;
+  }
+
+  /**
+   * Generates the legal moves of the team whose turn it is
+   * @param moves - the MoveList to add the moves to, or null to only count them
+   * @return the amount of moves
+   */
+  private int generate(ModState state, MoveList moves){
+    int team = state.turn;
+    int teamID = Pieces.teamID(team);
+    long own = state.units[team];
+    long enemies = state.units[Pieces.opponent(team)];
+
+    int count = 0;
+    for(long rest = own; rest != 0; rest = Bitboards.next(rest)){
+      int from = Bitboards.first(rest);
+      long targets = tables[state.kinds[from] - 1].destinations(teamID, from, own, enemies);
+      for(; targets != 0; targets = Bitboards.next(targets)){
+        int to = Bitboards.first(targets);
+        if (isSafe(state, team, from, to)) {
+          count++;
+          if (moves != null) {
+            moves.add(from | (to << 6));
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks that a move doesn't leave the moving team's royal unit attacked, by making and taking it back
+   * @return true if the move is legal, false if else
+   */
+  private boolean isSafe(ModState state, int team, int from, int to){
+    int opponent = Pieces.opponent(team);
+    long own = state.units[team];
+    long enemies = state.units[opponent];
+    byte moving = state.kinds[from];
+    byte captured = state.kinds[to];
+
+    state.units[team] ^= Bitboards.bit(from) | Bitboards.bit(to);
+    state.units[opponent] &= ~Bitboards.bit(to);
+    state.kinds[to] = moving;
+    state.kinds[from] = 0;
+
+    boolean safe = !isAttacked(state, team);
+
+    state.units[team] = own;
+    state.units[opponent] = enemies;
+    state.kinds[from] = moving;
+    state.kinds[to] = captured;
+    return safe;
+  }
+
+  /**
+   * Checks if a team's royal unit can be captured by the other team
+   * @param team - the index of the team
+   * @return true if the royal unit is attacked, false if else (or if the team has none)
+   */
+  private boolean isAttacked(ModState state, int team){
+    int square = royalSquare(state, team);
+    if (square < 0) {
+      return false;
+    }
+
+    int opponent = Pieces.opponent(team);
+    int opponentID = Pieces.teamID(opponent);
+    long own = state.units[team];
+    long enemies = state.units[opponent];
+    for(long rest = enemies; rest != 0; rest = Bitboards.next(rest)){
+      int from = Bitboards.first(rest);
+      if (Bitboards.isSet(tables[state.kinds[from] - 1].destinations(opponentID, from, enemies, own), square)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Finds a team's royal unit
+   * @param team - the index of the team
+   * @return the square index of the team's royal unit, or -1 if it's been taken
+   */
+  private int royalSquare(ModState state, int team){
+    for(long rest = state.units[team]; rest != 0; rest = Bitboards.next(rest)){
+      int square = Bitboards.first(rest);
+      if (state.kinds[square] - 1 == royal) {
+        return square;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,112 @@
+package jg.proj.chess.core.rules;
+
+import java.util.Arrays;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Pieces;
+
+/**
+ * The state of a game of mod units (see ModRules): a bitboard of each team's units,
+ * which unit stands on each square, whose turn it is, and the halfmove clock.
+ *
+ * Squares are indexed as described by Bitboards.
+ *
+ * @author Jose
+ *
+ */
+public class ModState implements GameState {
+
+  /**
+   * Units, indexed by team
+   */
+  final long [] units;
+
+  /**
+   * The kind of unit on each square: its index in ModRules.getDefinitions() plus one, or 0 if the square is empty
+   */
+  final byte [] kinds;
+
+  /**
+   * The team index of the team whose turn it is
+   */
+  int turn;
+
+  /**
+   * The amount of plies made since the last capture or pawn move
+   */
+  int clock;
+
+  /**
+   * Constructs an empty ModState, with Team 1 to move
+   */
+  public ModState(){
+    units = new long[Pieces.TEAM_COUNT];
+    kinds = new byte[Bitboards.SQUARES];
+  }
+
+  /**
+   * Constructs a ModState that's a copy of the given ModState
+   * @param other - the ModState to copy
+   */
+  public ModState(ModState other){
+    units = other.units.clone();
+    kinds = other.kinds.clone();
+    turn = other.turn;
+    clock = other.clock;
+  }
+
+  @Override
+  public int getTurn(){
+    return Pieces.teamID(turn);
+  }
+
+  @Override
+  public long getHash(){
+    long hash = turn * 0x9E3779B97F4A7C15L;
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      hash = hash * 31 + units[team] * 0xC2B2AE3D27D4EB4FL;
+    }
+    return hash * 31 + Arrays.hashCode(kinds);
+  }
+
+  /**
+   * Returns a team's units
+   * @param teamID - the ID of the team (1 or 2)
+   * @return a bitboard of the team's units
+   */
+  public long getUnits(int teamID){
+    return units[Pieces.teamIndex(teamID)];
+  }
+
+  /**
+   * Returns the kind of unit on a square
+   * @param square - the square index
+   * @return the index of the unit's definition in ModRules.getDefinitions(), or -1 if the square is empty
+   */
+  public int getKind(int square){
+    return kinds[square] - 1;
+  }
+
+  /**
+   * Returns the halfmove clock
+   * @return the amount of plies made since the last capture or pawn move
+   */
+  public int getHalfmoveClock(){
+    return clock;
+  }
+
+  @Override
+  public boolean equals(Object object){
+    if (object instanceof ModState) {
+      ModState other = (ModState) object;
+      return Arrays.equals(units, other.units) && Arrays.equals(kinds, other.kinds) &&
+             turn == other.turn && clock == other.clock;
+    }
+    return false;
+  }
+
+  @Override
+  public int hashCode(){
+    return Long.hashCode(getHash());
+  }
+}
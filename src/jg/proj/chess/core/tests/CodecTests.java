@@ -0,0 +1,194 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.FenBoardPreparer;
+import jg.proj.chess.core.PositionBoardPreparer;
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.bitboard.PositionCodec;
+import jg.proj.chess.core.engine.PerftSuite;
+import jg.proj.chess.core.units.InvalidMove;
+import jg.proj.chess.core.units.Unit.UnitType;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CodecTests {
+
+  private static final String DEFAULT_FEN = "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w - - 0 1";
+
+  @Test
+  public void test1DefaultFen(){
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+    assertEquals(DEFAULT_FEN, board.toFen());
+
+    Board fenBoard = new Board(8, 8);
+    fenBoard.initialize(new FenBoardPreparer(DEFAULT_FEN));
+    assertEquals(board.parsableToString(), fenBoard.parsableToString());
+    assertEquals(board.getPosition(), fenBoard.getPosition());
+  }
+
+  @Test
+  public void test2FenRoundTrip(){
+    for(PerftSuite.Entry entry : PerftSuite.ENTRIES){
+      String fen = Fen.encode(entry.toPosition());
+      assertTrue(fen.startsWith(entry.getPlacement()+" "));
+
+      Board board = new Board(8, 8);
+      board.initialize(new FenBoardPreparer(fen));
+      assertEquals(fen, board.toFen());
+      assertEquals(entry.toPosition(), board.getPosition());
+    }
+
+    //Team 2 to move
+    Board board = new Board(8, 8);
+    board.initialize(new FenBoardPreparer("4k3/8/8/8/8/8/8/3QK3 b - - 0 1"));
+    assertEquals(2, board.getTurn());
+    assertEquals(UnitType.QUEEN, board.querySquare(1, 'd').getUnit().getType());
+    assertEquals(2, board.querySquare(8, 'e').getUnit().getTeamID());
+
+    //the halfmove clock carries over, for the fifty-move rule
+    String clocked = "4k3/8/8/8/8/8/8/3QK3 b - - 37 1";
+    assertEquals(37, Fen.parse(clocked).getHalfmoveClock());
+    board = new Board(8, 8);
+    board.initialize(new FenBoardPreparer(clocked));
+    assertEquals(clocked, board.toFen());
+  }
+
+  @Test
+  public void test3CachedEncoding() throws InvalidMove{
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+
+    //the same encoding should be served until the board changes
+    String before = board.parsableToString();
+    assertSame(before, board.parsableToString());
+    assertSame(board.toFen(), board.toFen());
+
+    board.querySquare(2, 'e').getUnit().moveTo(board.querySquare(4, 'e'));
+    assertNotEquals(before, board.parsableToString());
+    assertEquals("rnbkqbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBKQBNR b - - 0 1", board.toFen());
+
+    board.unmakeMove();
+    assertEquals(before, board.parsableToString());
+    assertEquals(DEFAULT_FEN, board.toFen());
+  }
+
+  @Test
+  public void test4MalformedFen(){
+    String [] malformed = {"", "8/8/8", "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBN w",
+                           "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNRR w", "xnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w",
+                           "rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR x"};
+    for(String fen : malformed){
+      try {
+        Fen.parse(fen);
+        fail("Parsed a malformed FEN record: "+fen);
+      } catch (IllegalArgumentException e) {
+        assertTrue(true);
+      }
+    }
+  }
+
+  @Test
+  public void test5BinaryDefaultBoard(){
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+
+    byte [] bytes = PositionCodec.encode(board.getPosition());
+    assertEquals(25, bytes.length);
+
+    Board decoded = new Board(8, 8);
+    decoded.initialize(new PositionBoardPreparer(PositionCodec.decode(bytes)));
+    assertEquals(board.parsableToString(), decoded.parsableToString());
+    assertEquals(board.getPosition(), decoded.getPosition());
+
+    //mailbox round trip
+    byte [] mailbox = PositionCodec.decodeMailbox(bytes);
+    assertEquals(Pieces.code(Pieces.TEAM_ONE, Pieces.KING), mailbox[3]);
+    assertArrayEquals(bytes, PositionCodec.encode(mailbox, Pieces.TEAM_ONE));
+
+    //the halfmove clock is kept, as far as it matters
+    Position position = new Position(board.getPosition());
+    position.setHalfmoveClock(37);
+    assertEquals(37, PositionCodec.decode(PositionCodec.encode(position)).getHalfmoveClock());
+    position.setHalfmoveClock(500);
+    assertTrue(PositionCodec.decode(PositionCodec.encode(position)).getHalfmoveClock() >= Position.FIFTY_MOVE_PLIES);
+  }
+
+  @Test
+  public void test6BinaryRoundTrip(){
+    //play random legal games from the default board, checking every position along the way
+    Random random = new Random(13);
+    MoveList moves = new MoveList();
+    ByteBuffer stream = ByteBuffer.allocate(PositionCodec.MAX_BYTES * 200);
+
+    for(int game = 0; game < 20; game++){
+      Board board = new Board(8, 8);
+      board.initialize(new DefaultBoardPreparer());
+      Position position = board.getPosition();
+      List<Position> history = new ArrayList<>();
+      stream.clear();
+
+      for(int ply = 0; ply < 200; ply++){
+        byte [] bytes = PositionCodec.encode(position);
+        assertEquals(PositionCodec.encodedSize(position), bytes.length);
+        assertEquals(position, PositionCodec.decode(bytes));
+        assertEquals(position.getHalfmoveClock(), PositionCodec.decode(bytes).getHalfmoveClock());
+
+        PositionCodec.encode(position, stream);
+        history.add(new Position(position));
+
+        moves.clear();
+        if (MoveGenerator.generateLegal(position, moves) == 0) {
+          break;
+        }
+        board.makeMove(moves.get(random.nextInt(moves.size())));
+      }
+
+      //positions written back to back should be read back in order
+      stream.flip();
+      for(Position expected : history){
+        Position decoded = PositionCodec.decode(stream);
+        assertEquals(expected, decoded);
+        assertEquals(expected.getHalfmoveClock(), decoded.getHalfmoveClock());
+      }
+      assertFalse(stream.hasRemaining());
+    }
+  }
+
+  @Test
+  public void test7MalformedBinary(){
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+    byte [] bytes = PositionCodec.encode(board.getPosition());
+
+    byte [] truncated = new byte[bytes.length - 1];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+    byte [] badCode = bytes.clone();
+    badCode[9] = (byte) 0xF0;
+
+    for(byte [] malformed : new byte[][]{truncated, badCode, new byte[3]}){
+      try {
+        PositionCodec.decode(malformed);
+        fail("Decoded a malformed position");
+      } catch (IllegalArgumentException e) {
+        assertTrue(true);
+      }
+    }
+  }
+}
@@ -2,6 +2,7 @@ package jg.proj.chess.core.tests;
 
 import static org.junit.Assert.*;
 
+import java.util.Random;
 import java.util.Set;
 
 import org.junit.BeforeClass;
@@ -11,8 +12,14 @@ import org.junit.runners.MethodSorters;
 
 import jg.proj.chess.core.Board;
 import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.GameOutcome;
 import jg.proj.chess.core.Square;
 import jg.proj.chess.core.TeamInformation;
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
 import jg.proj.chess.core.units.InvalidMove;
 import jg.proj.chess.core.units.Pawn;
 import jg.proj.chess.core.units.Rook;
@@ -292,9 +299,53 @@ public class DefaultBoardTests {
 
       //assert win condition. A.k.A: Team 2's only king's current square is null
       assertNull(info.getTeamTwo().get(UnitType.KING).get(0).getCurrentSquare());
+      assertFalse(info.hasKing(2));
+      assertEquals(info.getKingSquare(1), board.querySquare(1, 'd'));
     } catch (InvalidMove e) {
       fail("Actually a valid move!");
     }
   }
-
+  
+  @Test
+  public void test4Draws() throws InvalidMove{
+    Board repeating = new Board(8, 8);
+    repeating.initialize(new DefaultBoardPreparer());
+    
+    //both teams shuffle a Knight out and back, twice
+    for(int round = 0; round < 2; round++){
+      assertEquals(GameOutcome.IN_PROGRESS, repeating.getOutcome());
+      repeating.querySquare(1, 'b').getUnit().moveTo(repeating.querySquare(3, 'c'));
+      repeating.querySquare(8, 'b').getUnit().moveTo(repeating.querySquare(6, 'c'));
+      repeating.querySquare(3, 'c').getUnit().moveTo(repeating.querySquare(1, 'b'));
+      repeating.querySquare(6, 'c').getUnit().moveTo(repeating.querySquare(8, 'b'));
+    }
+    assertEquals(GameOutcome.REPETITION, repeating.getOutcome());
+    assertEquals(2, repeating.getPosition().repetitions());
+    
+    //shuffle Queens and Rooks around, never capturing, checking or repeating, until fifty moves go by
+    Position position = Fen.parse("r2k4/8/8/3q4/8/8/8/R2K1Q2 w - - 0 1");
+    Random random = new Random(21);
+    MoveList moves = new MoveList();
+    MoveList quiet = new MoveList();
+    while (position.getHalfmoveClock() < Position.FIFTY_MOVE_PLIES) {
+      assertEquals(GameOutcome.IN_PROGRESS, MoveGenerator.outcome(position));
+      moves.clear();
+      quiet.clear();
+      MoveGenerator.generateLegal(position, moves);
+      for(int i = 0; i < moves.size(); i++){
+        position.makeMove(moves.get(i));
+        if (!Move.isCapture(moves.get(i)) && position.repetitions() == 0 && 
+            !MoveGenerator.isInCheck(position, position.getSideToMove())) {
+          quiet.add(moves.get(i));
+        }
+        position.unmakeMove();
+      }
+      position.makeMove(quiet.get(random.nextInt(quiet.size())));
+    }
+    assertEquals(GameOutcome.FIFTY_MOVES, MoveGenerator.outcome(position));
+    
+    //taking a move back winds the clock back too
+    position.unmakeMove();
+    assertEquals(Position.FIFTY_MOVE_PLIES - 1, position.getHalfmoveClock());
+  }
 }
@@ -0,0 +1,121 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.GameOutcome;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.rules.CheckersRules;
+import jg.proj.chess.core.rules.CheckersState;
+import jg.proj.chess.core.rules.Game;
+import jg.proj.chess.core.rules.GameRegistry;
+import jg.proj.chess.core.rules.ModRules;
+import jg.proj.chess.core.units.PieceDefinition;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class GameRulesTests {
+
+  @Test
+  public void test1Chess(){
+    Game<?> game = GameRegistry.newGame("Chess");
+    MoveList moves = new MoveList();
+    assertEquals(20, game.legalMoves(moves));
+    assertEquals(1, game.getTurn());
+
+    //votes are looked up by their squares, and only for the team whose turn it is
+    int move = game.find(1, Bitboards.square(2, 'B'), Bitboards.square(4, 'B'));
+    assertEquals("2B>4B", Move.toString(move));
+    assertEquals(Move.NONE, game.find(2, Bitboards.square(7, 'B'), Bitboards.square(5, 'B')));
+    assertEquals(Move.NONE, game.find(1, Bitboards.square(2, 'B'), Bitboards.square(5, 'B')));
+    assertEquals(Move.NONE, game.find(1, -1, Bitboards.square(4, 'B')));
+
+    game.makeMove(move);
+    assertEquals(2, game.getTurn());
+    assertEquals(GameOutcome.IN_PROGRESS, game.outcome());
+
+    try {
+      GameRegistry.newGame("go");
+      fail("Unknown games can't be started");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+  }
+
+  @Test
+  public void test2Checkers(){
+    Game<CheckersState> game = new Game<>(new CheckersRules());
+    CheckersRules rules = (CheckersRules) game.getRules();
+    MoveList moves = new MoveList();
+    assertEquals(7, game.legalMoves(moves));
+
+    game.makeMove(game.find(1, Bitboards.square(3, 'C'), Bitboards.square(4, 'D')));
+    assertEquals(2, game.getTurn());
+    game.makeMove(game.find(2, Bitboards.square(6, 'F'), Bitboards.square(5, 'E')));
+
+    //capturing is compulsory
+    moves.clear();
+    assertEquals(1, game.legalMoves(moves));
+    int jump = moves.get(0);
+    assertTrue(rules.isJump(jump));
+    assertEquals(Bitboards.square(5, 'E'), rules.jumped(jump));
+    assertEquals(Move.NONE, game.find(1, Bitboards.square(3, 'A'), Bitboards.square(4, 'B')));
+
+    game.makeMove(jump);
+    assertEquals(0, game.getState().getMen(2) & Bitboards.bit(Bitboards.square(5, 'E')));
+    assertEquals(11, Bitboards.count(game.getState().getMen(2)));
+    assertEquals(2, game.getTurn());
+    assertEquals(-1, game.getState().getJumper());
+
+    //Team 2 must take back
+    moves.clear();
+    assertEquals(2, game.legalMoves(moves));
+    for(int i = 0; i < moves.size(); i++){
+      assertTrue(rules.isJump(moves.get(i)));
+    }
+    assertEquals(GameOutcome.IN_PROGRESS, game.outcome());
+
+    String description = game.describe();
+    assertEquals(Bitboards.FILES, description.split("\\|").length);
+    assertTrue(description.startsWith("M1,~,M1"));
+  }
+
+  @Test
+  public void test3Mods(){
+    Game<?> game = GameRegistry.newGame("Berolina");
+    MoveList moves = new MoveList();
+    assertEquals(18, game.legalMoves(moves));
+    assertTrue(game.describe().startsWith("R1,K1,B1,K1,Q1,B1,K1,R1|P1"));
+
+    //Berolina pawns step diagonally forward, and capture straight forward
+    int move = game.find(1, Bitboards.square(2, 'E'), Bitboards.square(3, 'F'));
+    assertNotEquals(Move.NONE, move);
+    assertEquals(Move.NONE, game.find(1, Bitboards.square(2, 'E'), Bitboards.square(3, 'E')));
+    game.makeMove(move);
+    game.makeMove(game.find(2, Bitboards.square(7, 'G'), Bitboards.square(6, 'F')));
+    game.makeMove(game.find(1, Bitboards.square(1, 'E'), Bitboards.square(2, 'E')));
+
+    //Team 2's King is in check from the Queen, down file E: only blocking or capturing it will do
+    game.makeMove(game.find(2, Bitboards.square(7, 'E'), Bitboards.square(6, 'D')));
+    game.makeMove(game.find(1, Bitboards.square(2, 'E'), Bitboards.square(7, 'E')));
+    moves.clear();
+    game.legalMoves(moves);
+    for(int i = 0; i < moves.size(); i++){
+      assertEquals(Bitboards.square(7, 'E'), game.getRules().to(moves.get(i)));
+    }
+    assertEquals(GameOutcome.IN_PROGRESS, game.outcome());
+
+    try {
+      new ModRules("short", Arrays.asList(new PieceDefinition[Bitboards.RANKS - 1]), null);
+      fail("A back rank needs eight units");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+  }
+}
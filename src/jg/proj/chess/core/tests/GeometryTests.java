@@ -0,0 +1,162 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.BoardGeometry;
+import jg.proj.chess.core.BoardMove;
+import jg.proj.chess.core.Square;
+import jg.proj.chess.core.bitboard.Attacks;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.units.Bishop;
+import jg.proj.chess.core.units.King;
+import jg.proj.chess.core.units.Knight;
+import jg.proj.chess.core.units.ModUnit;
+import jg.proj.chess.core.units.Pawn;
+import jg.proj.chess.core.units.PieceDefinition;
+import jg.proj.chess.core.units.PieceTable;
+import jg.proj.chess.core.units.Queen;
+import jg.proj.chess.core.units.Rook;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class GeometryTests {
+
+  @Test
+  public void test1Tables(){
+    BoardGeometry geometry = BoardGeometry.of(10, 12);
+    assertSame(geometry, BoardGeometry.of(10, 12));
+    assertEquals(120, geometry.getSquareCount());
+
+    int corner = geometry.square(1, 'a');
+    assertEquals(0, corner);
+    assertEquals(-1, geometry.square(11, 'a'));
+    assertEquals(-1, geometry.square(1, 'm'));
+    assertEquals(-1, geometry.neighbor(corner, BoardGeometry.UP));
+    assertEquals(geometry.square(2, 'a'), geometry.neighbor(corner, BoardGeometry.DOWN));
+
+    assertEquals(9, geometry.ray(corner, BoardGeometry.DOWN).length);
+    assertEquals(11, geometry.ray(corner, BoardGeometry.RIGHT).length);
+    assertEquals(3, geometry.kingTargets(corner).length);
+    assertEquals(2, geometry.knightTargets(corner).length);
+    assertEquals(8, geometry.kingTargets(geometry.square(5, 'f')).length);
+    assertEquals(8, geometry.knightTargets(geometry.square(5, 'f')).length);
+  }
+
+  @Test
+  public void test2LargeBoardUnits(){
+    Board board = new Board(10, 12);
+    Square [][] squares = board.getSquares();
+    for(int file = 0; file < 10; file++){
+      for(int rank = 0; rank < 12; rank++){
+        squares[file][rank] = new Square(file + 1, (char) ('A' + rank), board);
+      }
+    }
+
+    Rook rook = new Rook(1, board.querySquare(1, 'a'));
+    Queen queen = new Queen(2, board.querySquare(6, 'g'));
+    Knight knight = new Knight(1, board.querySquare(10, 'l'));
+    Pawn pawn = new Pawn(1, board.querySquare(2, 'd'));
+    King king = new King(2, board.querySquare(10, 'a'));
+    rook.getCurrentSquare().placeUnit(rook);
+    queen.getCurrentSquare().placeUnit(queen);
+    knight.getCurrentSquare().placeUnit(knight);
+    pawn.getCurrentSquare().placeUnit(pawn);
+    king.getCurrentSquare().placeUnit(king);
+
+    assertNull(board.getPosition());
+    assertEquals(20, rook.possibleDestinations().size());
+    assertEquals(38, queen.possibleDestinations().size());
+    assertEquals(2, knight.possibleDestinations().size());
+    assertEquals(2, pawn.possibleDestinations().size());
+    assertEquals(3, king.possibleDestinations().size());
+
+    //a unit can step next to itself, but never onto its own square
+    assertTrue(king.canMoveTo(board.querySquare(9, 'b')));
+    assertFalse(rook.canMoveTo(board.querySquare(1, 'a')));
+
+    //moves are encoded with the board's square indexes
+    MoveList moves = new MoveList();
+    assertEquals(38, queen.generateMoves(moves));
+    for(int i = 0; i < moves.size(); i++){
+      assertEquals(queen.getCurrentSquare().getIndex(), BoardMove.from(moves.get(i)));
+      assertTrue(queen.canMoveTo(board.squareAt(BoardMove.to(moves.get(i)))));
+    }
+  }
+
+  @Test
+  public void test3ModUnits(){
+    //compiled definitions of built-in units match the built-in attack tables
+    PieceTable knight = PieceDefinition.parse("name=Horse; look=KNIGHT; leap=2,1").compile(BoardGeometry.of(8, 8));
+    PieceTable rook = PieceDefinition.parse("name=Tower; look=ROOK; ride=1,0").compile(BoardGeometry.of(8, 8));
+    for(int square = 0; square < Bitboards.SQUARES; square++){
+      assertEquals(Attacks.knight(square), toBitboard(knight.leaps(1, square)));
+      long rays = 0;
+      for(int [] ray : rook.rays(2, square)){
+        rays |= toBitboard(ray);
+      }
+      assertEquals(Attacks.rook(square, 0L), rays);
+    }
+
+    Board board = new Board(10, 12);
+    Square [][] squares = board.getSquares();
+    for(int file = 0; file < 10; file++){
+      for(int rank = 0; rank < 12; rank++){
+        squares[file][rank] = new Square(file + 1, (char) ('A' + rank), board);
+      }
+    }
+
+    //an Archbishop moves as a Bishop and a Knight
+    PieceDefinition archbishop = PieceDefinition.parse("name=Archbishop; look=BISHOP; leap=2,1; ride=1,1");
+    ModUnit mod = new ModUnit(archbishop, 1, board.querySquare(5, 'f'));
+    Bishop bishop = new Bishop(1, board.querySquare(5, 'f'));
+    Knight horse = new Knight(1, board.querySquare(5, 'f'));
+    mod.getCurrentSquare().placeUnit(mod);
+    Pawn blocker = new Pawn(2, board.querySquare(3, 'd'));
+    blocker.getCurrentSquare().placeUnit(blocker);
+
+    assertEquals(bishop.possibleDestinations().size() + horse.possibleDestinations().size(), mod.possibleDestinations().size());
+    assertTrue(mod.canMoveTo(board.querySquare(3, 'd')));
+    assertFalse(mod.canMoveTo(board.querySquare(2, 'c')));
+    assertEquals("Archbishop-1", mod.toString());
+
+    //a Berolina pawn steps diagonally forward, and captures straight forward
+    ModUnit berolina = new ModUnit(PieceDefinition.parse("name=Berolina; leap=1,1/move/forward; leap=1,0/capture/forward"), 
+                                   1, board.querySquare(2, 'd'));
+    berolina.getCurrentSquare().placeUnit(berolina);
+    assertEquals(3, berolina.possibleDestinations().size());
+    assertTrue(berolina.canMoveTo(board.querySquare(3, 'c')));
+    assertTrue(berolina.canMoveTo(board.querySquare(3, 'd')));
+    assertFalse(berolina.canMoveTo(board.querySquare(1, 'c')));
+
+    //Positions only know the built-in units
+    Board positionBoard = new Board(8, 8);
+    try {
+      new Square(1, 'a', positionBoard).placeUnit(new ModUnit(archbishop, 1, null));
+      fail("Mod units can't be placed on boards backed by a Position");
+    } catch (IllegalArgumentException e) {
+      //expected
+    }
+
+    for(String malformed : new String[]{"leap=1,2", "name=Nothing", "name=X; leap=0,0", "name=X; ride=1,1/far", "name=X; jump=1,2"}){
+      try {
+        PieceDefinition.parse(malformed);
+        fail("Malformed definition: "+malformed);
+      } catch (IllegalArgumentException e) {
+        //expected
+      }
+    }
+  }
+
+  private static long toBitboard(int [] squares){
+    long bitboard = 0;
+    for(int square : squares){
+      bitboard |= Bitboards.bit(square);
+    }
+    return bitboard;
+  }
+}
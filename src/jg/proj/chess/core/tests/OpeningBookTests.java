@@ -0,0 +1,79 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.engine.OpeningBook;
+import jg.proj.chess.core.engine.OpeningBookBuilder;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class OpeningBookTests {
+
+  private static final String GAMES =
+      "[Event \"One\"]\n[Result \"1-0\"]\n\n1. e4 e5 2. Nf3 Nc6 1-0\n\n"+
+      "[Event \"Two\"]\n[Result \"0-1\"]\n\n1. d4 {a comment} d5 (1... Nf6 2. c4) 2. c4 $1 0-1\n\n"+
+      "[Event \"Three\"]\n\n1.e4 c5 2. 2B>4B *\n";
+
+  @Test
+  public void test1ParseMoves(){
+    Position start = Fen.parse(Fen.DEFAULT);
+    MoveList legal = new MoveList();
+
+    //orthodox moves are mirrored: the orthodox e-file is rank D, with the King
+    assertEquals("2D>4D", Move.toString(OpeningBookBuilder.parseMove(start, "e4", legal)));
+    assertEquals("1B>3C", Move.toString(OpeningBookBuilder.parseMove(start, "Nf3+", legal)));
+    assertEquals("2E>4E", Move.toString(OpeningBookBuilder.parseMove(start, "d4", legal)));
+    assertEquals("2B>4B", Move.toString(OpeningBookBuilder.parseMove(start, "2B>4B", legal)));
+
+    //illegal, unsupported and malformed moves
+    assertEquals(Move.NONE, OpeningBookBuilder.parseMove(start, "e5", legal));
+    assertEquals(Move.NONE, OpeningBookBuilder.parseMove(start, "O-O", legal));
+    assertEquals(Move.NONE, OpeningBookBuilder.parseMove(start, "Qz9", legal));
+  }
+
+  @Test
+  public void test2BuildAndProbe() throws IOException{
+    OpeningBookBuilder builder = new OpeningBookBuilder();
+    assertEquals(3, builder.addGames(new StringReader(GAMES)));
+
+    Path file = Files.createTempFile("book", OpeningBook.EXTENSION);
+    try {
+      builder.write(file);
+      OpeningBook book = new OpeningBook(file);
+      assertEquals(builder.size(), book.size());
+
+      //won and unfinished games count, lost ones don't
+      Position position = Fen.parse(Fen.DEFAULT);
+      assertEquals("2D>4D", Move.toString(book.best(position)));
+      Random random = new Random(20);
+      for(int i = 0; i < 10; i++){
+        assertEquals("2D>4D", Move.toString(book.choose(position, random)));
+      }
+
+      position.makeMove(book.best(position));
+      assertEquals("7F>5F", Move.toString(book.best(position)));
+
+      //out of the book
+      position.makeMove(book.best(position));
+      assertEquals("2B>4B", Move.toString(book.best(position)));
+      position.makeMove(book.best(position));
+      assertEquals(Move.NONE, book.best(position));
+      assertEquals(Move.NONE, book.choose(position, random));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.engine.Perft;
+import jg.proj.chess.core.engine.PerftSuite;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class PerftTests {
+
+  @Test
+  public void test1DefaultBoard(){
+    //the default board should match the suite's starting position
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+
+    Position start = PerftSuite.ENTRIES.get(0).toPosition();
+    assertEquals(start, board.getPosition());
+
+    for(int depth = 1; depth <= 3; depth++){
+      assertEquals(PerftSuite.ENTRIES.get(0).expected(depth), Perft.perft(board.getPosition(), depth));
+    }
+  }
+
+  @Test
+  public void test2Suite(){
+    for(PerftSuite.Entry entry : PerftSuite.ENTRIES){
+      Position position = entry.toPosition();
+      long hash = position.getHash();
+
+      for(int depth = 1; depth <= entry.maxDepth(); depth++){
+        assertEquals(entry.getName()+" at depth "+depth, entry.expected(depth), Perft.perft(position, depth));
+      }
+
+      //perft should leave the position as it was
+      assertEquals(hash, position.getHash());
+      assertEquals(0, position.undoCount());
+    }
+  }
+
+  @Test
+  public void test3Parallel(){
+    for(PerftSuite.Entry entry : PerftSuite.ENTRIES){
+      int depth = entry.maxDepth();
+      assertEquals(entry.getName(), entry.expected(depth), Perft.parallelPerft(entry.toPosition(), depth));
+    }
+  }
+
+  @Test
+  public void test4Divide(){
+    PerftSuite.Entry entry = PerftSuite.ENTRIES.get(0);
+    Map<Integer, Long> counts = Perft.divide(entry.toPosition(), 3);
+
+    assertEquals(entry.expected(1), counts.size());
+
+    long total = 0;
+    for(long count : counts.values()){
+      total += count;
+    }
+    assertEquals(entry.expected(3), total);
+  }
+}
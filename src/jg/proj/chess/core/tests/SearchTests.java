@@ -0,0 +1,146 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.PieceSquareTables;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.engine.Evaluator;
+import jg.proj.chess.core.engine.ParallelSearcher;
+import jg.proj.chess.core.engine.SearchResult;
+import jg.proj.chess.core.engine.Searcher;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SearchTests {
+
+  @Test
+  public void test1Tactics(){
+    Searcher searcher = new Searcher();
+
+    //back rank mate
+    SearchResult mate = searcher.search(Fen.parse("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), 2000);
+    assertEquals("1A>8A", Move.toString(mate.getMove()));
+    assertTrue(mate.isMate());
+    assertEquals(Searcher.MATE - 1, mate.getScore());
+
+    //a free Queen
+    SearchResult capture = searcher.search(Fen.parse("4k3/8/8/3q4/8/8/3R4/3K4 w - - 0 1"), 2000, 4);
+    assertEquals("2D>5D", Move.toString(capture.getMove()));
+    assertEquals(4, capture.getDepth());
+
+    //no legal moves
+    SearchResult stalemate = searcher.search(Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"), 100);
+    assertEquals(Move.NONE, stalemate.getMove());
+  }
+
+  @Test
+  public void test2Deadline(){
+    Position position = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+    Position original = new Position(position);
+
+    long start = System.currentTimeMillis();
+    SearchResult result = new Searcher().search(position, 100);
+    long elapsed = System.currentTimeMillis() - start;
+
+    //the deadline stopped the search, not its depth. The time bound is loose, for loaded machines
+    assertTrue(result.getDepth() < Searcher.MAX_PLY);
+    assertTrue("Search took "+elapsed+"ms", elapsed < 5000);
+    assertNotEquals(Move.NONE, result.getMove());
+    assertTrue(result.getDepth() >= 1);
+    assertEquals(original, position);
+  }
+
+  @Test
+  public void test3Parallel(){
+    ParallelSearcher searcher = new ParallelSearcher();
+
+    SearchResult mate = searcher.search(Fen.parse("6k1/5ppp/8/8/8/8/5PPP/R5K1 w - - 0 1"), 2000, 4);
+    assertEquals("1A>8A", Move.toString(mate.getMove()));
+    assertTrue(mate.isMate());
+
+    Position position = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+    Position original = new Position(position);
+    long start = System.currentTimeMillis();
+    SearchResult result = searcher.search(position, 100, 4);
+    long elapsed = System.currentTimeMillis() - start;
+
+    assertTrue(result.getDepth() < Searcher.MAX_PLY);
+    assertTrue("Search took "+elapsed+"ms", elapsed < 5000);
+    assertNotEquals(Move.NONE, result.getMove());
+    assertEquals(original, position);
+
+    try {
+      searcher.search(position, 100, 0);
+      fail("Searched with no threads");
+    } catch (IllegalArgumentException e) {
+      assertTrue(true);
+    }
+  }
+
+  @Test
+  public void test4IncrementalEvaluation(){
+    Position start = Fen.parse("rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w - - 0 1");
+
+    //the default board is symmetric
+    assertEquals(0, Evaluator.evaluate(start, Pieces.TEAM_ONE));
+    assertEquals(Evaluator.TEMPO, Evaluator.evaluate(start));
+    assertEquals(PieceSquareTables.MAX_PHASE, start.getPhase());
+
+    //play random games, comparing the incremental terms with ones recomputed from scratch
+    Random random = new Random(18);
+    MoveList moves = new MoveList();
+    for(int game = 0; game < 20; game++){
+      Position position = new Position(start);
+      for(int ply = 0; ply < 200; ply++){
+        Position rebuilt = new Position();
+        for(int square = 0; square < Bitboards.SQUARES; square++){
+          if (!position.isEmpty(square)) {
+            rebuilt.place(square, position.teamAt(square), position.typeAt(square));
+          }
+        }
+        for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+          assertEquals(rebuilt.getMaterial(team), position.getMaterial(team));
+          assertEquals(rebuilt.getMiddlegameScore(team), position.getMiddlegameScore(team));
+          assertEquals(rebuilt.getEndgameScore(team), position.getEndgameScore(team));
+        }
+        assertEquals(rebuilt.getPhase(), position.getPhase());
+        
+        //attack counts too
+        for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+          assertEquals(MoveGenerator.attackMap(position, team, position.occupancy()), position.getAttackMap().attacked(team));
+          for(int square = 0; square < Bitboards.SQUARES; square++){
+            long attackers = MoveGenerator.attackers(position, square, team, position.occupancy());
+            assertEquals(Bitboards.count(attackers), position.getAttackMap().count(team, square));
+          }
+        }
+
+        moves.clear();
+        if (MoveGenerator.generateLegal(position, moves) == 0) {
+          break;
+        }
+        position.makeMove(moves.get(random.nextInt(moves.size())));
+      }
+
+      //taking every move back restores the terms too
+      while (position.undoCount() > 0) {
+        position.unmakeMove();
+      }
+      assertEquals(Evaluator.evaluate(start), Evaluator.evaluate(position));
+      assertEquals(start.getPhase(), position.getPhase());
+      for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+        assertEquals(start.getAttackMap().attacked(team), position.getAttackMap().attacked(team));
+      }
+    }
+  }
+}
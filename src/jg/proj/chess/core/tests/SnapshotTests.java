@@ -0,0 +1,140 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.BoardDiff;
+import jg.proj.chess.core.BoardSnapshot;
+import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.Square;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.units.InvalidMove;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class SnapshotTests {
+
+  @Test
+  public void test1SnapshotPerMove() throws InvalidMove{
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+
+    BoardSnapshot first = board.getSnapshot();
+    assertEquals(board.parsableToString(), first.parsableToString());
+    assertTrue(isLegal(first, 2, 'e', 4, 'e'));
+
+    board.querySquare(2, 'e').getUnit().moveTo(board.querySquare(4, 'e'));
+    BoardSnapshot second = board.getSnapshot();
+    assertNotSame(first, second);
+    assertEquals(board.parsableToString(), second.parsableToString());
+    assertEquals(2, second.getTurn());
+    assertFalse(isLegal(second, 2, 'd', 4, 'd'));
+    assertTrue(isLegal(second, 7, 'e', 5, 'e'));
+
+    //older snapshots are unaffected by later moves
+    assertTrue(isLegal(first, 2, 'e', 4, 'e'));
+    assertEquals(1, first.getTurn());
+
+    //off the board
+    assertEquals(0, second.pieceAt(0, 'a'));
+  }
+
+  @Test
+  public void test2ConcurrentReaders() throws Exception{
+    final Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+
+    final AtomicBoolean done = new AtomicBoolean();
+    final AtomicReference<String> failure = new AtomicReference<>();
+
+    //readers should only ever see whole moves: no unit is captured, so there are always 32 units
+    Thread [] readers = new Thread[4];
+    for(int i = 0; i < readers.length; i++){
+      readers[i] = new Thread(() -> {
+        int lastVersion = Integer.MIN_VALUE;
+        while (!done.get()) {
+          BoardSnapshot snapshot = board.getSnapshot();
+          int units = Bitboards.count(snapshot.toPosition().occupancy());
+          if (units != 32 || snapshot.getVersion() < lastVersion) {
+            failure.set("Saw "+units+" units at version "+snapshot.getVersion());
+          }
+          lastVersion = snapshot.getVersion();
+        }
+      });
+      readers[i].start();
+    }
+
+    Square knightSquare = board.querySquare(1, 'g');
+    Square destination = board.querySquare(3, 'f');
+    for(int i = 0; i < 20000; i++){
+      knightSquare.getUnit().moveTo(destination);
+      board.unmakeMove();
+    }
+
+    done.set(true);
+    for(Thread reader : readers){
+      reader.join();
+    }
+    assertNull(failure.get());
+  }
+
+  @Test
+  public void test3Diffs() throws InvalidMove{
+    Board board = new Board(8, 8);
+    board.initialize(new DefaultBoardPreparer());
+    int start = board.getSnapshot().getVersion();
+
+    board.querySquare(2, 'e').getUnit().moveTo(board.querySquare(4, 'e'));
+    BoardDiff diff = board.diffSince(start);
+    assertFalse(diff.isFull());
+    assertEquals(2, diff.size());
+    assertEquals(2, diff.getTurn());
+    assertEquals(start+",", diff.toString().substring(0, diff.toString().indexOf(',') + 1));
+    assertTrue(diff.toString().endsWith("|2E~|4EP"));
+
+    //the compact form parses back to the same diff
+    BoardDiff parsed = BoardDiff.parse(diff.toString(), board.getGeometry());
+    assertEquals(diff.toString(), parsed.toString());
+    assertEquals(Pieces.EMPTY, parsed.getCode(0));
+
+    //nothing changed since the last version
+    assertTrue(board.diffSince(board.getVersion()).isEmpty());
+    assertEquals(0, board.diffSince(board.getVersion()).size());
+
+    //an unknown version gets the whole board
+    BoardDiff full = board.diffSince(-12345);
+    assertTrue(full.isFull());
+    assertEquals(32, full.size());
+
+    //a late joiner catches up with a full diff, then with the next move's diff
+    Board copy = new Board(8, 8);
+    copy.initialize(new DefaultBoardPreparer());
+    copy.querySquare(1, 'a').getUnit().updateSquare(null);
+    copy.querySquare(1, 'a').placeUnit(null);
+    full.applyTo(copy);
+    assertEquals(board.toFen(), copy.toFen());
+
+    int joined = board.getSnapshot().getVersion();
+    board.querySquare(7, 'e').getUnit().moveTo(board.querySquare(5, 'e'));
+    BoardDiff.parse(board.diffSince(joined).toString(), copy.getGeometry()).applyTo(copy);
+    assertEquals(board.parsableToString(), copy.parsableToString());
+    assertEquals(1, copy.getTurn());
+  }
+
+  private static boolean isLegal(BoardSnapshot snapshot, int fromFile, char fromRank, int toFile, char toRank){
+    int code = snapshot.pieceAt(fromFile, fromRank);
+    if (code == Pieces.EMPTY || Pieces.teamID(Pieces.team(code)) != snapshot.getTurn()) {
+      return false;
+    }
+    long destinations = MoveGenerator.legalDestinations(snapshot.toPosition(), Bitboards.square(fromFile, fromRank));
+    return Bitboards.isSet(destinations, Bitboards.square(toFile, toRank));
+  }
+}
@@ -0,0 +1,85 @@
+package jg.proj.chess.core.tests;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import jg.proj.chess.core.bitboard.Fen;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.engine.SearchResult;
+import jg.proj.chess.core.engine.Searcher;
+import jg.proj.chess.core.engine.Tablebase;
+import jg.proj.chess.core.engine.TablebaseGenerator;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class TablebaseTests {
+
+  @Test
+  public void test1Probe() throws IOException{
+    Path directory = Files.createTempDirectory("tablebase");
+    try {
+      TablebaseGenerator generator = new TablebaseGenerator();
+      generator.write(directory, TablebaseGenerator.parse("KQvK"));
+      Tablebase tablebase = new Tablebase(directory);
+
+      //mate in one, and mated in one
+      assertEquals(Searcher.MATE - 1, tablebase.probe(Fen.parse("6k1/8/6K1/8/8/8/8/Q7 w - - 0 1")));
+      assertEquals(-(Searcher.MATE - 2), tablebase.probe(Fen.parse("7k/8/6K1/8/8/8/8/7Q b - - 0 1")));
+
+      //stalemate
+      assertEquals(0, tablebase.probe(Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1")));
+
+      //Team 2 having the Queen is looked up in the same table
+      assertTrue(tablebase.covers(Fen.parse("q7/8/8/8/8/1k6/8/K7 b - - 0 1")));
+      assertEquals(-(Searcher.MATE - 2), tablebase.probe(Fen.parse("7K/8/6k1/8/8/8/8/7q w - - 0 1")));
+
+      //no table
+      assertEquals(Tablebase.NOT_FOUND, tablebase.probe(Fen.parse("3k4/8/8/8/8/8/r7/3QK3 b - - 0 1")));
+      assertEquals(Tablebase.NOT_FOUND, tablebase.probe(Fen.parse("rnbkqbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBKQBNR w - - 0 1")));
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        files.forEach(file -> file.toFile().delete());
+      }
+      Files.delete(directory);
+    }
+
+    try {
+      TablebaseGenerator.parse("KQK");
+      fail("Parsed a material set with no 'v'");
+    } catch (IllegalArgumentException e) {
+      assertTrue(true);
+    }
+  }
+
+  @Test
+  public void test2Search() throws IOException{
+    Path directory = Files.createTempDirectory("tablebase");
+    try {
+      new TablebaseGenerator().write(directory, TablebaseGenerator.parse("KRvK"));
+      Searcher searcher = new Searcher();
+      searcher.setTablebase(new Tablebase(directory));
+
+      //the table sees a mate far deeper than a 4 ply search could
+      SearchResult result = searcher.search(Fen.parse("8/8/8/3k4/8/8/8/K6R w - - 0 1"), 2000, 4);
+      assertTrue(result.isMate());
+      assertNotEquals(Move.NONE, result.getMove());
+      assertTrue(result.getScore() > 0);
+
+      //but not once the fifty-move clock would run out before the mate
+      result = searcher.search(Fen.parse("8/8/8/3k4/8/8/8/K6R w - - 80 1"), 2000, 4);
+      assertFalse(result.isMate());
+    } finally {
+      try (Stream<Path> files = Files.list(directory)) {
+        files.forEach(file -> file.toFile().delete());
+      }
+      Files.delete(directory);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package jg.proj.chess.core.units;
+
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.BoardMove;
+import jg.proj.chess.core.Square;
+import jg.proj.chess.core.bitboard.MoveList;
+
+/**
+ * A unit that moves as described by a PieceDefinition, from a mod.
+ *
+ * Its moves are walked from the definition's PieceTable for the board's shape,
+ * the same way built-in units walk BoardGeometry's tables. Bitboard Positions only
+ * know the built-in units, so mod units can only be placed on boards that aren't
+ * backed by a Position. Games of mod units on 8 x 8 boards are played through
+ * jg.proj.chess.core.rules.ModRules instead.
+ *
+ * @author Jose
+ *
+ */
+public class ModUnit extends Unit{
+
+  private final PieceDefinition definition;
+
+  public ModUnit(PieceDefinition definition, int teamID, Square initialSquare) {
+    super(definition.getLook(), teamID, initialSquare);
+    this.definition = definition;
+  }
+
+  @Override
+  protected int walkMoves(MoveList moves) {
+    Board board = currentSquare.getHostBoard();
+    PieceTable table = definition.compile(board.getGeometry());
+    int from = currentSquare.getIndex();
+    int count = 0;
+
+    int [] leaps = table.leaps(getTeamID(), from);
+    byte [] leapModes = table.leapModes(getTeamID(), from);
+    for(int i = 0; i < leaps.length; i++){
+      if (canLand(leapModes[i], board.squareAt(leaps[i]))) {
+        moves.add(BoardMove.encode(from, leaps[i]));
+        count++;
+      }
+    }
+
+    int [][] rays = table.rays(getTeamID(), from);
+    byte [] rayModes = table.rayModes(getTeamID(), from);
+    for(int i = 0; i < rays.length; i++){
+      for(int ray : rays[i]){
+        Square target = board.squareAt(ray);
+        if (canLand(rayModes[i], target)) {
+          moves.add(BoardMove.encode(from, ray));
+          count++;
+        }
+        if (target.getUnit() != null) {
+          break;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Checks if this unit may land on a Square
+   * @param mode - how the Square may be landed on (see PieceDefinition.MOVE, CAPTURE and ANY)
+   * @param target - the Square
+   * @return true if the Square is empty and may be moved to, or holds an enemy unit that may be captured
+   */
+  private boolean canLand(int mode, Square target){
+    Unit unit = target.getUnit();
+    if (unit == null) {
+      return (mode & PieceDefinition.MOVE) != 0;
+    }
+    return unit.getTeamID() != getTeamID() && (mode & PieceDefinition.CAPTURE) != 0;
+  }
+
+  public PieceDefinition getDefinition(){
+    return definition;
+  }
+
+  @Override
+  public String toString(){
+    return definition.getName()+"-"+getTeamID();
+  }
+}
@@ -1,12 +1,16 @@
 package jg.proj.chess.core.units;
 
-import java.util.Set;
-
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.BoardGeometry;
+import jg.proj.chess.core.BoardMove;
 import jg.proj.chess.core.Square;
-import jg.proj.chess.utils.NonNullHashSet;
+import jg.proj.chess.core.bitboard.MoveList;
 
 public class Pawn extends Unit{
 
+  private static final int [] TEAM_1_DIAGONALS = {BoardGeometry.DOWN_LEFT, BoardGeometry.DOWN_RIGHT};
+  private static final int [] TEAM_2_DIAGONALS = {BoardGeometry.UP_LEFT, BoardGeometry.UP_RIGHT};
+
   private boolean hasMovedAlready;
   
   public Pawn(int teamID, Square initialSquare) {
@@ -23,52 +27,39 @@ public class Pawn extends Unit{
   }
 
   @Override
-  public Set<Square> possibleDestinations() {  
-    //Use a hashset that doesn't allow for null values
-    NonNullHashSet<Square> possibles = new NonNullHashSet<>();
+  protected int walkMoves(MoveList moves) {  
+    Board board = currentSquare.getHostBoard();
+    BoardGeometry geometry = board.getGeometry();
+    int from = currentSquare.getIndex();
+    int count = 0;
     
-    if (getTeamID() == 1) {
-      Square nextStep = currentSquare.downSquare();
-      possibles.add(nextStep == null || nextStep.getUnit() == null ? nextStep : null);
+    //Team 1 moves down the board, Team 2 moves up
+    int forward = getTeamID() == 1 ? BoardGeometry.DOWN : BoardGeometry.UP;
+    int [] diagonals = getTeamID() == 1 ? TEAM_1_DIAGONALS : TEAM_2_DIAGONALS;
+    
+    int nextStep = geometry.neighbor(from, forward);
+    if (nextStep >= 0 && board.squareAt(nextStep).getUnit() == null) {
+      moves.add(BoardMove.encode(from, nextStep));
+      count++;
       
-      if (!hasMovedAlready && nextStep != null && nextStep.getUnit() == null) {
-        possibles.add(nextStep.downSquare());
+      int secondStep = hasMovedAlready ? -1 : geometry.neighbor(nextStep, forward);
+      if (secondStep >= 0 && board.squareAt(secondStep).getUnit() == null) {
+        moves.add(BoardMove.encode(from, secondStep));
+        count++;
       }
-      
-      Square west = currentSquare.leftSquare();
-      Square southWest = west != null ? west.downSquare() : null;
-      
-      //only add diagonal moves if enemy unit is present on them
-      possibles.add(southWest != null && southWest.getUnit() != null && southWest.getUnit().getTeamID() != getTeamID() ? southWest : null);
-      
-      Square east = currentSquare.rightSquare();
-      Square southEast = east != null ? east.downSquare() : null;
-      
-      //only add diagonal moves if enemy unit is present on them
-      possibles.add(southEast != null && southEast.getUnit() != null && southEast.getUnit().getTeamID() != getTeamID() ? southEast : null);
     }
-    else if (getTeamID() == 2) {
-      Square nextStep = currentSquare.upSquare();
-      possibles.add(nextStep == null || nextStep.getUnit() == null ? nextStep : null);
-      
-      if (!hasMovedAlready && nextStep != null && nextStep.getUnit() == null) {
-        possibles.add(nextStep.upSquare());
-      }     
-      
-      Square west = currentSquare.leftSquare();
-      Square northWest = west != null ? west.upSquare() : null;
-      
-      //only add diagonal moves if enemy unit is present on them
-      possibles.add(northWest != null && northWest.getUnit() != null && northWest.getUnit().getTeamID() != getTeamID() ? northWest : null);
-      
-      Square east = currentSquare.rightSquare();
-      Square northEast = east != null ? east.upSquare() : null;
-      
-      //only add diagonal moves if enemy unit is present on them
-      possibles.add(northEast != null && northEast.getUnit() != null && northEast.getUnit().getTeamID() != getTeamID() ? northEast : null);
+    
+    //only add diagonal moves if enemy unit is present on them
+    for(int diagonal : diagonals){
+      int target = geometry.neighbor(from, diagonal);
+      Unit unit = target >= 0 ? board.squareAt(target).getUnit() : null;
+      if (unit != null && unit.getTeamID() != getTeamID()) {
+        moves.add(BoardMove.encode(from, target));
+        count++;
+      }
     }
     
-    return possibles;
+    return count;
   }
 
 }
@@ -0,0 +1,254 @@
+package jg.proj.chess.core.units;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jg.proj.chess.core.BoardGeometry;
+import jg.proj.chess.core.units.Unit.UnitType;
+
+/**
+ * Describes how a mod unit (see ModUnit) moves, declaratively: as leaps and rides.
+ *
+ * A definition is written as assignments separated by ';', for example:
+ *
+ *   name=Archbishop; look=BISHOP; leap=2,1; ride=1,1
+ *
+ *  - name=N    : the name of the unit
+ *  - look=T    : the built-in UnitType the unit is shown as to clients (PAWN if not given)
+ *  - leap=F,R  : jumps F files and R ranks away, in every direction (a Knight is leap=2,1)
+ *  - ride=F,R  : slides by steps of F files and R ranks, in every direction, up to
+ *                the first unit (a Rook is ride=1,0)
+ *
+ * A leap or ride can be followed by flags, separated by '/':
+ *  - move      : only onto empty squares
+ *  - capture   : only onto enemy units
+ *  - forward   : only towards the other team - towards the last file for Team 1,
+ *                towards file 1 for Team 2 (a Pawn's step is leap=1,0/move/forward)
+ *  - a number  : for rides, the most steps taken
+ *
+ * Nothing is interpreted while units move: a definition is compiled once per board
+ * shape into a PieceTable of precomputed targets and rays, which mod units walk
+ * the same way built-in units walk BoardGeometry's tables.
+ *
+ * @author Jose
+ *
+ */
+public final class PieceDefinition {
+
+  /**
+   * How a leap or ride may land on a square: onto an empty square, onto an enemy unit, or either
+   */
+  public static final int MOVE = 1;
+  public static final int CAPTURE = 2;
+  public static final int ANY = MOVE | CAPTURE;
+
+  private final String name;
+  private final UnitType look;
+  private final Component [] components;
+
+  /**
+   * This definition compiled for each board shape it's been used on
+   */
+  private final Map<BoardGeometry, PieceTable> tables;
+
+  private PieceDefinition(String name, UnitType look, Component [] components){
+    this.name = name;
+    this.look = look;
+    this.components = components;
+    this.tables = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Parses a definition
+   * @param definition - the definition, as described above
+   * @return the parsed PieceDefinition
+   * @throws IllegalArgumentException if the definition is malformed, or describes a unit that can't move
+   */
+  public static PieceDefinition parse(String definition){
+    String name = null;
+    UnitType look = UnitType.PAWN;
+    List<Component> components = new ArrayList<>();
+
+    for(String part : definition.split(";")){
+      if (part.trim().isEmpty()) {
+        continue;
+      }
+
+      String [] assignment = part.split("=");
+      if (assignment.length != 2) {
+        throw new IllegalArgumentException("Bad assignment '"+part.trim()+"': "+definition);
+      }
+
+      String key = assignment[0].trim().toLowerCase();
+      String value = assignment[1].trim();
+      switch (key) {
+      case "name":
+        name = value;
+        break;
+      case "look":
+        look = UnitType.valueOf(value.toUpperCase());
+        break;
+      case "leap":
+      case "ride":
+        components.add(Component.parse(key.equals("ride"), value, definition));
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown key '"+key+"': "+definition);
+      }
+    }
+
+    if (name == null || name.isEmpty()) {
+      throw new IllegalArgumentException("A unit needs a name: "+definition);
+    }
+    if (components.isEmpty()) {
+      throw new IllegalArgumentException("A unit needs at least one leap or ride: "+definition);
+    }
+    return new PieceDefinition(name, look, components.toArray(new Component[0]));
+  }
+
+  /**
+   * Loads the definitions of a mod file: one definition per line. Blank lines,
+   * and lines starting with '#', are skipped
+   * @param file - the mod file
+   * @return the definitions of the file, in order
+   * @throws IOException if the file can't be read
+   * @throws IllegalArgumentException if a definition is malformed
+   */
+  public static List<PieceDefinition> load(Path file) throws IOException{
+    List<PieceDefinition> definitions = new ArrayList<>();
+    for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)){
+      String trimmed = line.trim();
+      if (!trimmed.isEmpty() && !trimmed.startsWith("#")) {
+        definitions.add(parse(trimmed));
+      }
+    }
+    return definitions;
+  }
+
+  /**
+   * Returns this definition compiled for a board shape. Each shape is only compiled once
+   * @param geometry - the shape of the board
+   * @return the PieceTable of this definition on the board shape
+   */
+  public PieceTable compile(BoardGeometry geometry){
+    return tables.computeIfAbsent(geometry, shape -> new PieceTable(this, shape));
+  }
+
+  public String getName(){
+    return name;
+  }
+
+  /**
+   * Returns the built-in UnitType this unit is shown as to clients
+   * @return the UnitType this unit is shown as
+   */
+  public UnitType getLook(){
+    return look;
+  }
+
+  Component [] getComponents(){
+    return components;
+  }
+
+  /**
+   * A single leap or ride of a definition
+   */
+  static final class Component {
+    final boolean ride;
+    final int files;
+    final int ranks;
+    final int mode;
+    final boolean forward;
+
+    /**
+     * The most steps a ride takes, or 0 if it's unlimited
+     */
+    final int range;
+
+    private Component(boolean ride, int files, int ranks, int mode, boolean forward, int range){
+      this.ride = ride;
+      this.files = files;
+      this.ranks = ranks;
+      this.mode = mode;
+      this.forward = forward;
+      this.range = range;
+    }
+
+    private static Component parse(boolean ride, String value, String definition){
+      String [] flags = value.split("/");
+      String [] offset = flags[0].split(",");
+      if (offset.length != 2) {
+        throw new IllegalArgumentException("Bad offset '"+flags[0]+"': "+definition);
+      }
+
+      int files;
+      int ranks;
+      try {
+        files = Math.abs(Integer.parseInt(offset[0].trim()));
+        ranks = Math.abs(Integer.parseInt(offset[1].trim()));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Bad offset '"+flags[0]+"': "+definition);
+      }
+      if (files == 0 && ranks == 0) {
+        throw new IllegalArgumentException("A unit can't "+(ride ? "ride" : "leap")+" in place: "+definition);
+      }
+
+      int mode = ANY;
+      boolean forward = false;
+      int range = 0;
+      for(int i = 1; i < flags.length; i++){
+        String flag = flags[i].trim().toLowerCase();
+        if (flag.equals("move")) {
+          mode = MOVE;
+        }
+        else if (flag.equals("capture")) {
+          mode = CAPTURE;
+        }
+        else if (flag.equals("forward")) {
+          forward = true;
+        }
+        else if (ride && flag.matches("[1-9][0-9]*")) {
+          range = Integer.parseInt(flag);
+        }
+        else {
+          throw new IllegalArgumentException("Unknown flag '"+flag+"': "+definition);
+        }
+      }
+      return new Component(ride, files, ranks, mode, forward, range);
+    }
+
+    /**
+     * Returns the steps of this leap or ride, as {file offset, rank offset}: its
+     * offset in every direction, without repeats, and only forward ones if it's forward
+     * @param teamID - the ID of the team (1 or 2) moving
+     * @return the steps of this leap or ride
+     */
+    int [][] steps(int teamID){
+      int [][] symmetries = {{files, ranks}, {files, -ranks}, {-files, ranks}, {-files, -ranks},
+                             {ranks, files}, {ranks, -files}, {-ranks, files}, {-ranks, -files}};
+      int towards = teamID == 1 ? 1 : -1;
+
+      List<int []> steps = new ArrayList<>();
+      for(int [] step : symmetries){
+        if (forward && step[0] * towards <= 0) {
+          continue;
+        }
+
+        boolean repeated = false;
+        for(int [] other : steps){
+          repeated |= other[0] == step[0] && other[1] == step[1];
+        }
+        if (!repeated) {
+          steps.add(step);
+        }
+      }
+      return steps.toArray(new int[0][]);
+    }
+  }
+}
@@ -0,0 +1,217 @@
+package jg.proj.chess.core.units;
+
+import java.util.Arrays;
+
+import jg.proj.chess.core.BoardGeometry;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Pieces;
+import jg.proj.chess.core.units.PieceDefinition.Component;
+
+/**
+ * A PieceDefinition compiled for a board shape: for each team and square, the
+ * squares its leaps land on and the rays its rides slide along, each with how
+ * it may land (see PieceDefinition.MOVE, CAPTURE and ANY).
+ *
+ * Leaps landing on the same square are merged, so a square is never visited twice.
+ * On 8 x 8 boards, leaps are also compiled into bitboards, so that destinations()
+ * costs a table lookup per leap mode, like Attacks.knight(). That's how games of mod
+ * units are played (see jg.proj.chess.core.rules.ModRules).
+ *
+ * @author Jose
+ *
+ */
+public final class PieceTable {
+
+  private final BoardGeometry geometry;
+
+  /**
+   * Leap targets and how they may be landed on, by team index then by square
+   */
+  private final int [][][] leaps;
+  private final byte [][][] leapModes;
+
+  /**
+   * Ride rays (nearest square first) and how they may be landed on, by team index then by square
+   */
+  private final int [][][][] rays;
+  private final byte [][][] rayModes;
+
+  /**
+   * Leap targets as bitboards, by team index then by square: those that may be
+   * landed on either way, only when empty, and only onto an enemy. Null unless the board is 8 x 8
+   */
+  private final long [][] anyLeaps;
+  private final long [][] moveLeaps;
+  private final long [][] captureLeaps;
+
+  PieceTable(PieceDefinition definition, BoardGeometry geometry){
+    this.geometry = geometry;
+
+    int squares = geometry.getSquareCount();
+    leaps = new int[Pieces.TEAM_COUNT][squares][];
+    leapModes = new byte[Pieces.TEAM_COUNT][squares][];
+    rays = new int[Pieces.TEAM_COUNT][squares][][];
+    rayModes = new byte[Pieces.TEAM_COUNT][squares][];
+
+    boolean bitboards = geometry.getFiles() == Bitboards.FILES && geometry.getRanks() == Bitboards.RANKS;
+    anyLeaps = bitboards ? new long[Pieces.TEAM_COUNT][squares] : null;
+    moveLeaps = bitboards ? new long[Pieces.TEAM_COUNT][squares] : null;
+    captureLeaps = bitboards ? new long[Pieces.TEAM_COUNT][squares] : null;
+
+    //modes of the leap targets of the square being compiled, indexed by target square
+    byte [] landing = new byte[squares];
+    int [] targets = new int[squares];
+    int [] buffer = new int[Math.max(geometry.getFiles(), geometry.getRanks())];
+
+    for(int team = 0; team < Pieces.TEAM_COUNT; team++){
+      int teamID = Pieces.teamID(team);
+      for(int square = 0; square < squares; square++){
+        int targetCount = 0;
+        int rayCount = 0;
+        int [][] squareRays = new int[0][];
+        byte [] squareRayModes = new byte[0];
+        for(Component component : definition.getComponents()){
+          for(int [] step : component.steps(teamID)){
+            if (!component.ride) {
+              int target = offset(square, step);
+              if (target >= 0) {
+                if (landing[target] == 0) {
+                  targets[targetCount++] = target;
+                }
+                landing[target] |= component.mode;
+              }
+              continue;
+            }
+
+            int length = 0;
+            for(int target = offset(square, step); target >= 0; target = offset(target, step)){
+              if (component.range > 0 && length == component.range) {
+                break;
+              }
+              buffer[length++] = target;
+            }
+            if (length > 0) {
+              squareRays = Arrays.copyOf(squareRays, rayCount + 1);
+              squareRayModes = Arrays.copyOf(squareRayModes, rayCount + 1);
+              squareRays[rayCount] = Arrays.copyOf(buffer, length);
+              squareRayModes[rayCount++] = (byte) component.mode;
+            }
+          }
+        }
+
+        leaps[team][square] = Arrays.copyOf(targets, targetCount);
+        leapModes[team][square] = new byte[targetCount];
+        for(int i = 0; i < targetCount; i++){
+          int target = targets[i];
+          leapModes[team][square][i] = landing[target];
+          if (bitboards) {
+            long [][] masks = landing[target] == PieceDefinition.ANY ? anyLeaps :
+                              landing[target] == PieceDefinition.MOVE ? moveLeaps : captureLeaps;
+            masks[team][square] |= Bitboards.bit(target);
+          }
+          landing[target] = 0;
+        }
+        rays[team][square] = squareRays;
+        rayModes[team][square] = squareRayModes;
+      }
+    }
+  }
+
+  /**
+   * Returns the square a step away from a square
+   * @param square - the square index
+   * @param step - the step, as {file offset, rank offset}
+   * @return the index of the square a step away, or -1 if it's off the board
+   */
+  private int offset(int square, int [] step){
+    int row = square / geometry.getRanks() + step[0];
+    int col = square % geometry.getRanks() + step[1];
+    if ((0 <= row && row < geometry.getFiles()) && (0 <= col && col < geometry.getRanks())) {
+      return row * geometry.getRanks() + col;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the squares a unit's leaps land on from a square, on an empty board
+   * @param teamID - the ID of the unit's team (1 or 2)
+   * @param square - the square index (see BoardGeometry)
+   * @return the square indexes the unit's leaps land on. Must not be modified
+   */
+  public int [] leaps(int teamID, int square){
+    return leaps[Pieces.teamIndex(teamID)][square];
+  }
+
+  /**
+   * Returns how a unit's leaps may land, in the order of leaps()
+   * @param teamID - the ID of the unit's team (1 or 2)
+   * @param square - the square index
+   * @return PieceDefinition.MOVE, CAPTURE or ANY per leap. Must not be modified
+   */
+  public byte [] leapModes(int teamID, int square){
+    return leapModes[Pieces.teamIndex(teamID)][square];
+  }
+
+  /**
+   * Returns the squares along a unit's rides from a square, to the edge of the board or the end of their range
+   * @param teamID - the ID of the unit's team (1 or 2)
+   * @param square - the square index
+   * @return a ray of square indexes per ride, nearest first. Must not be modified
+   */
+  public int [][] rays(int teamID, int square){
+    return rays[Pieces.teamIndex(teamID)][square];
+  }
+
+  /**
+   * Returns how a unit's rides may land, in the order of rays()
+   * @param teamID - the ID of the unit's team (1 or 2)
+   * @param square - the square index
+   * @return PieceDefinition.MOVE, CAPTURE or ANY per ray. Must not be modified
+   */
+  public byte [] rayModes(int teamID, int square){
+    return rayModes[Pieces.teamIndex(teamID)][square];
+  }
+
+  /**
+   * Calculates the squares a unit can land on, on bitboards. Nothing is allocated
+   * @param teamID - the ID of the unit's team (1 or 2)
+   * @param square - the bitboard square index of the unit
+   * @param own - the squares of the unit's team
+   * @param enemies - the squares of the other team
+   * @return a bitboard of the squares the unit can land on
+   * @throws IllegalStateException if this table isn't for an 8 x 8 board
+   */
+  public long destinations(int teamID, int square, long own, long enemies){
+    if (anyLeaps == null) {
+      throw new IllegalStateException("Only 8 x 8 boards can be represented by bitboards");
+    }
+
+    int team = Pieces.teamIndex(teamID);
+    long empty = ~(own | enemies);
+    long destinations = (anyLeaps[team][square] & ~own) |
+                        (moveLeaps[team][square] & empty) |
+                        (captureLeaps[team][square] & enemies);
+
+    int [][] squareRays = rays[team][square];
+    byte [] modes = rayModes[team][square];
+    for(int i = 0; i < squareRays.length; i++){
+      for(int target : squareRays[i]){
+        if (Bitboards.isSet(empty, target)) {
+          if ((modes[i] & PieceDefinition.MOVE) != 0) {
+            destinations |= Bitboards.bit(target);
+          }
+          continue;
+        }
+        if ((modes[i] & PieceDefinition.CAPTURE) != 0 && Bitboards.isSet(enemies, target)) {
+          destinations |= Bitboards.bit(target);
+        }
+        break;
+      }
+    }
+    return destinations;
+  }
+
+  public BoardGeometry getGeometry(){
+    return geometry;
+  }
+}
@@ -2,7 +2,15 @@ package jg.proj.chess.core.units;
 
 import java.util.Set;
 
+import jg.proj.chess.core.Board;
+import jg.proj.chess.core.BoardGeometry;
+import jg.proj.chess.core.BoardMove;
 import jg.proj.chess.core.Square;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.MoveGenerator;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.utils.NonNullHashSet;
 
 /**
  * Represents a chess unit.
@@ -37,6 +45,11 @@ public abstract class Unit {
     }
   }
 
+  /**
+   * Each thread's buffer for walking moves on boards that aren't backed by a Position
+   */
+  private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
   private final UnitType type;
   private final int teamID;
   
@@ -55,12 +68,20 @@ public abstract class Unit {
    * @throws InvalidMove when the given Square is not a legal destination
    */
   public Square moveTo(Square desination) throws InvalidMove{
-    Set<Square> possibles = possibleDestinations();
-    
-    if (!possibles.contains(desination)) {
+    if (!canMoveTo(desination)) {
       throw new InvalidMove(type, currentSquare, desination);
     }
     
+    Board board = currentSquare.getHostBoard();
+    if (board.getPosition() != null) {
+      //let the board make the move so that it can be taken back
+      Square lastSquare = currentSquare;
+      board.makeMove(MoveGenerator.createMove(board.getPosition(), squareIndex(), 
+                                              Bitboards.square(desination.getFile(), desination.getRank())));
+      return lastSquare;
+    }
+    
+
     if (desination.getUnit() != null) {
       desination.getUnit().updateSquare(null);
     }
@@ -73,14 +94,175 @@ public abstract class Unit {
     lastSquare.placeUnit(null);
     
     updateSquare(desination);
+    board.publishSnapshot();
     return lastSquare;
   }
   
+  /**
+   * Checks if this Unit can land on the given Square.
+   * 
+   * This allocates nothing, once the calling thread has checked a unit of a board this size.
+   * @param destination - the Square to check
+   * @return true if this Unit can land on the Square, false if else
+   */
+  public boolean canMoveTo(Square destination){
+    if (destination == null) {
+      return false;
+    }
+    
+    Position position = currentSquare.getHostBoard().getPosition();
+    if (position == null) {
+      MoveList moves = scratch();
+      walkMoves(moves);
+      for(int i = 0; i < moves.size(); i++){
+        if (BoardMove.to(moves.get(i)) == destination.getIndex()) {
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    int target = Bitboards.square(destination.getFile(), destination.getRank());
+    return target >= 0 && Bitboards.isSet(MoveGenerator.destinations(position, squareIndex()), target);
+  }
+  
   /**
    * Calculates the set of possible squares this Unit can land in
+   * 
+   * This is an adapter over generateMoves() for callers that want Squares.
    * @return a set of possible squares
    */
-  public abstract Set<Square> possibleDestinations();
+  public Set<Square> possibleDestinations(){
+    Position position = currentSquare.getHostBoard().getPosition();
+    if (position == null) {
+      Board board = currentSquare.getHostBoard();
+      MoveList moves = scratch();
+      walkMoves(moves);
+      
+      NonNullHashSet<Square> possibles = new NonNullHashSet<>();
+      for(int i = 0; i < moves.size(); i++){
+        possibles.add(board.squareAt(BoardMove.to(moves.get(i))));
+      }
+      return possibles;
+    }
+    return toSquares(MoveGenerator.destinations(position, squareIndex()));
+  }
+  
+  /**
+   * Writes the int-encoded moves of this Unit into the given MoveList. Nothing is allocated.
+   * 
+   * Moves on boards backed by a bitboard Position are encoded as bitboard moves 
+   * (see jg.proj.chess.core.bitboard.Move). Moves on other boards are encoded with 
+   * the board's square indexes instead (see BoardMove).
+   * @param moves - the MoveList to append moves to. It must have room for a move to every square of the board
+   * @return the amount of moves appended
+   */
+  public int generateMoves(MoveList moves){
+    Position position = currentSquare.getHostBoard().getPosition();
+    if (position == null) {
+      return walkMoves(moves);
+    }
+    return MoveGenerator.generate(position, squareIndex(), moves);
+  }
+  
+  /**
+   * Writes the moves of this Unit (see BoardMove) into the given MoveList by walking
+   * the Squares of its board, using the board's geometry (see BoardGeometry).
+   * 
+   * Only used for boards that aren't backed by a bitboard Position
+   * @param moves - the MoveList to append moves to
+   * @return the amount of moves appended
+   */
+  protected abstract int walkMoves(MoveList moves);
+  
+  /**
+   * Walks the precomputed rays of this Unit's board in the given directions. Each ray 
+   * is followed up to the first unit, whose Square is included if it's an enemy.
+   * @param moves - the MoveList to append moves to (see BoardMove)
+   * @param directions - the directions to slide in (see BoardGeometry)
+   * @return the amount of moves appended
+   */
+  protected int slide(MoveList moves, int [] directions){
+    Board board = currentSquare.getHostBoard();
+    BoardGeometry geometry = board.getGeometry();
+    int from = currentSquare.getIndex();
+    
+    int count = 0;
+    for(int direction : directions){
+      for(int square : geometry.ray(from, direction)){
+        Unit unit = board.squareAt(square).getUnit();
+        if (unit == null || unit.getTeamID() != teamID) {
+          moves.add(BoardMove.encode(from, square));
+          count++;
+        }
+        if (unit != null) {
+          break;
+        }
+      }
+    }
+    return count;
+  }
+  
+  /**
+   * Filters precomputed target squares (like BoardGeometry.knightTargets()) down 
+   * to those that are empty or hold an enemy unit
+   * @param moves - the MoveList to append moves to (see BoardMove)
+   * @param targets - the square indexes to filter
+   * @return the amount of moves appended
+   */
+  protected int step(MoveList moves, int [] targets){
+    Board board = currentSquare.getHostBoard();
+    int from = currentSquare.getIndex();
+    
+    int count = 0;
+    for(int square : targets){
+      Unit unit = board.squareAt(square).getUnit();
+      if (unit == null || unit.getTeamID() != teamID) {
+        moves.add(BoardMove.encode(from, square));
+        count++;
+      }
+    }
+    return count;
+  }
+  
+  /**
+   * Returns the calling thread's cleared MoveList for walking moves, with room for 
+   * a move to every square of this Unit's board
+   * @return a cleared MoveList
+   */
+  private MoveList scratch(){
+    int squares = currentSquare.getHostBoard().getGeometry().getSquareCount();
+    MoveList moves = SCRATCH.get();
+    if (moves.array().length < squares) {
+      moves = new MoveList(squares);
+      SCRATCH.set(moves);
+    }
+    moves.clear();
+    return moves;
+  }
+  
+  /**
+   * Returns the bitboard square index of this Unit's current Square
+   * @return the bitboard square index of this Unit's current Square
+   */
+  private int squareIndex(){
+    return currentSquare.getIndex();
+  }
+  
+  /**
+   * Converts a bitboard of squares to the Squares of this unit's board
+   * @param bitboard - the bitboard of squares to convert
+   * @return a set of the corresponding Squares
+   */
+  protected Set<Square> toSquares(long bitboard){
+    Board board = currentSquare.getHostBoard();
+    
+    NonNullHashSet<Square> converted = new NonNullHashSet<>();
+    for(long remaining = bitboard; remaining != 0; remaining = Bitboards.next(remaining)){
+      converted.add(board.squareAt(Bitboards.first(remaining)));
+    }
+    return converted;
+  }
   
   public void updateSquare(Square square){
     this.currentSquare = square;
@@ -92,6 +92,19 @@ public enum ServerRequest{
    */
   UPDATE("update","~update", 0,"Requests the most recent string representation of the current game's board"),
   
+  /**
+   * Requests the changes made to the current game's board since a version of it
+   * 
+   * Argument is the version the client has, or -1 if it has none
+   * 
+   * Returns: the changes since the version, as a string (see jg.proj.chess.core.BoardDiff)
+   *          which lists every unit on the board if the version is -1 or too old,
+   *          or NO_DIFF if the session's game has no board,
+   *          or BAD_REQ if not in a session
+   */
+  DIFF("diff","~diff:%d", 1,"Requests the changes made to the current game's board since a version of it",
+      ArgType.INTEGER),
+  
   /**
    * Changes the username of the player
    * Returns: the string "NEW_USER_NAME:UUID_OF_PLAYER"
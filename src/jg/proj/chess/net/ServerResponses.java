@@ -18,6 +18,7 @@ public interface ServerResponses {
   public static final int NO_TALLY = -11; //a tally cannot be formed as no votes have been recieved
   public static final int IN_SESS = -12; //certain requests cannot be made while the user is in a session
   public static final int BAD_ARGS = -13; //the arguments to the request are illegal/invalid
+  public static final int NO_DIFF = -14; //the session's game has no board to diff
   
   //Server Signal messages
   public static final String SIGNAL = "signal";
@@ -57,6 +58,10 @@ public interface ServerResponses {
   
   public static final int BREAK_START = 21; //The game has started the break window in between turns. Take a rest
   public static final int BREAK_END = 22; //The game has ended the break window in between turns. Get up!
+  
+  public static final int STALEMATE = 23; //The team whose turn it is has no legal moves, but isn't in check. It's a draw
+  public static final int REPETITION = 24; //The same position has come up three times. It's a draw
+  public static final int FIFTY_MOVES = 25; //Fifty moves went by without a capture or pawn move. It's a draw
 
   
   //first string argument -> user-name , second string argument -> message
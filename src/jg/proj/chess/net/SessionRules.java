@@ -61,7 +61,13 @@ public final class SessionRules {
      * A long property that sets the amount of seconds to wait before
      * each turn, as a 'break'/'pause' in between sessions
      */
-    BREAK_AMOUNT(0L);
+    BREAK_AMOUNT(0L),
+    
+    /**
+     * A String property that sets the game played in the session, 
+     * by its name in GameRegistry (ex: "chess" or "checkers")
+     */
+    GAME("chess");
     
     private final Object defaultValue;
     private Properties(Object defaultValue) {
@@ -114,6 +120,7 @@ public final class SessionRules {
     defaultMap.put(Properties.ALLOW_INVL_VOTES, Properties.ALLOW_INVL_VOTES.defaultValue);
     defaultMap.put(Properties.ALLOW_JOINS_GAME, Properties.ALLOW_JOINS_GAME.defaultValue);
     defaultMap.put(Properties.BREAK_AMOUNT, Properties.BREAK_AMOUNT.defaultValue);
+    defaultMap.put(Properties.GAME, Properties.GAME.defaultValue);
     
     return defaultMap;
   }
@@ -169,6 +176,9 @@ public final class SessionRules {
           case BREAK_AMOUNT:
             value = Long.parseLong(assgn[1]);
             break;
+          case GAME:
+            value = assgn[1].toLowerCase();
+            break;
           }
 
           //set the property
@@ -1,5 +1,6 @@
 package jg.proj.chess.net;
 
+import jg.proj.chess.core.bitboard.Move;
 import jg.proj.chess.net.server.Player;
 
 /**
@@ -17,6 +18,11 @@ public class Vote {
   private final int fileDest; 
   private final char rankDest;
   
+  /**
+   * The game's encoding of the move voted on (see GameRules), or Move.NONE if it isn't legal
+   */
+  private final int move;
+  
   /**
    * Constructs a Vote
    * @param fileOrigin - the original file
@@ -26,6 +32,19 @@ public class Vote {
    * @param voter - the Player that submitted this vote
    */
   public Vote(int fileOrigin, char rankOrigin, int fileDest, char rankDest, Player voter) {
+    this(fileOrigin, rankOrigin, fileDest, rankDest, voter, Move.NONE);
+  }
+  
+  /**
+   * Constructs a Vote
+   * @param fileOrigin - the original file
+   * @param rankOrigin - the original rank
+   * @param fileDest - the destination file
+   * @param rankDest - the destination rank
+   * @param voter - the Player that submitted this vote
+   * @param move - the game's encoding of the move voted on, or Move.NONE if it isn't legal
+   */
+  public Vote(int fileOrigin, char rankOrigin, int fileDest, char rankDest, Player voter, int move) {
     this.fileOrigin = fileOrigin;
     this.rankOrigin = rankOrigin;
     
@@ -33,6 +52,30 @@ public class Vote {
     this.rankDest = rankDest;
     
     this.voter = voter;
+    this.move = move;
+  }
+  
+  /**
+   * Returns a key that's the same for votes on the same move, regardless of who cast them.
+   * Legal votes are keyed by their move. Others are keyed by their squares, packed a byte
+   * per file and rank (ranks are case insensitive), above the 32 bits of the legal moves
+   * @return the key of this vote
+   */
+  public long getKey() {
+    if (move != Move.NONE) {
+      return move & 0xFFFFFFFFL;
+    }
+    long squares = ((fileOrigin & 0xFFL) << 24) | ((Character.toUpperCase(rankOrigin) & 0xFFL) << 16) | 
+                   ((fileDest & 0xFFL) << 8) | (Character.toUpperCase(rankDest) & 0xFFL);
+    return (1L << 32) | squares;
+  }
+  
+  /**
+   * Returns the move voted on, in the form "2B>4B"
+   * @return the move voted on
+   */
+  public String getMoveString() {
+    return fileOrigin+String.valueOf(Character.toUpperCase(rankOrigin))+">"+fileDest+String.valueOf(Character.toUpperCase(rankDest));
   }
   
   @Override
@@ -73,4 +116,8 @@ public class Vote {
   public Player getVoter(){
     return voter;
   }
+  
+  public int getMove(){
+    return move;
+  }
 }
@@ -542,6 +542,27 @@ public class GameScreenController implements SignalListener, MessageListener, Pr
       bottomStatusLabel.setTextFill(outcomeFont); 
       break;
     }
+    case ServerResponses.STALEMATE:
+    {
+      //update voteNowDisplay to show the draw
+      bottomStatusLabel.setText("STALEMATE! IT'S A DRAW!");
+      bottomStatusLabel.setTextFill(Color.CORNFLOWERBLUE);
+      break;
+    }
+    case ServerResponses.REPETITION:
+    {
+      //update voteNowDisplay to show the draw
+      bottomStatusLabel.setText("THREEFOLD REPETITION! IT'S A DRAW!");
+      bottomStatusLabel.setTextFill(Color.CORNFLOWERBLUE);
+      break;
+    }
+    case ServerResponses.FIFTY_MOVES:
+    {
+      //update voteNowDisplay to show the draw
+      bottomStatusLabel.setText("FIFTY MOVES WITHOUT PROGRESS! IT'S A DRAW!");
+      bottomStatusLabel.setTextFill(Color.CORNFLOWERBLUE);
+      break;
+    }
     case ServerResponses.TEAM1_DESS:
     {
       //If client is Team 1, then they've already quit the screen.
@@ -634,8 +655,8 @@ public class GameScreenController implements SignalListener, MessageListener, Pr
     {    
       //update chatlist
       String message = client.getCurrentTeam() == 1 ? 
-                "Your team sent no votes at all! No move made!" : 
-                "Team One sent no votes at all! No move made!";
+                "Your team sent no votes at all! The engine moves for you!" : 
+                "Team One sent no votes at all! The engine moves for them!";
       Color messColor = client.getCurrentTeam() == 1 ? Color.RED : Color.CORNFLOWERBLUE;
       bottomStatusLabel.setText(message);
       bottomStatusLabel.setTextFill(messColor);
@@ -645,8 +666,8 @@ public class GameScreenController implements SignalListener, MessageListener, Pr
     {  
       //update chatlist
       String message = client.getCurrentTeam() == 2 ? 
-                "Your team sent no votes at all! No move made!" : 
-                "Team One sent no votes at all! No move made!";
+                "Your team sent no votes at all! The engine moves for you!" : 
+                "Team Two sent no votes at all! The engine moves for them!";
       Color messColor = client.getCurrentTeam() == 2 ? Color.RED : Color.CORNFLOWERBLUE;
       bottomStatusLabel.setText(message);
       bottomStatusLabel.setTextFill(messColor);
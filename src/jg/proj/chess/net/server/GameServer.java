@@ -1,5 +1,6 @@
 package jg.proj.chess.net.server;
 
+import java.nio.file.Paths;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -9,6 +10,9 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import jg.proj.chess.core.engine.OpeningBook;
+import jg.proj.chess.core.engine.ParallelSearcher;
+import jg.proj.chess.core.engine.TranspositionTable;
 
 /**
  * Acts as the front-end for the DChess server
@@ -29,6 +33,16 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 public class GameServer {
   
   private static final int PORT = 9999;
+  
+  /**
+   * Memory of the engine's TranspositionTable, in MB
+   */
+  private static final int ENGINE_TABLE_SIZE = 8;
+  
+  /**
+   * Threads each engine search uses, unless set with -Ddchess.engineThreads=N
+   */
+  public static final int DEFAULT_ENGINE_THREADS = 2;
   private static final GameServer GAME_SERVER = new GameServer();
  
   private final Database playerStore;
@@ -38,6 +52,17 @@ public class GameServer {
   
   private ServerSocketChannel serverSocket;
   
+  /**
+   * Moves for the early game, shared by all Sessions. Null if there's none
+   */
+  private volatile OpeningBook openingBook;
+  
+  /**
+   * Moves for teams that sent no votes, shared by all Sessions. Created when first needed
+   */
+  private ParallelSearcher engine;
+  private volatile int engineThreads;
+  
   /**
    * Constructs a GameServer
    */
@@ -46,6 +71,7 @@ public class GameServer {
 
     sessionWorkerPool = Executors.newCachedThreadPool();
     workerThreadPool = new NioEventLoopGroup();  
+    engineThreads = Math.max(1, Integer.getInteger("dchess.engineThreads", DEFAULT_ENGINE_THREADS));
   }
   
   /**
@@ -81,6 +107,55 @@ public class GameServer {
     return playerStore;
   }
   
+  /**
+   * Retrieves the opening book of this server
+   * @return the opening book of this server, or null if there's none
+   */
+  public OpeningBook getOpeningBook(){
+    return openingBook;
+  }
+  
+  /**
+   * Sets the opening book Sessions take early-game moves from
+   * @param openingBook - the opening book, or null for none
+   */
+  public void setOpeningBook(OpeningBook openingBook){
+    this.openingBook = openingBook;
+  }
+  
+  /**
+   * Retrieves the engine of this server, creating it on first use. 
+   * 
+   * Its TranspositionTable is shared by the searches of every Session, and its
+   * helper threads are bounded across all of them (see ParallelSearcher)
+   * @return the engine of this server
+   */
+  public synchronized ParallelSearcher getEngine(){
+    if (engine == null) {
+      engine = new ParallelSearcher(new TranspositionTable(ENGINE_TABLE_SIZE));
+    }
+    return engine;
+  }
+  
+  /**
+   * Retrieves the most threads each engine search uses
+   * @return the most threads each engine search uses
+   */
+  public int getEngineThreads(){
+    return engineThreads;
+  }
+  
+  /**
+   * Sets the most threads each engine search uses
+   * @param engineThreads - the most threads each engine search uses, including the Session's own (at least 1)
+   */
+  public void setEngineThreads(int engineThreads){
+    if (engineThreads < 1) {
+      throw new IllegalArgumentException("A search needs at least one thread");
+    }
+    this.engineThreads = engineThreads;
+  }
+  
   /**
    * Shuts down this server
    */
@@ -99,6 +174,12 @@ public class GameServer {
   
   public static void main(String [] args) throws Exception{  
     System.out.println("---DEMOCRATIC CHESS SERVER V1.0---");
+    if (args.length > 0) {
+      //an optional opening book file
+      OpeningBook book = new OpeningBook(Paths.get(args[0]));
+      GAME_SERVER.setOpeningBook(book);
+      System.out.println("Loaded opening book "+args[0]+" ("+book.size()+" entries)");
+    }
     GAME_SERVER.start();
   }
 }
@@ -12,6 +12,7 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -21,12 +22,17 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.util.AttributeKey;
 import jg.proj.chess.core.Board;
-import jg.proj.chess.core.DefaultBoardPreparer;
+import jg.proj.chess.core.GameOutcome;
 import jg.proj.chess.core.Square;
-import jg.proj.chess.core.TeamInformation;
-import jg.proj.chess.core.units.InvalidMove;
-import jg.proj.chess.core.units.Unit;
-import jg.proj.chess.core.units.Unit.UnitType;
+import jg.proj.chess.core.bitboard.Bitboards;
+import jg.proj.chess.core.bitboard.Move;
+import jg.proj.chess.core.bitboard.MoveList;
+import jg.proj.chess.core.bitboard.Position;
+import jg.proj.chess.core.engine.OpeningBook;
+import jg.proj.chess.core.engine.SearchResult;
+import jg.proj.chess.core.rules.ChessState;
+import jg.proj.chess.core.rules.Game;
+import jg.proj.chess.core.rules.GameRegistry;
 import jg.proj.chess.net.ServerRequest;
 import jg.proj.chess.net.ServerResponses;
 import jg.proj.chess.net.SessionRules;
@@ -42,7 +48,13 @@ import jg.proj.chess.utils.StringAndIOUtils;
  */
 @Sharable
 public class Session extends SimpleChannelInboundHandler<String> implements Runnable{
-  private static final int DEFAULT_BOARD_SIZE = 8;
+  
+  /**
+   * The most time the engine takes to move for a team that sent no votes, in milliseconds. 
+   * The engine never takes more than the last quarter of the voting window
+   */
+  private static final long MAX_AUTO_MOVE_MILLIS = 2000;
+  
   private final GameServer server;
   
   /**
@@ -51,10 +63,10 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
   private final UUID sessionID;  
   
   /**
-   * The game logic for this session
+   * The game logic for this session, and its chess Board (null if this session isn't playing chess)
    */
+  private final Game<?> game;
   private final Board board;
-  private final TeamInformation teams;
   
   /**
    * The teams of this session
@@ -99,14 +111,156 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
     
     votes = new ConcurrentHashMap<>();
     
-    board = new Board(DEFAULT_BOARD_SIZE, DEFAULT_BOARD_SIZE);
-    teams = board.initialize(new DefaultBoardPreparer());
+    game = GameRegistry.newGame((String) rules.getProperty(Properties.GAME));
+    board = game.getState() instanceof ChessState ? ((ChessState) game.getState()).getBoard() : null;
     currentRound = 1;
     
     teamOne = Collections.newSetFromMap(new ConcurrentHashMap<Player, Boolean>());
     teamTwo = Collections.newSetFromMap(new ConcurrentHashMap<Player, Boolean>());
   }
   
+  /**
+   * Prepares the engine's move for a team, in case they send no votes. The server's 
+   * opening book is tried first.
+   * 
+   * This runs on this Session's thread during the voting window, which it otherwise spends
+   * waiting: the search takes up the last quarter of the window, up to MAX_AUTO_MOVE_MILLIS,
+   * and is skipped if the team has voted by then. Processing the votes never waits on the engine.
+   * @param teamID - the ID of the team to move for
+   * @param votingSeconds - the length of the voting window, in seconds
+   * @param windowEnd - when the voting window ends (see System.currentTimeMillis())
+   * @return the engine's move, or Move.NONE if there's none (or this session isn't playing chess)
+   */
+  private int prepareAutoMove(int teamID, long votingSeconds, long windowEnd){
+    if (board == null) {
+      return Move.NONE;
+    }
+    
+    long searchMillis = Math.min(votingSeconds * 1000 / 4, MAX_AUTO_MOVE_MILLIS);
+    long wait = windowEnd - searchMillis - System.currentTimeMillis();
+    if (wait > 0) {
+      try {
+        Thread.sleep(wait);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return Move.NONE;
+      }
+    }
+    if (!votes.isEmpty()) {
+      return Move.NONE;
+    }
+    
+    Position position = board.getPosition();
+    OpeningBook book = server.getOpeningBook();
+    int move = book == null ? Move.NONE : book.choose(position, ThreadLocalRandom.current());
+    if (move != Move.NONE) {
+      System.out.println("[SERVER] Book move for Team "+teamID+": "+Move.toString(move));
+      return move;
+    }
+    
+    long millis = Math.max(1, windowEnd - System.currentTimeMillis());
+    SearchResult result = server.getEngine().search(position, millis, server.getEngineThreads());
+    System.out.println("[SERVER] Engine move for Team "+teamID+": "+result);
+    return result.getMove();
+  }
+  
+  /**
+   * Moves for a team that sent no votes: the engine's prepared move in chess (see 
+   * prepareAutoMove()), or a random legal move in other games
+   * @param teamID - the ID of the team to move for
+   * @param engineMove - the engine's prepared move, or Move.NONE if there's none
+   * @return true if a move was made, false if else
+   */
+  private boolean autoMove(int teamID, int engineMove){
+    if (board == null) {
+      MoveList moves = new MoveList();
+      if (game.legalMoves(moves) == 0) {
+        return false;
+      }
+      int move = moves.get(ThreadLocalRandom.current().nextInt(moves.size()));
+      System.out.println("[SERVER] Random move for Team "+teamID+": "+game.getRules().toString(move));
+      makeMove(move);
+      return true;
+    }
+    
+    if (engineMove == Move.NONE) {
+      return false;
+    }
+    makeMove(engineMove);
+    return true;
+  }
+  
+  /**
+   * Makes a legal move, and tells every player about it
+   * @param move - the game's encoding of the move
+   */
+  private void makeMove(int move){
+    int from = game.getRules().from(move);
+    int to = game.getRules().to(move);
+    game.makeMove(move);
+    msgEveryone(String.format(ServerResponses.RESULT_MSG, Bitboards.file(from), Bitboards.rank(from), Bitboards.file(to), Bitboards.rank(to)));
+  }
+  
+  /**
+   * Tells every player why a team's most popular vote, which isn't a legal move, wasn't made
+   * @param teamID - the ID of the team
+   * @param vote - the most popular vote
+   */
+  private void rejectVote(int teamID, Vote vote){
+    Square square = board == null ? null : board.querySquare(vote.getFileOrigin(), vote.getRankOrigin());
+    if (board != null && (square == null || square.getUnit() == null)) {
+      sendSignalAll( teamID == 1 ? ServerResponses.TEAM1_NO_UNIT : ServerResponses.TEAM2_NO_UNIT);
+      System.out.println(" ----> TEAM "+teamID+" has voted to move a none existant unit. NO MOVE MADE! <---- ");
+    }
+    else if (square != null && square.getUnit().getTeamID() != teamID) {
+      sendSignalAll( teamID == 1 ? ServerResponses.TEAM1_OTHER_UNIT : ServerResponses.TEAM2_OTHER_UNIT);
+      System.out.println(" ----> TEAM "+teamID+" has voted to move a unit THAT'S NOT THEIRS!. NO MOVE MADE! <---- ");
+    }
+    else {
+      sendSignalAll( teamID == 1 ? ServerResponses.TEAM1_IDIOT_VOTE : ServerResponses.TEAM2_IDIOT_VOTE);
+      System.out.println("----> TEAM "+teamID+" has voted on an invalid move. NO MOVE FROM THEM! <----");
+    }
+  }
+  
+  /**
+   * Finds the most popular of a team's votes. Votes are tallied by key (see Vote.getKey()), 
+   * by sorting the keys and counting runs of equal keys
+   * @param ballots - the team's votes (at least one)
+   * @return the most popular vote, or null if two or more are tied
+   */
+  private static Vote mostPopular(Vote [] ballots){
+    long [] keys = new long[ballots.length];
+    for(int i = 0; i < ballots.length; i++){
+      keys[i] = ballots[i].getKey();
+    }
+    Arrays.sort(keys);
+    
+    long bestKey = keys[0];
+    int bestCount = 0;
+    boolean tied = false;
+    for(int start = 0, end; start < keys.length; start = end){
+      for(end = start + 1; end < keys.length && keys[end] == keys[start]; end++);
+      int count = end - start;
+      if (count > bestCount) {
+        bestKey = keys[start];
+        bestCount = count;
+        tied = false;
+      }
+      else if (count == bestCount) {
+        tied = true;
+      }
+    }
+    
+    if (!tied) {
+      for(Vote ballot : ballots){
+        if (ballot.getKey() == bestKey) {
+          return ballot;
+        }
+      }
+    }
+    return null;
+  }
+  
   public boolean equals(Object obj) {
     if (obj instanceof Session) {
       Session other = (Session) obj;
@@ -228,8 +382,9 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
           //retrieve the amount of seconds set for voting
           final long votingSeconds = (long) rules.getProperty(Properties.VOTING_DURATION);
 
-          //retrieve the current voting team's ID
+          //retrieve the current voting team's ID. The game publishes their legal moves before any vote comes in
           final int currentTeamID = teamOneTurn ? 1 : 2;
+          game.setTurn(currentTeamID);
           
           System.out.println("---CURRENT TURN: "+currentTeamID+" | "+teamOneTurn);
           //signal the voting team that their vote has started
@@ -244,7 +399,12 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
           status = SessionStatus.VOTING;
           
           //start voting window. Send messages to all players
-          countDownWindow(votingSeconds, ServerResponses.TIME_MSG, 0);      
+          final long windowEnd = System.currentTimeMillis() + votingSeconds * 1000;
+          ScheduledExecutorService countDown = startCountDown(votingSeconds, ServerResponses.TIME_MSG, 0);
+          
+          //meanwhile, the engine gets a move ready in case the team doesn't vote
+          final int engineMove = prepareAutoMove(currentTeamID, votingSeconds, windowEnd);
+          awaitCountDown(countDown, ServerResponses.TIME_MSG);
           
           //clear out previous votes and signal vote end
           status = SessionStatus.PROCESSING;
@@ -259,72 +419,68 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
           System.out.println("---PROCESSING VOTES!!! "+votes);
 
           //decide on move based on plurality
+          boolean moved = false;
           if (!votes.isEmpty()) {
-            //creates a Max heap based on vote count
-            PriorityQueue<VoteCounter> voteQueue = new PriorityQueue<VoteCounter>((x,y) -> y.votes - x.votes);
-            
-            HashMap<Vote, Integer> voteCounter = new HashMap<>();
-            for(Vote voteEntry : votes.values()) {
-                voteCounter.put(voteEntry, voteCounter.containsKey(voteEntry) ? voteCounter.get(voteEntry) + 1 : 1);             
-            }
-            
-            voteCounter.entrySet().stream().map(x -> new VoteCounter(x.getKey(), x.getValue())).collect(Collectors.toCollection(() -> voteQueue));
-            
+            Vote [] ballots = votes.values().toArray(new Vote[0]);
             votes.clear(); //now clear the votes map
             msgEveryone(String.format(ServerResponses.SERVER_MSG, "Votes processed!"));
             
-            VoteCounter mostPopular = voteQueue.poll();
-            System.out.println(" MOST POPULAR: "+voteQueue);
-            if (mostPopular != null) {
-              Square square = board.querySquare(mostPopular.vote.getFileOrigin(), mostPopular.vote.getRankOrigin());
-              Square destination = board.querySquare(mostPopular.vote.getFileDest(), mostPopular.vote.getRankDest());
-
-              if (!voteQueue.isEmpty() && voteQueue.peek().votes == mostPopular.votes) {
-                //there's a tie in vote
-                sendSignalAll( currentTeamID == 1 ? ServerResponses.TEAM1_TIED : ServerResponses.TEAM2_TIED);
-                System.out.println(" ----> TEAM "+currentTeamID+" is tied on a move. NO MOVE FROM THEM! <----");
-              }
-              else if(square.getUnit() == null){
-                sendSignalAll( currentTeamID == 1 ? ServerResponses.TEAM1_NO_UNIT : ServerResponses.TEAM2_NO_UNIT);
-                System.out.println(" ----> TEAM "+currentTeamID+" has voted to move a none existant unit. NO MOVE MADE! <---- ");
-              }
-              else if (square.getUnit().getTeamID() != currentTeamID) {
-                sendSignalAll( currentTeamID == 1 ? ServerResponses.TEAM1_OTHER_UNIT : ServerResponses.TEAM2_OTHER_UNIT);
-                System.out.println(" ----> TEAM "+currentTeamID+" has voted to move a unit THAT'S NOT THEIRS!. NO MOVE MADE! <---- ");
-              }
-              else {
-                try {
-                  square.getUnit().moveTo(destination);
-                  //send "res" message
-                  msgEveryone(String.format(ServerResponses.RESULT_MSG, square.getFile(), square.getRank(), destination.getFile(), destination.getRank()));                 
-                } catch (InvalidMove e) {
-                  sendSignalAll( currentTeamID == 1 ? ServerResponses.TEAM1_IDIOT_VOTE : ServerResponses.TEAM2_IDIOT_VOTE);
-                  System.out.println("----> TEAM "+currentTeamID+" has voted on an invalid move. NO MOVE FROM THEM! <----");
-                }
-                
-              }
-              
+            Vote mostPopular = mostPopular(ballots);
+            System.out.println(" MOST POPULAR: "+mostPopular);
+            if (mostPopular == null) {
+              //there's a tie in vote
+              sendSignalAll( currentTeamID == 1 ? ServerResponses.TEAM1_TIED : ServerResponses.TEAM2_TIED);
+              System.out.println(" ----> TEAM "+currentTeamID+" is tied on a move. NO MOVE FROM THEM! <----");
+            }
+            else if (mostPopular.getMove() == Move.NONE) {
+              //only sessions allowing invalid votes get here
+              rejectVote(currentTeamID, mostPopular);
+            }
+            else {
+              //votes were checked against the legal moves - moves that don't leave the team's King in check - when cast
+              makeMove(mostPopular.getMove());
+              moved = true;
             }
-          }
-          else if(teamOneTurn){
-            sendSignalAll(ServerResponses.TEAM1_NO_VOTE);
-            System.out.println("[SERVER] No vote has been made by Team 1. No movement will be made for this turn....");
           }
           else {
-            sendSignalAll(ServerResponses.TEAM2_NO_VOTE);
-            System.out.println("[SERVER] No vote has been made by Team 2. No movement will be made for this turn....");
+            sendSignalAll(teamOneTurn ? ServerResponses.TEAM1_NO_VOTE : ServerResponses.TEAM2_NO_VOTE);
+            System.out.println("[SERVER] No vote has been made by Team "+currentTeamID+". The engine will move for them....");
+            moved = autoMove(currentTeamID, engineMove);
           }
 
-          if (teams.getTeamOne().get(UnitType.KING).get(0).getCurrentSquare() == null) {
+          /*
+           * hand the turn over, and check if the next team can still play. 
+           * Some games let a team move again (ex: a checkers piece that can keep jumping)
+           */
+          final int nextTeamID = moved ? game.getTurn() : (currentTeamID == 1 ? 2 : 1);
+          game.setTurn(nextTeamID);
+          final GameOutcome outcome = game.outcome();
+          
+          if (outcome.isLoss() && nextTeamID == 2) {
             hasWon = true;
             sendSignalAll(ServerResponses.TEAM1_WON);
             System.out.println("[SERVER] TEAM ONE WON!");
           }
-          else if (teams.getTeamOne().get(UnitType.KING).get(0).getCurrentSquare() == null) {
+          else if (outcome.isLoss() && nextTeamID == 1) {
             hasWon = true;
             sendSignalAll(ServerResponses.TEAM2_WON);
             System.out.println("[SERVER] TEAM TWO WON!");
-          }         
+          }
+          else if (outcome == GameOutcome.STALEMATE) {
+            hasWon = true;
+            sendSignalAll(ServerResponses.STALEMATE);
+            System.out.println("[SERVER] TEAM "+nextTeamID+" IS STALEMATED. IT'S A DRAW!");
+          }
+          else if (outcome == GameOutcome.REPETITION) {
+            hasWon = true;
+            sendSignalAll(ServerResponses.REPETITION);
+            System.out.println("[SERVER] THE SAME POSITION CAME UP THREE TIMES. IT'S A DRAW!");
+          }
+          else if (outcome == GameOutcome.FIFTY_MOVES) {
+            hasWon = true;
+            sendSignalAll(ServerResponses.FIFTY_MOVES);
+            System.out.println("[SERVER] FIFTY MOVES WITHOUT A CAPTURE OR PAWN MOVE. IT'S A DRAW!");
+          }
         }
         
         
@@ -338,7 +494,7 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
         }
         
         //switch turns
-        teamOneTurn = teamOneTurn ? false : true;
+        teamOneTurn = game.getTurn() == 1;
         currentRound++;
       }
 
@@ -369,9 +525,17 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
    *               If the team ID is anything other than 1 or 2, the messages are sent to everyone
    */
   private void countDownWindow(long seconds, String msgFormat, int team) {
+    awaitCountDown(startCountDown(seconds, msgFormat, team), msgFormat);
+  }
+  
+  /**
+   * Starts counting down a window without waiting for it (see countDownWindow())
+   * @return the executor counting down, which shuts down once the window is over
+   */
+  private ScheduledExecutorService startCountDown(long seconds, String msgFormat, int team) {
     ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(0);
     
-    //sleep thread for the amount of time the voting window is
+    //count down the window, a message per second
     System.out.println("----STARTING COUNTDOWN WINDOW USING FORMAT: "+msgFormat);
     Runnable timerTask = new Runnable() {
       private long execCount = seconds - 1;       
@@ -395,6 +559,13 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
       }
     };
     executor.scheduleAtFixedRate(timerTask, 1, 1, TimeUnit.SECONDS);
+    return executor;
+  }
+  
+  /**
+   * Waits for a window to be counted down (see startCountDown())
+   */
+  private void awaitCountDown(ScheduledExecutorService executor, String msgFormat) {
     try {
       executor.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
       System.out.println("----ENDING COUNTDOWN WINDOW USING FORMAT: "+msgFormat);
@@ -612,19 +783,22 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
             }
             else {
               //Count votes
-              HashMap<Vote, Integer> voteCount = new HashMap<>();
+              //votes on the same move are counted together, whoever cast them (see Vote.getKey())
+              HashMap<Long, Integer> voteCount = new HashMap<>();
+              HashMap<Long, Vote> voteMoves = new HashMap<>();
               Set<Player> playerTeam = teamOne.contains(player) ? teamOne : teamTwo;
               
               for (Vote vote : votes.values()) {
                 if (playerTeam.contains(vote.getVoter())) {
                   //only count the player's team votes
-                  voteCount.put(vote, voteCount.containsKey(vote) ? voteCount.get(vote) + 1 : 1);
+                  voteCount.merge(vote.getKey(), 1, Integer::sum);
+                  voteMoves.putIfAbsent(vote.getKey(), vote);
                 }
               }
               
               if (!voteCount.isEmpty()) {
                 //now, concat all votes
-                response = voteCount.entrySet().stream().map(x -> x.getKey().toString() + ">" + x.getValue()).collect(Collectors.joining(":"));               
+                response = voteCount.entrySet().stream().map(x -> voteMoves.get(x.getKey()).getMoveString() + ">" + x.getValue()).collect(Collectors.joining(":"));               
               }
               else {
                 errorCode = ServerResponses.NO_TALLY;
@@ -648,16 +822,19 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
                 int destFile = Integer.parseInt(arguments[2]);
                 char destRank = arguments[3].charAt(0);
                 
-                Vote vote = new Vote(fromFile, fromRank, destFile, destRank, player);
-
-                //make sure to only be sorting votes from the current team
+                /*
+                 * make sure to only be sorting votes from the current team - which the legal moves are for.
+                 * Votes are checked against the game's published legal moves, as the session thread may be moving units
+                 */
+                final int fromSquare = Bitboards.square(fromFile, fromRank);
+                final int destSquare = Bitboards.square(destFile, destRank);
+                final int move = fromSquare < 0 || destSquare < 0 ? Move.NONE : game.find(currentVotingTeam, fromSquare, destSquare);
+                final boolean validVote = move != Move.NONE;
                 
-                Square origin = board.querySquare(vote.getFileOrigin(), vote.getRankOrigin());
-                Square destination = board.querySquare(vote.getFileDest(), vote.getRankDest());
-                Unit targetUnit = origin.getUnit();
+                Vote vote = new Vote(fromFile, fromRank, destFile, destRank, player, move);
                 
                 //only consider vote if it's a valid vote, or if the rules allow for no filtering of bad votes              
-                if ( (targetUnit != null && targetUnit.getTeamID() == currentVotingTeam && targetUnit.possibleDestinations().contains(destination)) || 
+                if ( validVote || 
                      (rules.getProperty(Properties.ALLOW_INVL_VOTES).equals(Boolean.TRUE)) ) {             
                   votes.put(vote.getVoter(), vote);
                   
@@ -711,7 +888,17 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
           }
           case UPDATE:
           {
-            response = board.parsableToString();
+            response = board == null ? game.describe() : board.getSnapshot().parsableToString();
+            break;
+          }
+          case DIFF:
+          {
+            if (board == null) {
+              errorCode = ServerResponses.NO_DIFF;
+            }
+            else {
+              response = board.diffSince(Integer.parseInt(arguments[0])).toString();
+            }
             break;
           }
           case ALL:
@@ -797,10 +984,18 @@ public class Session extends SimpleChannelInboundHandler<String> implements Runn
     return status;
   }
   
+  /**
+   * Returns the chess Board of this session
+   * @return the chess Board of this session, or null if this session isn't playing chess
+   */
   protected Board getBoard(){
     return board;
   }
   
+  protected Game<?> getGame(){
+    return game;
+  }
+  
   public int getRounds(){
     return currentRound;
   }